@@ -68,7 +68,7 @@ public class AppCommand {
             String version = BaseServiceFisco.getVersion();
             System.err.println("block chain nodes connected successfully. ");
             System.err.println("the FISCO-BCOS version is: " + version);
-            int blockNumer = BaseServiceFisco.getBlockNumber();
+            int blockNumer = BaseServiceFisco.getLatestBlockNumber();
             System.err.println("the current blockNumer is: " + blockNumer);
         } catch (InitWeb3jException e) {
             System.err.println("ERROR: initWeb3j error:" + e.getMessage());
@@ -0,0 +1,144 @@
+package com.webank.weid.blockchain.config;
+
+import java.util.Objects;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * 合约地址快照, 一次从链上解析出的全局合约地址和chainId, 创建后不可修改.
+ * 每次解析结果发生变化时版本号递增.
+ */
+public final class ContractAddressSnapshot {
+
+    private final long version;
+
+    private final String weIdAddress;
+
+    private final String cptAddress;
+
+    private final String issuerAddress;
+
+    private final String specificIssuerAddress;
+
+    private final String evidenceAddress;
+
+    private final String chainId;
+
+    private final long loadTime;
+
+    /**
+     * 构造合约地址快照.
+     *
+     * @param version 快照版本号
+     * @param weIdAddress WeIdContract地址
+     * @param cptAddress CptController地址
+     * @param issuerAddress AuthorityIssuerController地址
+     * @param specificIssuerAddress SpecificIssuerController地址
+     * @param evidenceAddress EvidenceContract地址
+     * @param chainId 链ID
+     */
+    public ContractAddressSnapshot(
+        long version,
+        String weIdAddress,
+        String cptAddress,
+        String issuerAddress,
+        String specificIssuerAddress,
+        String evidenceAddress,
+        String chainId
+    ) {
+        this.version = version;
+        this.weIdAddress = weIdAddress;
+        this.cptAddress = cptAddress;
+        this.issuerAddress = issuerAddress;
+        this.specificIssuerAddress = specificIssuerAddress;
+        this.evidenceAddress = evidenceAddress;
+        this.chainId = chainId;
+        this.loadTime = System.currentTimeMillis();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getWeIdAddress() {
+        return weIdAddress;
+    }
+
+    public String getCptAddress() {
+        return cptAddress;
+    }
+
+    public String getIssuerAddress() {
+        return issuerAddress;
+    }
+
+    public String getSpecificIssuerAddress() {
+        return specificIssuerAddress;
+    }
+
+    public String getEvidenceAddress() {
+        return evidenceAddress;
+    }
+
+    public String getChainId() {
+        return chainId;
+    }
+
+    public long getLoadTime() {
+        return loadTime;
+    }
+
+    /**
+     * 合约地址是否齐全.
+     *
+     * @return 返回地址是否都存在
+     */
+    public boolean isComplete() {
+        return StringUtils.isNotBlank(weIdAddress)
+            && StringUtils.isNotBlank(issuerAddress)
+            && StringUtils.isNotBlank(specificIssuerAddress)
+            && StringUtils.isNotBlank(evidenceAddress)
+            && StringUtils.isNotBlank(cptAddress);
+    }
+
+    /**
+     * 比较两个快照的地址内容是否一致, 不比较版本号和加载时间.
+     *
+     * @param other 另一个快照
+     * @return 地址和chainId都相同时返回true
+     */
+    public boolean sameAddresses(ContractAddressSnapshot other) {
+        return other != null
+            && Objects.equals(weIdAddress, other.weIdAddress)
+            && Objects.equals(cptAddress, other.cptAddress)
+            && Objects.equals(issuerAddress, other.issuerAddress)
+            && Objects.equals(specificIssuerAddress, other.specificIssuerAddress)
+            && Objects.equals(evidenceAddress, other.evidenceAddress)
+            && Objects.equals(chainId, other.chainId);
+    }
+
+    /**
+     * 将快照中的地址写入FISCO配置对象.
+     *
+     * @param fiscoConfig FISCO配置对象
+     */
+    public void applyTo(FiscoConfig fiscoConfig) {
+        fiscoConfig.setChainId(chainId);
+        fiscoConfig.setWeIdAddress(weIdAddress);
+        fiscoConfig.setCptAddress(cptAddress);
+        fiscoConfig.setIssuerAddress(issuerAddress);
+        fiscoConfig.setSpecificIssuerAddress(specificIssuerAddress);
+        fiscoConfig.setEvidenceAddress(evidenceAddress);
+    }
+
+    @Override
+    public String toString() {
+        return "ContractAddressSnapshot{version=" + version
+            + ", weIdAddress=" + weIdAddress
+            + ", cptAddress=" + cptAddress
+            + ", issuerAddress=" + issuerAddress
+            + ", specificIssuerAddress=" + specificIssuerAddress
+            + ", evidenceAddress=" + evidenceAddress
+            + ", chainId=" + chainId + "}";
+    }
+}
@@ -0,0 +1,31 @@
+package com.webank.weid.blockchain.protocol.base;
+
+import lombok.Data;
+
+/**
+ * One signing record of an evidence in the local evidence catalog. An evidence created by one
+ * signer and co-signed by another has one record per signer.
+ */
+@Data
+public class EvidenceCatalogEntry {
+
+    /**
+     * The evidence hash.
+     */
+    private String hash;
+
+    /**
+     * The address of the signer.
+     */
+    private String signer;
+
+    /**
+     * The timestamp recorded on chain by the signer.
+     */
+    private Long timestamp;
+
+    /**
+     * The block in which the record was written.
+     */
+    private Long blockNumber;
+}
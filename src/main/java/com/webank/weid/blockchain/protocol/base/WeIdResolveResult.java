@@ -0,0 +1,20 @@
+package com.webank.weid.blockchain.protocol.base;
+
+import lombok.Data;
+
+/**
+ * 一次resolve得到的WeIdDocument和WeIdDocumentMetadata.
+ */
+@Data
+public class WeIdResolveResult {
+
+    /**
+     * Required: The WeIdentity DID document.
+     */
+    private WeIdDocument weIdDocument;
+
+    /**
+     * Required: The WeIdentity DID document metadata.
+     */
+    private WeIdDocumentMetadata weIdDocumentMetadata;
+}
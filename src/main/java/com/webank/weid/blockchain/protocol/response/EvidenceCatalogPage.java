@@ -0,0 +1,25 @@
+package com.webank.weid.blockchain.protocol.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+import com.webank.weid.blockchain.protocol.base.EvidenceCatalogEntry;
+
+/**
+ * One page of an evidence catalog query.
+ */
+@Data
+public class EvidenceCatalogPage {
+
+    /**
+     * The records of this page, ordered by timestamp and then by hash.
+     */
+    private List<EvidenceCatalogEntry> entries = new ArrayList<>();
+
+    /**
+     * The cursor to pass to the next query, null if this is the last page.
+     */
+    private String nextCursor;
+}
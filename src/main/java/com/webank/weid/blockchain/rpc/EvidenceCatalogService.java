@@ -0,0 +1,38 @@
+package com.webank.weid.blockchain.rpc;
+
+import com.webank.weid.blockchain.protocol.response.EvidenceCatalogPage;
+import com.webank.weid.blockchain.protocol.response.ResponseData;
+
+/**
+ * Service inf for querying the local evidence catalog, which indexes evidence by signer and
+ * timestamp.
+ */
+public interface EvidenceCatalogService {
+
+    /**
+     * Get the evidence created or co-signed by a signer within a time range, one page at a time.
+     * Pass the nextCursor of the previous page to get the following page.
+     *
+     * @param signer the address or WeID of the signer
+     * @param fromTimestamp the start of the time range, inclusive, null for no limit
+     * @param toTimestamp the end of the time range, inclusive, null for no limit
+     * @param cursor the nextCursor of the previous page, null for the first page
+     * @param pageSize the max number of records to return
+     * @return one page of records
+     */
+    ResponseData<EvidenceCatalogPage> getEvidenceBySigner(
+        String signer,
+        Long fromTimestamp,
+        Long toTimestamp,
+        String cursor,
+        Integer pageSize
+    );
+
+    /**
+     * Index the evidence written from a block height up to the latest block in background.
+     *
+     * @param fromBlock the block height to start from
+     * @return true if the backfill is started, false if another backfill is running
+     */
+    ResponseData<Boolean> backfill(Long fromBlock);
+}
@@ -6,6 +6,7 @@ import java.util.List;
 
 import com.webank.weid.blockchain.protocol.base.WeIdDocument;
 import com.webank.weid.blockchain.protocol.base.WeIdDocumentMetadata;
+import com.webank.weid.blockchain.protocol.base.WeIdResolveResult;
 import com.webank.weid.blockchain.protocol.response.ResponseData;
 
 
@@ -43,6 +44,24 @@ public interface WeIdService {
      */
     ResponseData<WeIdDocumentMetadata> getWeIdDocumentMetadata(String weId);
 
+    /**
+     * Query WeIdentity DID document and document metadata with one chain call.
+     *
+     * @param weId the WeIdentity DID
+     * @return weId document and document metadata in java object type
+     */
+    ResponseData<WeIdResolveResult> resolveFull(String weId);
+
+    /**
+     * Query WeIdentity DID document and document metadata of a batch of WeIdentity DIDs.
+     * The result list keeps the order of the input, an element is null if the WeIdentity DID
+     * can not be resolved.
+     *
+     * @param weIdList the WeIdentity DID list
+     * @return weId documents and document metadata in java object type
+     */
+    ResponseData<List<WeIdResolveResult>> batchResolveFull(List<String> weIdList);
+
     /**
      * call weid contract to update the weid document.
      *
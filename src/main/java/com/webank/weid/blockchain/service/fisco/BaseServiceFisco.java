@@ -2,6 +2,7 @@
 
 package com.webank.weid.blockchain.service.fisco;
 
+import com.webank.weid.blockchain.config.ContractAddressSnapshot;
 import com.webank.weid.blockchain.config.ContractConfig;
 import com.webank.weid.blockchain.service.fisco.engine.DataBucketServiceEngine;
 import com.webank.weid.blockchain.service.fisco.engine.EngineFactoryFisco;
@@ -10,13 +11,28 @@ import com.webank.weid.blockchain.constant.CnsType;
 import com.webank.weid.blockchain.constant.WeIdConstant;
 import com.webank.weid.blockchain.exception.WeIdBaseException;
 import com.webank.weid.blockchain.protocol.response.CnsInfo;
+import com.webank.weid.blockchain.service.fisco.server.CnsResolutionCache;
 import com.webank.weid.blockchain.service.fisco.server.WeServer;
 import com.webank.weid.blockchain.util.DataToolUtils;
+import com.webank.weid.blockchain.util.NamedThreadFactory;
+import com.webank.weid.blockchain.util.PropertyUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * The BaseService for other RPC classes.
@@ -35,13 +51,45 @@ public abstract class BaseServiceFisco {
 
     protected WeServer<?, ?, ?> weServer;
 
+    /**
+     * 全局合约地址在ORG_CONFING中的key, 顺序与resolveAddressSnapshot中的取值顺序一致.
+     */
+    private static final String[] ADDRESS_KEYS = {
+        WeIdConstant.CNS_WEID_ADDRESS,
+        WeIdConstant.CNS_AUTH_ADDRESS,
+        WeIdConstant.CNS_SPECIFIC_ADDRESS,
+        WeIdConstant.CNS_EVIDENCE_ADDRESS,
+        WeIdConstant.CNS_CPT_ADDRESS,
+        WeIdConstant.CNS_CHAIN_ID
+    };
+
+    private static final long ADDRESS_REFRESH_SECONDS = Long.parseLong(
+        PropertyUtils.getProperty("contract.address.refresh-seconds", "0"));
+
+    private static final Object ADDRESS_LOCK = new Object();
+
+    private static final AtomicBoolean ADDRESS_REFRESH_STARTED = new AtomicBoolean(false);
+
+    private static final List<Consumer<ContractAddressSnapshot>> ADDRESS_LISTENERS =
+        new CopyOnWriteArrayList<>();
+
+    private static final ConcurrentHashMap<CnsType, DataBucketServiceEngine> BUCKET_ENGINES =
+        new ConcurrentHashMap<>();
+
+    private static final ExecutorService ADDRESS_RESOLVER = Executors.newFixedThreadPool(
+        ADDRESS_KEYS.length, new NamedThreadFactory("weid-address-resolver"));
+
+    private static volatile ContractAddressSnapshot addressSnapshot;
+
     static {
-        fiscoConfig = new FiscoConfig();
-        if (!fiscoConfig.load()) {
-            logger.error("[BaseService] Failed to load Fisco-BCOS blockchain node information.");
-        }
-        fiscoConfig.check();
+        fiscoConfig = FiscoBootstrap.getFiscoConfig();
         masterGroupId = fiscoConfig.getGroupId();
+        // bucket地址变化后, 重新创建对应的DataBucket引擎
+        CnsResolutionCache.addChangeListener((groupId, cnsType) -> {
+            if (masterGroupId.equals(groupId)) {
+                BUCKET_ENGINES.remove(cnsType);
+            }
+        });
         //chainType = PropertyUtils.getProperty("blockchain.type", "FISCO_BCOS");
     }
 
@@ -65,8 +113,15 @@ public abstract class BaseServiceFisco {
         return WeServer.getInstance(fiscoConfig, groupId);
     }
 
+    /**
+     * 获取DataBucket引擎, 同一个cnsType的引擎只创建一次.
+     *
+     * @param cnsType cns类型枚举
+     * @return DataBucket引擎
+     */
     public static DataBucketServiceEngine getBucket(CnsType cnsType) {
-        return EngineFactoryFisco.createDataBucketServiceEngine(cnsType);
+        return BUCKET_ENGINES.computeIfAbsent(
+            cnsType, EngineFactoryFisco::createDataBucketServiceEngine);
     }
 
     /**
@@ -106,7 +161,7 @@ public abstract class BaseServiceFisco {
     }
 
     /**
-     * get current blockNumber.
+     * get current blockNumber, read from the chain head tracker.
      *
      * @return return blockNumber
      * @throws IOException possible exceptions to sending transactions
@@ -116,14 +171,35 @@ public abstract class BaseServiceFisco {
     }
 
     /**
-     * get current blockNumber.
+     * get current blockNumber, read from the chain head tracker.
      *
      * @param groupId 群组编号
      * @return return blockNumber
      * @throws IOException possible exceptions to sending transactions
      */
     public static int getBlockNumber(String groupId) throws IOException {
-        return getWeServer(groupId).getBlockNumber();
+        return ChainHeadTracker.getBlockNumber(groupId);
+    }
+
+    /**
+     * get current blockNumber from the node directly.
+     *
+     * @return return blockNumber
+     * @throws IOException possible exceptions to sending transactions
+     */
+    public static int getLatestBlockNumber() throws IOException {
+        return getLatestBlockNumber(masterGroupId);
+    }
+
+    /**
+     * get current blockNumber from the node directly.
+     *
+     * @param groupId 群组编号
+     * @return return blockNumber
+     * @throws IOException possible exceptions to sending transactions
+     */
+    public static int getLatestBlockNumber(String groupId) throws IOException {
+        return ChainHeadTracker.getLatestBlockNumber(groupId);
     }
 
     /**
@@ -147,13 +223,13 @@ public abstract class BaseServiceFisco {
     }
 
     /**
-     * 检查群组是否存在.
+     * 检查群组是否存在, 从GroupTopology的群组快照中判断.
      *
      * @param groupId 被检查群组
      * @return true表示群组存在，false表示群组不存在
      */
     public static boolean checkGroupId(String groupId) {
-        return getWeServer(groupId).getGroupList().contains(groupId);
+        return GroupTopology.containsGroup(groupId);
     }
 
 
@@ -183,31 +259,115 @@ public abstract class BaseServiceFisco {
 
     /**
      * 重新拉取合约地址 并且重新加载相关合约.
+     * 全局地址跳过DataBucket缓存并发从链上读取, 结果作为不可变快照发布, 地址变化时版本号递增并通知监听者.
+     * 地址不齐全时不发布, 配置中原有的地址保持不变.
      */
     public static void reloadAddress() {
-        fiscoConfig.load();
-        String module = WeIdConstant.CNS_GLOBAL_KEY;
-        CnsType cnsType = CnsType.ORG_CONFING;
-        String  weIdAddress = getAddress(cnsType, module, WeIdConstant.CNS_WEID_ADDRESS);
-        String  issuerAddress = getAddress(cnsType, module, WeIdConstant.CNS_AUTH_ADDRESS);
-        String  specificAddress = getAddress(cnsType, module, WeIdConstant.CNS_SPECIFIC_ADDRESS);
-        String  evidenceAddress = getAddress(cnsType, module, WeIdConstant.CNS_EVIDENCE_ADDRESS);
-        String  cptAddress = getAddress(cnsType, module, WeIdConstant.CNS_CPT_ADDRESS);
-        String  chainId = getAddress(cnsType, module, WeIdConstant.CNS_CHAIN_ID);
-        fiscoConfig.setChainId(chainId);
-        fiscoConfig.setWeIdAddress(weIdAddress);
-        fiscoConfig.setCptAddress(cptAddress);
-        fiscoConfig.setIssuerAddress(issuerAddress);
-        fiscoConfig.setSpecificIssuerAddress(specificAddress);
-        fiscoConfig.setEvidenceAddress(evidenceAddress);
-        if (!fiscoConfig.checkAddress()) {
-            throw new WeIdBaseException(
-                "can not found the contract address, please enable by admin. ");
+        synchronized (ADDRESS_LOCK) {
+            ContractAddressSnapshot snapshot = resolveAddressSnapshot();
+            if (!snapshot.isComplete()) {
+                logger.error("[reloadAddress] resolved address is incomplete: {}.", snapshot);
+                throw new WeIdBaseException(
+                    "can not found the contract address, please enable by admin. ");
+            }
+            publishSnapshot(snapshot);
         }
+        startAddressRefresh();
     }
 
-    private static String getAddress(CnsType cnsType, String hash, String key) {
-        return getBucket(cnsType).get(hash, key).getResult();
+    /**
+     * 获取当前的合约地址快照.
+     *
+     * @return 合约地址快照, 尚未从链上解析过时返回null
+     */
+    public static ContractAddressSnapshot getAddressSnapshot() {
+        return addressSnapshot;
+    }
+
+    /**
+     * 注册合约地址变化监听, 每次发布新版本的地址快照时回调.
+     *
+     * @param listener 监听者
+     */
+    public static void addAddressChangeListener(Consumer<ContractAddressSnapshot> listener) {
+        ADDRESS_LISTENERS.add(listener);
+    }
+
+    private static ContractAddressSnapshot resolveAddressSnapshot() {
+        long start = System.nanoTime();
+        DataBucketServiceEngine bucket = getBucket(CnsType.ORG_CONFING);
+        List<CompletableFuture<String>> futures = new ArrayList<>(ADDRESS_KEYS.length);
+        for (String key : ADDRESS_KEYS) {
+            futures.add(CompletableFuture.supplyAsync(
+                () -> bucket.refresh(WeIdConstant.CNS_GLOBAL_KEY, key).getResult(),
+                ADDRESS_RESOLVER
+            ));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            logger.error("[reloadAddress] resolve contract address has error.", e.getCause());
+            throw new WeIdBaseException("resolve contract address has error.", e.getCause());
+        }
+        ContractAddressSnapshot current = addressSnapshot;
+        ContractAddressSnapshot resolved = new ContractAddressSnapshot(
+            current == null ? 1L : current.getVersion() + 1,
+            futures.get(0).join(),
+            futures.get(4).join(),
+            futures.get(1).join(),
+            futures.get(2).join(),
+            futures.get(3).join(),
+            futures.get(5).join()
+        );
+        logger.info("[reloadAddress] resolve contract address in {} ms.",
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return resolved;
+    }
+
+    /**
+     * 发布已校验的地址快照: 先写入配置, 再替换快照并通知监听者, 监听者看到的配置和快照一致.
+     */
+    private static ContractAddressSnapshot publishSnapshot(ContractAddressSnapshot resolved) {
+        ContractAddressSnapshot current = addressSnapshot;
+        if (resolved.sameAddresses(current)) {
+            return current;
+        }
+        resolved.applyTo(fiscoConfig);
+        addressSnapshot = resolved;
+        logger.info("[reloadAddress] publish contract address: {}.", resolved);
+        for (Consumer<ContractAddressSnapshot> listener : ADDRESS_LISTENERS) {
+            try {
+                listener.accept(resolved);
+            } catch (Exception e) {
+                logger.error("[reloadAddress] notify address listener has error.", e);
+            }
+        }
+        return resolved;
+    }
+
+    private static void startAddressRefresh() {
+        if (ADDRESS_REFRESH_SECONDS <= 0 || !ADDRESS_REFRESH_STARTED.compareAndSet(false, true)) {
+            return;
+        }
+        logger.info("[startAddressRefresh] refresh contract address every {} seconds.",
+            ADDRESS_REFRESH_SECONDS);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            new NamedThreadFactory("weid-address-refresh"));
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                synchronized (ADDRESS_LOCK) {
+                    ContractAddressSnapshot snapshot = resolveAddressSnapshot();
+                    if (snapshot.isComplete()) {
+                        publishSnapshot(snapshot);
+                    } else {
+                        logger.warn("[startAddressRefresh] resolved address is incomplete, "
+                            + "keep the current snapshot.");
+                    }
+                }
+            } catch (Exception e) {
+                logger.error("[startAddressRefresh] refresh contract address has error.", e);
+            }
+        }, ADDRESS_REFRESH_SECONDS, ADDRESS_REFRESH_SECONDS, TimeUnit.SECONDS);
     }
 
     /**
@@ -215,9 +375,13 @@ public abstract class BaseServiceFisco {
      * @return 返回chainId
      */
     public static String getChainId() {
+        ContractAddressSnapshot snapshot = addressSnapshot;
+        if (snapshot != null && StringUtils.isNotBlank(snapshot.getChainId())) {
+            return snapshot.getChainId();
+        }
         if (StringUtils.isBlank(fiscoConfig.getChainId())) {
             reloadAddress();
         }
         return fiscoConfig.getChainId();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,124 @@
+package com.webank.weid.blockchain.service.fisco;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.util.NamedThreadFactory;
+import com.webank.weid.blockchain.util.PropertyUtils;
+
+/**
+ * 链头跟踪, 按群组在后台定时查询最新块高, getBlockNumber只读取内存中的值.
+ *
+ * <p>每个群组在第一次查询块高时开始跟踪, 之后每隔poll-millis查询一次. 块高只会增大,
+ * 强一致读取到的块高也会更新跟踪值. 跟踪值超过max-stale-millis没有更新(如节点连接异常)时,
+ * getBlockNumber退化为直接查询节点. 配置poll-millis为0时不跟踪, 所有查询都直接访问节点.
+ */
+public final class ChainHeadTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChainHeadTracker.class);
+
+    private static final long POLL_MILLIS = Long.parseLong(
+        PropertyUtils.getProperty("chain.head.poll-millis", "1000"));
+
+    private static final long MAX_STALE_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(
+        PropertyUtils.getProperty("chain.head.max-stale-millis", "10000")));
+
+    private static final ConcurrentHashMap<String, Head> HEADS = new ConcurrentHashMap<>();
+
+    private static final Set<String> TRACKED_GROUPS = ConcurrentHashMap.newKeySet();
+
+    private static final ScheduledExecutorService SCHEDULER;
+
+    static {
+        logger.info("[ChainHeadTracker] pollMillis: {}, maxStaleMillis: {}.",
+            POLL_MILLIS, TimeUnit.NANOSECONDS.toMillis(MAX_STALE_NANOS));
+        SCHEDULER = POLL_MILLIS > 0
+            ? Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("weid-chain-head"))
+            : null;
+    }
+
+    private ChainHeadTracker() {
+    }
+
+    /**
+     * 获取群组的最新块高, 跟踪值可用时直接返回, 最多落后poll-millis.
+     *
+     * @param groupId 群组编号
+     * @return 块高
+     * @throws IOException 直接查询节点时可能出现的异常
+     */
+    public static int getBlockNumber(String groupId) throws IOException {
+        if (SCHEDULER == null) {
+            return getLatestBlockNumber(groupId);
+        }
+        Head head = HEADS.get(groupId);
+        if (head != null && System.nanoTime() - head.updatedNanos <= MAX_STALE_NANOS) {
+            return head.blockNumber;
+        }
+        // 先开始跟踪再查询, 首次查询失败时后台仍会继续更新跟踪值
+        track(groupId);
+        return getLatestBlockNumber(groupId);
+    }
+
+    /**
+     * 直接查询节点获取群组的最新块高, 用于需要强一致的场景, 同时更新跟踪值.
+     *
+     * @param groupId 群组编号
+     * @return 块高
+     * @throws IOException 查询节点时可能出现的异常
+     */
+    public static int getLatestBlockNumber(String groupId) throws IOException {
+        int blockNumber = BaseServiceFisco.getWeServer(groupId).getBlockNumber();
+        observe(groupId, blockNumber);
+        return blockNumber;
+    }
+
+    /**
+     * 记录从链上得到的块高, 比跟踪值小的块高会被忽略.
+     *
+     * @param groupId 群组编号
+     * @param blockNumber 块高
+     */
+    public static void observe(String groupId, int blockNumber) {
+        if (SCHEDULER == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        HEADS.merge(groupId, new Head(blockNumber, now),
+            (previous, next) -> new Head(Math.max(previous.blockNumber, blockNumber), now));
+    }
+
+    private static void track(String groupId) {
+        if (TRACKED_GROUPS.add(groupId)) {
+            logger.info("[ChainHeadTracker] track block number of group {}.", groupId);
+            SCHEDULER.scheduleWithFixedDelay(
+                () -> poll(groupId), POLL_MILLIS, POLL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static void poll(String groupId) {
+        try {
+            getLatestBlockNumber(groupId);
+        } catch (Exception e) {
+            logger.warn("[ChainHeadTracker] query block number of group {} failed.", groupId, e);
+        }
+    }
+
+    private static final class Head {
+
+        private final int blockNumber;
+        private final long updatedNanos;
+
+        private Head(int blockNumber, long updatedNanos) {
+            this.blockNumber = blockNumber;
+            this.updatedNanos = updatedNanos;
+        }
+    }
+}
@@ -31,11 +31,7 @@ public class CryptoFisco {
     public static final CryptoSuite cryptoSuite;
 
     static {
-        fiscoConfig = new FiscoConfig();
-        if (!fiscoConfig.load()) {
-            logger.error("[BaseService] Failed to load Fisco-BCOS blockchain node information.");
-            System.exit(1);
-        }
+        fiscoConfig = FiscoBootstrap.getFiscoConfig();
     }
 
     static {
@@ -57,7 +53,8 @@ public class CryptoFisco {
 
     //derive hex publicKey from privateKey
     public static CryptoKeyPair keypairFromPrivate(BigInteger privateKey) {
-        return cryptoSuite.getKeyPairFactory().createKeyPair(privateKey);
+        return KeyPairCache.get(cryptoSuite, privateKey,
+            key -> cryptoSuite.getKeyPairFactory().createKeyPair(key));
     }
 
     //derive address from publicKey
@@ -93,7 +90,7 @@ public class CryptoFisco {
      * @return SignatureData for signature value
      */
     public static RsvSignature sign(String messageHash, String privateKey) {
-        CryptoKeyPair cryptoKeyPair =  cryptoSuite.getKeyPairFactory().createKeyPair(new BigInteger(privateKey));
+        CryptoKeyPair cryptoKeyPair = keypairFromPrivate(new BigInteger(privateKey));
         RsvSignature rsvSignature = new RsvSignature();
         SignatureResult signatureResult = cryptoSuite.sign(messageHash, cryptoKeyPair);
         Bytes32 R = new Bytes32(signatureResult.getR());
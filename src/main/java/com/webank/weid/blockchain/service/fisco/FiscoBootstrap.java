@@ -0,0 +1,98 @@
+package com.webank.weid.blockchain.service.fisco;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.config.FiscoConfig;
+
+/**
+ * 启动上下文, 进程内只加载一次FiscoConfig, 供BaseServiceFisco, EngineFactoryFisco, CryptoFisco共用,
+ * 并记录启动各阶段(配置加载, SDK连接, CNS解析, 合约加载)的耗时.
+ */
+public final class FiscoBootstrap {
+
+    private static final Logger logger = LoggerFactory.getLogger(FiscoBootstrap.class);
+
+    /**
+     * 配置加载阶段.
+     */
+    public static final String PHASE_PROPERTY_LOAD = "property load";
+
+    /**
+     * SDK连接阶段.
+     */
+    public static final String PHASE_SDK_CONNECT = "sdk connect";
+
+    /**
+     * CNS/BFS服务初始化阶段.
+     */
+    public static final String PHASE_CNS_RESOLUTION = "cns resolution";
+
+    /**
+     * 合约加载阶段.
+     */
+    public static final String PHASE_CONTRACT_LOAD = "contract load";
+
+    private static final Map<String, Long> PHASE_MILLIS = new LinkedHashMap<>();
+
+    private static final FiscoConfig fiscoConfig;
+
+    static {
+        long start = System.nanoTime();
+        fiscoConfig = new FiscoConfig();
+        if (!fiscoConfig.load()) {
+            logger.error("[FiscoBootstrap] Failed to load Fisco-BCOS blockchain node information.");
+        }
+        fiscoConfig.check();
+        record(PHASE_PROPERTY_LOAD, start);
+    }
+
+    private FiscoBootstrap() {
+    }
+
+    /**
+     * 获取进程共享的FISCO配置对象.
+     *
+     * @return FISCO配置对象
+     */
+    public static FiscoConfig getFiscoConfig() {
+        return fiscoConfig;
+    }
+
+    /**
+     * 记录一个启动阶段的耗时, 同一阶段多次执行(如多个群组)时累加.
+     *
+     * @param phase 阶段名称
+     * @param startNanos 阶段开始时的System.nanoTime()
+     */
+    public static void record(String phase, long startNanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        synchronized (PHASE_MILLIS) {
+            PHASE_MILLIS.merge(phase, millis, Long::sum);
+        }
+        logger.info("[FiscoBootstrap] phase [{}] finished in {} ms.", phase, millis);
+    }
+
+    /**
+     * 获取各启动阶段的耗时(毫秒).
+     *
+     * @return 阶段名称到耗时的映射
+     */
+    public static Map<String, Long> getPhaseMillis() {
+        synchronized (PHASE_MILLIS) {
+            return Collections.unmodifiableMap(new LinkedHashMap<>(PHASE_MILLIS));
+        }
+    }
+
+    /**
+     * 输出启动耗时汇总.
+     */
+    public static void logSummary() {
+        logger.info("[FiscoBootstrap] startup phase breakdown (ms): {}.", getPhaseMillis());
+    }
+}
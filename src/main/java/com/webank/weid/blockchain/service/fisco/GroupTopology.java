@@ -0,0 +1,144 @@
+package com.webank.weid.blockchain.service.fisco;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.service.fisco.server.WeServer;
+import com.webank.weid.blockchain.util.NamedThreadFactory;
+import com.webank.weid.blockchain.util.PropertyUtils;
+
+/**
+ * 群组拓扑, 保存链上群组及其节点列表的不可变快照.
+ *
+ * <p>第一次使用时同步加载, 之后每隔refresh-seconds在后台重新加载, 加载完成后整体替换快照,
+ * 读取方不加锁也不会等待. 加载失败时保留原有快照. 查询的群组不在快照中时会触发一次后台加载,
+ * 新建的群组在加载完成后可见.
+ */
+public final class GroupTopology {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupTopology.class);
+
+    private static final long REFRESH_SECONDS = Long.parseLong(
+        PropertyUtils.getProperty("group.topology.refresh-seconds", "300"));
+
+    private static final ScheduledExecutorService SCHEDULER =
+        Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("weid-group-topology"));
+
+    private static final AtomicBoolean STARTED = new AtomicBoolean(false);
+
+    /**
+     * 已有一次等待执行的后台加载时, 不再重复提交.
+     */
+    private static final AtomicBoolean REFRESH_PENDING = new AtomicBoolean(false);
+
+    private static volatile Map<String, List<String>> groupPeers;
+
+    private GroupTopology() {
+    }
+
+    /**
+     * 判断群组是否存在.
+     *
+     * @param groupId 群组编号
+     * @return true表示群组存在
+     */
+    public static boolean containsGroup(String groupId) {
+        if (current().containsKey(groupId)) {
+            return true;
+        }
+        requestRefresh();
+        return false;
+    }
+
+    /**
+     * 获取群组到节点列表的映射.
+     *
+     * @return 不可修改的映射
+     */
+    public static Map<String, List<String>> getGroupMapping() {
+        return current();
+    }
+
+    /**
+     * 获取群组列表.
+     *
+     * @return 群组列表
+     */
+    public static List<String> getGroupList() {
+        return new ArrayList<>(current().keySet());
+    }
+
+    private static Map<String, List<String>> current() {
+        Map<String, List<String>> snapshot = groupPeers;
+        if (snapshot == null) {
+            synchronized (GroupTopology.class) {
+                snapshot = groupPeers;
+                if (snapshot == null) {
+                    snapshot = load();
+                    groupPeers = snapshot;
+                }
+            }
+            start();
+        }
+        return snapshot;
+    }
+
+    private static void start() {
+        if (REFRESH_SECONDS > 0 && STARTED.compareAndSet(false, true)) {
+            SCHEDULER.scheduleWithFixedDelay(
+                GroupTopology::refresh, REFRESH_SECONDS, REFRESH_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void requestRefresh() {
+        if (REFRESH_PENDING.compareAndSet(false, true)) {
+            SCHEDULER.execute(() -> {
+                REFRESH_PENDING.set(false);
+                refresh();
+            });
+        }
+    }
+
+    private static void refresh() {
+        try {
+            Map<String, List<String>> snapshot = load();
+            if (!snapshot.isEmpty() || groupPeers == null) {
+                groupPeers = snapshot;
+            }
+        } catch (Exception e) {
+            logger.warn("[GroupTopology] refresh group topology has error.", e);
+        }
+    }
+
+    private static Map<String, List<String>> load() {
+        logger.info("[GroupTopology] begin loading group.");
+        WeServer<?, ?, ?> weServer = BaseServiceFisco.getWeServer(BaseServiceFisco.masterGroupId);
+        Set<String> groupList;
+        List<String> peers;
+        try {
+            groupList = weServer.getGroupList();
+            // 节点列表只能从主群组的连接查询, 各群组共用
+            peers = Collections.unmodifiableList(new ArrayList<>(weServer.getGroupPeers()));
+        } catch (Exception e) {
+            logger.warn("[GroupTopology] get groupList has error.", e);
+            return Collections.emptyMap();
+        }
+        Map<String, List<String>> snapshot = new HashMap<>();
+        for (String groupId : groupList) {
+            snapshot.put(groupId, peers);
+        }
+        logger.info("[GroupTopology] load group successfully, groupList : {}.", groupList);
+        return Collections.unmodifiableMap(snapshot);
+    }
+}
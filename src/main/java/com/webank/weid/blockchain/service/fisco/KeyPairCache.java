@@ -0,0 +1,159 @@
+package com.webank.weid.blockchain.service.fisco;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.exception.PrivateKeyIllegalException;
+import com.webank.weid.blockchain.util.PropertyUtils;
+
+/**
+ * 密钥对派生缓存, 私钥到公钥/地址/CryptoKeyPair的派生需要做一次椭圆曲线点乘,
+ * 同一私钥在一次请求中往往会被派生多次, 这里按私钥的HMAC指纹缓存派生结果.
+ *
+ * <p>缓存key只保存私钥的HMAC指纹, 指纹的密钥在进程启动时随机生成, 条目被淘汰时指纹会被清零.
+ * 同一个私钥在不同的CryptoSuite下分别缓存.
+ */
+public final class KeyPairCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeyPairCache.class);
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private static final boolean ENABLED = Boolean.parseBoolean(
+        PropertyUtils.getProperty("keypair.cache.enabled", "true"));
+
+    private static final long MAX_SIZE = Long.parseLong(
+        PropertyUtils.getProperty("keypair.cache.max-size", "1024"));
+
+    private static final long EXPIRE_SECONDS = Long.parseLong(
+        PropertyUtils.getProperty("keypair.cache.expire-seconds", "300"));
+
+    private static final SecretKeySpec FINGERPRINT_KEY;
+
+    private static final Cache<DerivationKey, Object> CACHE = Caffeine.newBuilder()
+        .maximumSize(MAX_SIZE)
+        .expireAfterWrite(EXPIRE_SECONDS, TimeUnit.SECONDS)
+        .removalListener(KeyPairCache::onRemoval)
+        .recordStats()
+        .build();
+
+    static {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        FINGERPRINT_KEY = new SecretKeySpec(secret, HMAC_ALGORITHM);
+        Arrays.fill(secret, (byte) 0);
+        logger.info("[KeyPairCache] enabled: {}, maxSize: {}, expireSeconds: {}.",
+            ENABLED, MAX_SIZE, EXPIRE_SECONDS);
+    }
+
+    private KeyPairCache() {
+    }
+
+    /**
+     * 获取私钥在指定CryptoSuite下派生的密钥对, 未命中时通过factory派生.
+     *
+     * @param cryptoSuite 派生使用的CryptoSuite, 用于区分不同的SDK和算法
+     * @param privateKey 私钥
+     * @param factory 派生方法
+     * @param <T> CryptoKeyPair类型
+     * @return 派生出的密钥对
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T get(
+        Object cryptoSuite,
+        BigInteger privateKey,
+        Function<BigInteger, T> factory
+    ) {
+        if (!ENABLED) {
+            return factory.apply(privateKey);
+        }
+        byte[] keyBytes = privateKey.toByteArray();
+        DerivationKey key = new DerivationKey(cryptoSuite, fingerprint(keyBytes));
+        Arrays.fill(keyBytes, (byte) 0);
+        return (T) CACHE.get(key, k -> factory.apply(privateKey));
+    }
+
+    /**
+     * 计算密钥材料的HMAC指纹, 用于在缓存中代替私钥本身作为key.
+     *
+     * @param keyMaterial 密钥材料
+     * @return HMAC指纹
+     */
+    public static byte[] fingerprint(byte[] keyMaterial) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(FINGERPRINT_KEY);
+            return mac.doFinal(keyMaterial);
+        } catch (GeneralSecurityException e) {
+            throw new PrivateKeyIllegalException(e);
+        }
+    }
+
+    /**
+     * 清除所有派生结果.
+     */
+    public static void invalidateAll() {
+        CACHE.invalidateAll();
+    }
+
+    /**
+     * 获取缓存统计信息.
+     *
+     * @return 统计信息
+     */
+    public static CacheStats stats() {
+        return CACHE.stats();
+    }
+
+    private static void onRemoval(DerivationKey key, Object keyPair, RemovalCause cause) {
+        if (key != null) {
+            Arrays.fill(key.fingerprint, (byte) 0);
+        }
+    }
+
+    private static final class DerivationKey {
+
+        private final Object cryptoSuite;
+        private final byte[] fingerprint;
+        private final int hash;
+
+        private DerivationKey(Object cryptoSuite, byte[] fingerprint) {
+            this.cryptoSuite = cryptoSuite;
+            this.fingerprint = fingerprint;
+            this.hash = 31 * System.identityHashCode(cryptoSuite) + Arrays.hashCode(fingerprint);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof DerivationKey)) {
+                return false;
+            }
+            DerivationKey other = (DerivationKey) o;
+            return hash == other.hash
+                && cryptoSuite == other.cryptoSuite
+                && Arrays.equals(fingerprint, other.fingerprint);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
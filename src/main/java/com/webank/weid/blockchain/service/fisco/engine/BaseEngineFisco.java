@@ -19,10 +19,6 @@
 
 package com.webank.weid.blockchain.service.fisco.engine;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-
-import org.fisco.bcos.sdk.crypto.keypair.CryptoKeyPair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,24 +40,13 @@ public abstract class BaseEngineFisco extends BaseServiceFisco {
     private <T> T loadContract(
         String contractAddress,
         Object credentials,
-        Class<T> cls) throws NoSuchMethodException, IllegalAccessException,
-        InvocationTargetException {
-        Class clazz = "2".equals(BaseServiceFisco.fiscoConfig.getVersion()) ? CryptoKeyPair.class : org.fisco.bcos.sdk.v3.crypto.keypair.CryptoKeyPair.class;
-        Object contract;
-        Method method = cls.getMethod(
-            "load",
-            String.class,
-            getWeb3jClass(),
-            clazz // 获取ECDSAKeyPair或者SM2KeyPair的父类CryptoKeyPair
-        );
-        Object obj = weServer.getWeb3j();
-        contract = method.invoke(
-            null,
+        Class<T> cls) {
+        Object contract = ContractFactoryRegistry.getFactory(cls).load(
             contractAddress,
-            obj,
+            weServer.getWeb3j(),
             credentials
         );
-        return (T) contract;
+        return cls.cast(contract);
     }
 
     /**
@@ -80,9 +65,11 @@ public abstract class BaseEngineFisco extends BaseServiceFisco {
 
         T contract = null;
         try {
-            // load contract
-            contract = loadContract(contractAddress, weServer.createCredentials(privateKey), cls);
-            logger.info(cls.getSimpleName() + " init succ");
+            // load contract, the handle is reused for the same signer
+            Object client = weServer.getWeb3j();
+            contract = ContractHandleCache.get(contractAddress, privateKey, client, cls, () ->
+                loadContract(contractAddress, weServer.createCredentials(privateKey), cls));
+            logger.debug(cls.getSimpleName() + " init succ");
         } catch (Exception e) {
             logger.error("load contract :{} failed. Error message is :{}",
                 cls.getSimpleName(), e.getMessage(), e);
@@ -110,10 +97,6 @@ public abstract class BaseEngineFisco extends BaseServiceFisco {
             contract = loadContract(contractAddress, weServer.getCredentials(), cls);
             logger.info(cls.getSimpleName() + " init succ");
 
-        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
-            logger.error("load contract :{} failed. Error message is :{}",
-                cls.getSimpleName(), e.getMessage(), e);
-            throw new LoadContractException(e);
         } catch (Exception e) {
             logger.error("load contract Exception:{} failed. Error message is :{}",
                 cls.getSimpleName(), e.getMessage(), e);
@@ -0,0 +1,303 @@
+package com.webank.weid.blockchain.service.fisco.engine;
+
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.exception.WeIdBaseException;
+import com.webank.weid.blockchain.util.NamedThreadFactory;
+import com.webank.weid.blockchain.util.PropertyUtils;
+
+/**
+ * 历史区块回填, 并行查询主群组一段区块的交易回执, 按区块顺序交给消费者, 用于建立各种派生索引.
+ *
+ * <p>所有回填任务共用threads个查询线程. 单个任务已提交但尚未消费的区块不超过queue-blocks个,
+ * 消费者处理慢时不再提交新的查询. 查询失败的区块重试retry-times次, 仍失败时任务停止.
+ *
+ * <p>每个任务有一个名字, 已消费的最高区块为检查点, 每消费checkpoint-blocks个区块以及任务结束时,
+ * 写入checkpoint-dir目录下的{名字}.checkpoint文件; 未配置checkpoint-dir时只保存在实例中.
+ * 再次运行时从检查点的下一个区块继续. 运行期间每隔report-seconds输出一次区块/秒和回执/秒.
+ */
+public final class BlockBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlockBackfill.class);
+
+    private final String name;
+
+    private final String checkpointFile;
+
+    private final BlockFetcher fetcher;
+
+    private final Consumer consumer;
+
+    private final ExecutorService executor;
+
+    private final int queueBlocks;
+
+    private final int retryTimes;
+
+    private final long checkpointBlocks;
+
+    private final long reportNanos;
+
+    private final AtomicLong blocks = new AtomicLong();
+
+    private final AtomicLong receipts = new AtomicLong();
+
+    private volatile long checkpoint;
+
+    private volatile long startNanos;
+
+    private volatile boolean stopped;
+
+    /**
+     * 区块回执的消费者.
+     */
+    @FunctionalInterface
+    public interface Consumer {
+
+        /**
+         * 处理一个区块的回执, 同一任务中按区块顺序在同一个线程中调用.
+         *
+         * @param blockNumber 区块高度
+         * @param receipts 回执列表, 类型与链版本对应
+         * @throws Exception 处理失败, 任务停止, 检查点停留在上一个区块
+         */
+        void accept(long blockNumber, List<Object> receipts) throws Exception;
+    }
+
+    /**
+     * 构造回填任务.
+     *
+     * @param name 任务名, 同时用作检查点文件名
+     * @param consumer 回执消费者
+     */
+    public BlockBackfill(String name, Consumer consumer) {
+        this(name, Config.checkpointFile(name), EngineFactoryFisco.createBlockFetcher(), consumer,
+            Config.EXECUTOR, Config.QUEUE_BLOCKS, Config.RETRY_TIMES, Config.CHECKPOINT_BLOCKS,
+            Config.REPORT_NANOS);
+    }
+
+    /**
+     * 使用指定的区块查询和线程池构造回填任务, 不读取配置.
+     *
+     * @param name 任务名
+     * @param checkpointFile 检查点文件, 为null时只保存在实例中
+     * @param fetcher 区块查询
+     * @param consumer 回执消费者
+     * @param executor 查询线程池
+     * @param queueBlocks 已提交但尚未消费的区块上限
+     * @param retryTimes 查询失败的重试次数
+     * @param checkpointBlocks 写入检查点的区块间隔
+     * @param reportNanos 输出速度的时间间隔
+     */
+    BlockBackfill(
+        String name,
+        String checkpointFile,
+        BlockFetcher fetcher,
+        Consumer consumer,
+        ExecutorService executor,
+        int queueBlocks,
+        int retryTimes,
+        long checkpointBlocks,
+        long reportNanos
+    ) {
+        this.name = name;
+        this.checkpointFile = checkpointFile;
+        this.fetcher = fetcher;
+        this.consumer = consumer;
+        this.executor = executor;
+        this.queueBlocks = Math.max(1, queueBlocks);
+        this.retryTimes = retryTimes;
+        this.checkpointBlocks = checkpointBlocks;
+        this.reportNanos = reportNanos;
+        this.checkpoint = CheckpointFile.read(checkpointFile);
+    }
+
+    /**
+     * 回填[fromBlock, toBlock]中检查点之后的区块, 在调用线程中消费, 完成, 失败或停止后返回.
+     *
+     * @param fromBlock 起始区块
+     * @param toBlock 结束区块, 包含在内
+     * @return 已消费的最高区块
+     * @throws Exception 区块查询重试后仍失败, 或消费者抛出异常
+     */
+    public long run(long fromBlock, long toBlock) throws Exception {
+        stopped = false;
+        blocks.set(0L);
+        receipts.set(0L);
+        startNanos = System.nanoTime();
+        long next = Math.max(fromBlock, checkpoint + 1);
+        logger.info("[BlockBackfill] {} from block {} to {}.", name, next, toBlock);
+        Deque<Pending> pending = new ArrayDeque<>();
+        long submitted = next;
+        long lastReport = startNanos;
+        long lastWrite = checkpoint;
+        try {
+            while (!stopped && next <= toBlock) {
+                while (submitted <= toBlock && pending.size() < queueBlocks) {
+                    pending.add(new Pending(submitted));
+                    submitted++;
+                }
+                Pending head = pending.poll();
+                List<Object> result = head.await();
+                consumer.accept(head.blockNumber, result);
+                blocks.incrementAndGet();
+                receipts.addAndGet(result.size());
+                checkpoint = head.blockNumber;
+                next = head.blockNumber + 1;
+                if (checkpoint - lastWrite >= checkpointBlocks) {
+                    CheckpointFile.write(checkpointFile, checkpoint);
+                    lastWrite = checkpoint;
+                }
+                if (System.nanoTime() - lastReport >= reportNanos) {
+                    lastReport = System.nanoTime();
+                    report();
+                }
+            }
+        } finally {
+            for (Pending rest : pending) {
+                rest.future.cancel(true);
+            }
+            if (checkpoint != lastWrite) {
+                CheckpointFile.write(checkpointFile, checkpoint);
+            }
+            report();
+        }
+        return checkpoint;
+    }
+
+    /**
+     * 停止正在运行的任务, 已提交的查询会被取消, 检查点停留在最后消费的区块.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * 清除检查点, 下一次运行从fromBlock开始.
+     */
+    public void clearCheckpoint() {
+        checkpoint = -1L;
+        CheckpointFile.delete(checkpointFile);
+    }
+
+    /**
+     * 获取已消费的最高区块.
+     *
+     * @return 区块高度, 尚未消费过时返回-1
+     */
+    public long getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * 获取本次运行的平均区块速度.
+     *
+     * @return 区块/秒
+     */
+    public double getBlocksPerSecond() {
+        return rate(blocks.get());
+    }
+
+    /**
+     * 获取本次运行的平均回执速度.
+     *
+     * @return 回执/秒
+     */
+    public double getReceiptsPerSecond() {
+        return rate(receipts.get());
+    }
+
+    private double rate(long count) {
+        long elapsed = System.nanoTime() - startNanos;
+        return elapsed <= 0 ? 0D : count * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+
+    private void report() {
+        logger.info("[BlockBackfill] {} reached block {}, {} blocks, {} receipts, "
+                + "{} blocks/s, {} receipts/s.", name, checkpoint, blocks.get(), receipts.get(),
+            String.format("%.1f", getBlocksPerSecond()),
+            String.format("%.1f", getReceiptsPerSecond()));
+    }
+
+    /**
+     * 配置和共用的查询线程池, 第一次按配置构造回填任务时才读取.
+     */
+    private static final class Config {
+
+        private static final int THREADS = Integer.parseInt(
+            PropertyUtils.getProperty("backfill.threads", "8"));
+
+        private static final int QUEUE_BLOCKS = Integer.parseInt(
+            PropertyUtils.getProperty("backfill.queue-blocks", "64"));
+
+        private static final int RETRY_TIMES = Integer.parseInt(
+            PropertyUtils.getProperty("backfill.retry-times", "3"));
+
+        private static final String CHECKPOINT_DIR =
+            PropertyUtils.getProperty("backfill.checkpoint-dir", StringUtils.EMPTY);
+
+        private static final long CHECKPOINT_BLOCKS = Long.parseLong(
+            PropertyUtils.getProperty("backfill.checkpoint-blocks", "100"));
+
+        private static final long REPORT_NANOS = TimeUnit.SECONDS.toNanos(Long.parseLong(
+            PropertyUtils.getProperty("backfill.report-seconds", "10")));
+
+        private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+            Math.max(1, THREADS), new NamedThreadFactory("weid-backfill"));
+
+        private static String checkpointFile(String name) {
+            return StringUtils.isBlank(CHECKPOINT_DIR)
+                ? null
+                : Paths.get(CHECKPOINT_DIR, name + ".checkpoint").toString();
+        }
+    }
+
+    /**
+     * 一个已提交查询的区块.
+     */
+    private final class Pending {
+
+        private final long blockNumber;
+
+        private Future<List<Object>> future;
+
+        private Pending(long blockNumber) {
+            this.blockNumber = blockNumber;
+            this.future = executor.submit(fetch());
+        }
+
+        private Callable<List<Object>> fetch() {
+            return () -> fetcher.getReceipts(blockNumber);
+        }
+
+        private List<Object> await() throws Exception {
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    return future.get();
+                } catch (ExecutionException e) {
+                    if (attempt >= retryTimes) {
+                        throw new WeIdBaseException(
+                            "fetch block " + blockNumber + " failed.", e.getCause());
+                    }
+                    logger.warn("[BlockBackfill] {} fetch block {} failed, retry {}.",
+                        name, blockNumber, attempt + 1, e.getCause());
+                    future = executor.submit(fetch());
+                }
+            }
+        }
+    }
+}
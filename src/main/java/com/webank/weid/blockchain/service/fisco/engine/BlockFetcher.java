@@ -0,0 +1,18 @@
+package com.webank.weid.blockchain.service.fisco.engine;
+
+import java.util.List;
+
+/**
+ * 查询主群组区块中的交易回执, 回执类型与链版本对应.
+ */
+public interface BlockFetcher {
+
+    /**
+     * 查询区块中所有交易的回执, 可以在多个线程中同时调用.
+     *
+     * @param blockNumber 区块高度
+     * @return 回执列表, 按交易顺序排列
+     * @throws Exception 查询区块或回执失败
+     */
+    List<Object> getReceipts(long blockNumber) throws Exception;
+}
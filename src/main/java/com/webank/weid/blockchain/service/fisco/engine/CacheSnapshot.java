@@ -0,0 +1,625 @@
+package com.webank.weid.blockchain.service.fisco.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.config.ContractAddressSnapshot;
+import com.webank.weid.blockchain.config.FiscoConfig;
+import com.webank.weid.blockchain.protocol.base.AuthenticationProperty;
+import com.webank.weid.blockchain.protocol.base.Cpt;
+import com.webank.weid.blockchain.protocol.base.ServiceProperty;
+import com.webank.weid.blockchain.protocol.base.WeIdDocument;
+import com.webank.weid.blockchain.protocol.base.WeIdDocumentMetadata;
+import com.webank.weid.blockchain.service.fisco.BaseServiceFisco;
+import com.webank.weid.blockchain.util.DataToolUtils;
+import com.webank.weid.blockchain.util.NamedThreadFactory;
+import com.webank.weid.blockchain.util.PropertyUtils;
+
+/**
+ * 引擎缓存快照, 定期把WeIdDocumentCache, CptCache, IssuerRegistrySnapshot和DataBucketCache的内容
+ * 连同其对应的区块高度写入file指定的二进制文件, 重启后读回, 使服务启动后不必从冷缓存开始.
+ *
+ * <p>默认关闭, 通过cache.snapshot.enabled开启, 需要同时开启event.subscribe: 快照高度取事件订阅的检查点,
+ * 即事件确实送达的最高区块, 其之前的事件都已使缓存失效, 因此快照内容在该高度有效. 尚未收到过事件时不写入,
+ * 链上没有事件时快照高度不变, 重放的区块随之增多. 每隔interval-seconds写一次, 先写临时文件再原子替换.
+ * 合约地址确定后通过内存映射读取文件, 地址与快照不一致或需要重放的区块超过max-replay-blocks时丢弃快照.
+ * 否则用BlockBackfill重放快照高度到最新区块之间的事件,
+ * 去掉其间被修改过的WeID和发行者集合后再放入缓存, 缓存中已有的条目不会被覆盖.
+ * CPT的每个版本写入后不再变化, 不需要重放; DataBucket没有合约事件, 快照写入超过expire-seconds时不恢复.
+ */
+public final class CacheSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheSnapshot.class);
+
+    private static final boolean ENABLED = Boolean.parseBoolean(
+        PropertyUtils.getProperty("cache.snapshot.enabled", "false"));
+
+    private static final String FILE =
+        PropertyUtils.getProperty("cache.snapshot.file", "cache.snapshot");
+
+    private static final long INTERVAL_SECONDS = Long.parseLong(
+        PropertyUtils.getProperty("cache.snapshot.interval-seconds", "300"));
+
+    private static final long MAX_REPLAY_BLOCKS = Long.parseLong(
+        PropertyUtils.getProperty("cache.snapshot.max-replay-blocks", "100000"));
+
+    private static final int MAGIC = 0x57435348;
+
+    private static final int VERSION = 1;
+
+    private static final byte SECTION_END = 0;
+
+    private static final byte SECTION_WEID_DOCUMENT = 1;
+
+    private static final byte SECTION_CPT = 2;
+
+    private static final byte SECTION_ISSUER = 3;
+
+    private static final byte SECTION_DATA_BUCKET = 4;
+
+    private static final AtomicBoolean STARTED = new AtomicBoolean(false);
+
+    private static final AtomicBoolean RESTORE_REQUESTED = new AtomicBoolean(false);
+
+    private static ScheduledExecutorService scheduler;
+
+    /**
+     * 快照已恢复或已丢弃, 此前不写入, 避免覆盖尚未读取的文件.
+     */
+    private static volatile boolean restored;
+
+    /**
+     * 正在恢复的快照内容, 恢复期间送达的事件同样作用于它.
+     */
+    private static volatile Contents restoring;
+
+    private CacheSnapshot() {
+    }
+
+    /**
+     * 开始定期写入, 合约地址确定后在后台恢复快照, 重复调用只启动一次, 未开启时不做任何事.
+     */
+    public static void start() {
+        if (!ENABLED || !STARTED.compareAndSet(false, true)) {
+            return;
+        }
+        if (!ContractEventSubscriber.isEnabled()) {
+            logger.warn("[CacheSnapshot] event.subscribe is not enabled, snapshot is disabled.");
+            return;
+        }
+        logger.info("[CacheSnapshot] file: {}, intervalSeconds: {}, maxReplayBlocks: {}.",
+            FILE, INTERVAL_SECONDS, MAX_REPLAY_BLOCKS);
+        ContractEventSubscriber.addListener(CacheSnapshot::onChange);
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+            new NamedThreadFactory("weid-cache-snapshot"));
+        BaseServiceFisco.addAddressChangeListener(snapshot -> requestRestore());
+        requestRestore();
+        long interval = Math.max(1L, INTERVAL_SECONDS);
+        scheduler.scheduleWithFixedDelay(CacheSnapshot::save, interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 合约地址齐全时恢复一次快照, 否则等待地址变化通知.
+     */
+    private static void requestRestore() {
+        if (!isComplete(currentAddresses()) || !RESTORE_REQUESTED.compareAndSet(false, true)) {
+            return;
+        }
+        scheduler.execute(() -> {
+            try {
+                restore();
+            } finally {
+                restored = true;
+            }
+        });
+    }
+
+    private static void onChange(ContractChangeEvent event) {
+        Contents contents = restoring;
+        if (contents != null) {
+            contents.apply(event);
+        }
+    }
+
+    private static void restore() {
+        long start = System.currentTimeMillis();
+        Contents contents;
+        try {
+            contents = read();
+        } catch (Exception e) {
+            logger.warn("[CacheSnapshot] read {} has error, start with empty caches.", FILE, e);
+            return;
+        }
+        if (contents == null) {
+            return;
+        }
+        if (!contents.addresses.equals(currentAddresses())) {
+            logger.info("[CacheSnapshot] contract addresses changed, discard the snapshot.");
+            return;
+        }
+        contents.generation = IssuerRegistrySnapshot.generation();
+        // 先开始接收事件再查询最新区块, 两者之间的事件不会遗漏
+        restoring = contents;
+        try {
+            long latest = BaseServiceFisco.getLatestBlockNumber();
+            if (latest - contents.blockNumber > MAX_REPLAY_BLOCKS) {
+                logger.info("[CacheSnapshot] snapshot at block {} is too old for block {}, "
+                    + "discard.", contents.blockNumber, latest);
+                return;
+            }
+            replay(contents, latest);
+            contents.install();
+            logger.info("[CacheSnapshot] restore {} documents, {} cpts, {} issuer snapshot, "
+                    + "{} bucket values at block {} in {} ms.", contents.documents.size(),
+                contents.cpts.size(), contents.issuerCounts == null ? 0 : 1,
+                contents.buckets.size(), latest, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("[CacheSnapshot] replay snapshot has error, discard.", e);
+        } finally {
+            restoring = null;
+        }
+    }
+
+    /**
+     * 重放快照高度到最新区块的事件. 检查点所在区块的事件可能只处理了一部分, 因此从该区块开始.
+     */
+    private static void replay(Contents contents, long latest) throws Exception {
+        if (latest < contents.blockNumber) {
+            return;
+        }
+        ContractEventSubscriber decoder = ContractEventSubscriber.createDecoder();
+        BlockBackfill backfill = new BlockBackfill("cache-snapshot", (blockNumber, receipts) -> {
+            for (ContractChangeEvent event : decoder.decodeReceipts(blockNumber, receipts)) {
+                contents.apply(event);
+            }
+        });
+        // 每次启动都从快照高度重放, 不使用上一次的检查点
+        backfill.clearCheckpoint();
+        try {
+            backfill.run(contents.blockNumber, latest);
+        } finally {
+            backfill.clearCheckpoint();
+        }
+    }
+
+    private static void save() {
+        // 只使用事件确实送达的高度, 不用最新区块, 避免重放时漏掉尚未送达的修改
+        long blockNumber = ContractEventSubscriber.getCheckpoint();
+        List<String> addresses = currentAddresses();
+        if (blockNumber < 0 || !restored || !isComplete(addresses)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Path path = Paths.get(FILE);
+        Path tmp = Paths.get(FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(blockNumber);
+            out.writeLong(start);
+            out.writeInt(addresses.size());
+            for (String address : addresses) {
+                writeString(out, address);
+            }
+            writeDocuments(out);
+            writeCpts(out);
+            writeIssuers(out);
+            writeBuckets(out);
+            out.writeByte(SECTION_END);
+        } catch (Exception e) {
+            logger.warn("[CacheSnapshot] write {} failed.", FILE, e);
+            return;
+        }
+        try {
+            Files.move(tmp, path,
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("[CacheSnapshot] write snapshot at block {} in {} ms.",
+                blockNumber, System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            logger.warn("[CacheSnapshot] replace {} failed.", FILE, e);
+        }
+    }
+
+    private static void writeDocuments(DataOutputStream out) throws IOException {
+        Map<String, WeIdDocumentCache.Entry> entries = WeIdDocumentCache.entries();
+        out.writeByte(SECTION_WEID_DOCUMENT);
+        out.writeInt(entries.size());
+        for (Map.Entry<String, WeIdDocumentCache.Entry> entry : entries.entrySet()) {
+            WeIdDocument document = entry.getValue().copyDocument(null);
+            WeIdDocumentMetadata metadata = entry.getValue().copyMetadata();
+            writeString(out, entry.getKey());
+            out.writeInt(document.getAuthentication().size());
+            for (AuthenticationProperty authentication : document.getAuthentication()) {
+                writeString(out, authentication.getId());
+                writeString(out, authentication.getType());
+                writeString(out, authentication.getController());
+                writeString(out, authentication.getPublicKeyMultibase());
+            }
+            out.writeInt(document.getService().size());
+            for (ServiceProperty service : document.getService()) {
+                writeString(out, service.getId());
+                writeString(out, service.getType());
+                writeString(out, service.getServiceEndpoint());
+            }
+            writeLong(out, metadata.getCreated());
+            writeLong(out, metadata.getUpdated());
+            out.writeBoolean(metadata.isDeactivated());
+            out.writeInt(metadata.getVersionId());
+        }
+    }
+
+    private static void writeCpts(DataOutputStream out) throws IOException {
+        List<CptEntry> entries = new ArrayList<>();
+        CptCache.forEach(
+            (cpt, dataStorageIndex) -> entries.add(new CptEntry(dataStorageIndex, cpt)));
+        out.writeByte(SECTION_CPT);
+        out.writeInt(entries.size());
+        for (CptEntry entry : entries) {
+            Cpt cpt = entry.cpt;
+            out.writeInt(entry.dataStorageIndex);
+            out.writeInt(cpt.getCptId());
+            out.writeInt(cpt.getCptVersion());
+            writeString(out, cpt.getCptPublisher());
+            writeString(out, cpt.getCptSignature());
+            out.writeLong(cpt.getCreated());
+            out.writeLong(cpt.getUpdated());
+            writeString(out, cpt.getCptJsonSchema() == null
+                ? null
+                : DataToolUtils.serialize(cpt.getCptJsonSchema()));
+        }
+    }
+
+    private static void writeIssuers(DataOutputStream out) throws IOException {
+        IssuerRegistrySnapshot snapshot = IssuerRegistrySnapshot.current();
+        out.writeByte(SECTION_ISSUER);
+        out.writeInt(snapshot == null ? 0 : 1);
+        if (snapshot == null) {
+            return;
+        }
+        out.writeInt(snapshot.getCounts().size());
+        for (Integer count : snapshot.getCounts()) {
+            out.writeInt(count);
+        }
+        writeStrings(out, snapshot.getAuthorityIssuers());
+        out.writeInt(snapshot.getSpecificIssuers().size());
+        for (Map.Entry<String, Set<String>> entry : snapshot.getSpecificIssuers().entrySet()) {
+            writeString(out, entry.getKey());
+            writeStrings(out, entry.getValue());
+        }
+        out.writeLong(snapshot.getLoadTime());
+    }
+
+    private static void writeBuckets(DataOutputStream out) throws IOException {
+        List<String[]> entries = new ArrayList<>();
+        DataBucketCache.forEach((contractAddress, bucketId, key, value) ->
+            entries.add(new String[]{contractAddress, bucketId, key, value}));
+        out.writeByte(SECTION_DATA_BUCKET);
+        out.writeInt(entries.size());
+        for (String[] entry : entries) {
+            for (String value : entry) {
+                writeString(out, value);
+            }
+        }
+    }
+
+    private static Contents read() throws IOException {
+        Path path = Paths.get(FILE);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                logger.warn("[CacheSnapshot] {} is too large, discard.", FILE);
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                logger.warn("[CacheSnapshot] {} is not a snapshot of this version, discard.", FILE);
+                return null;
+            }
+            Contents contents = new Contents(buffer.getLong(), buffer.getLong());
+            int addressCount = buffer.getInt();
+            for (int i = 0; i < addressCount; i++) {
+                contents.addresses.add(readString(buffer));
+            }
+            for (byte section = buffer.get(); section != SECTION_END; section = buffer.get()) {
+                int count = buffer.getInt();
+                for (int i = 0; i < count; i++) {
+                    readEntry(section, buffer, contents);
+                }
+            }
+            return contents;
+        }
+    }
+
+    private static void readEntry(byte section, ByteBuffer buffer, Contents contents) {
+        switch (section) {
+            case SECTION_WEID_DOCUMENT:
+                readDocument(buffer, contents);
+                break;
+            case SECTION_CPT:
+                readCpt(buffer, contents);
+                break;
+            case SECTION_ISSUER:
+                readIssuers(buffer, contents);
+                break;
+            case SECTION_DATA_BUCKET:
+                contents.buckets.add(new String[]{
+                    readString(buffer), readString(buffer), readString(buffer), readString(buffer)
+                });
+                break;
+            default:
+                throw new IllegalStateException("unknown section " + section);
+        }
+    }
+
+    private static void readDocument(ByteBuffer buffer, Contents contents) {
+        String weAddress = readString(buffer);
+        WeIdDocument document = new WeIdDocument();
+        int authenticationCount = buffer.getInt();
+        for (int i = 0; i < authenticationCount; i++) {
+            AuthenticationProperty authentication = new AuthenticationProperty();
+            authentication.setId(readString(buffer));
+            authentication.setType(readString(buffer));
+            authentication.setController(readString(buffer));
+            authentication.setPublicKeyMultibase(readString(buffer));
+            document.getAuthentication().add(authentication);
+        }
+        int serviceCount = buffer.getInt();
+        for (int i = 0; i < serviceCount; i++) {
+            ServiceProperty service = new ServiceProperty();
+            service.setId(readString(buffer));
+            service.setType(readString(buffer));
+            service.setServiceEndpoint(readString(buffer));
+            document.getService().add(service);
+        }
+        WeIdDocumentMetadata metadata = new WeIdDocumentMetadata();
+        metadata.setCreated(readLong(buffer));
+        metadata.setUpdated(readLong(buffer));
+        metadata.setDeactivated(buffer.get() != 0);
+        metadata.setVersionId(buffer.getInt());
+        contents.documents.put(weAddress, document);
+        contents.metadata.put(weAddress, metadata);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void readCpt(ByteBuffer buffer, Contents contents) {
+        int dataStorageIndex = buffer.getInt();
+        Cpt cpt = new Cpt();
+        cpt.setCptId(buffer.getInt());
+        cpt.setCptVersion(buffer.getInt());
+        cpt.setCptPublisher(readString(buffer));
+        cpt.setCptSignature(readString(buffer));
+        cpt.setCreated(buffer.getLong());
+        cpt.setUpdated(buffer.getLong());
+        String jsonSchema = readString(buffer);
+        if (jsonSchema != null) {
+            cpt.setCptJsonSchema(DataToolUtils.deserialize(jsonSchema, HashMap.class));
+        }
+        contents.cpts.add(new CptEntry(dataStorageIndex, cpt));
+    }
+
+    private static void readIssuers(ByteBuffer buffer, Contents contents) {
+        List<Integer> counts = new ArrayList<>();
+        int countSize = buffer.getInt();
+        for (int i = 0; i < countSize; i++) {
+            counts.add(buffer.getInt());
+        }
+        Set<String> authorityIssuers = readStrings(buffer);
+        Map<String, Set<String>> specificIssuers = new HashMap<>();
+        int typeCount = buffer.getInt();
+        for (int i = 0; i < typeCount; i++) {
+            String type = readString(buffer);
+            specificIssuers.put(type, readStrings(buffer));
+        }
+        contents.issuerCounts = counts;
+        contents.authorityIssuers = authorityIssuers;
+        contents.specificIssuers = specificIssuers;
+        contents.issuerLoadTime = buffer.getLong();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeStrings(DataOutputStream out, Set<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static Set<String> readStrings(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        Set<String> values = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            values.add(readString(buffer));
+        }
+        return values;
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        out.writeLong(value == null ? 0L : value);
+    }
+
+    private static Long readLong(ByteBuffer buffer) {
+        boolean present = buffer.get() != 0;
+        long value = buffer.getLong();
+        return present ? value : null;
+    }
+
+    /**
+     * 快照对应的合约地址, 依次为WeIdContract, CptController, AuthorityIssuerController.
+     * 优先取已发布的地址快照, 地址写在配置中时没有快照, 取配置.
+     */
+    private static List<String> currentAddresses() {
+        List<String> addresses = new ArrayList<>();
+        ContractAddressSnapshot snapshot = BaseServiceFisco.getAddressSnapshot();
+        if (snapshot != null) {
+            addresses.add(normalize(snapshot.getWeIdAddress()));
+            addresses.add(normalize(snapshot.getCptAddress()));
+            addresses.add(normalize(snapshot.getIssuerAddress()));
+            return addresses;
+        }
+        FiscoConfig fiscoConfig = BaseServiceFisco.fiscoConfig;
+        addresses.add(normalize(fiscoConfig.getWeIdAddress()));
+        addresses.add(normalize(fiscoConfig.getCptAddress()));
+        addresses.add(normalize(fiscoConfig.getIssuerAddress()));
+        return addresses;
+    }
+
+    private static boolean isComplete(List<String> addresses) {
+        for (String address : addresses) {
+            if (StringUtils.isBlank(address)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String normalize(String address) {
+        return address == null ? StringUtils.EMPTY : address.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 从文件读回的快照内容.
+     */
+    private static final class Contents {
+
+        private final long blockNumber;
+
+        private final long writeTime;
+
+        private final List<String> addresses = new ArrayList<>();
+
+        private final Map<String, WeIdDocument> documents = new HashMap<>();
+
+        private final Map<String, WeIdDocumentMetadata> metadata = new HashMap<>();
+
+        private final List<CptEntry> cpts = new ArrayList<>();
+
+        private final List<String[]> buckets = new ArrayList<>();
+
+        private List<Integer> issuerCounts;
+
+        private Set<String> authorityIssuers;
+
+        private Map<String, Set<String>> specificIssuers;
+
+        private long issuerLoadTime;
+
+        private long generation;
+
+        /**
+         * 已放入缓存后, 事件直接使缓存失效.
+         */
+        private boolean installed;
+
+        private Contents(long blockNumber, long writeTime) {
+            this.blockNumber = blockNumber;
+            this.writeTime = writeTime;
+        }
+
+        private synchronized void apply(ContractChangeEvent event) {
+            switch (event.getType()) {
+                case WEID_CREATED:
+                case WEID_ATTRIBUTE_CHANGED:
+                    if (installed) {
+                        WeIdDocumentCache.invalidate(event.getSubject());
+                    } else {
+                        documents.remove(normalize(event.getSubject()));
+                    }
+                    break;
+                case AUTHORITY_ISSUER_CHANGED:
+                    if (installed) {
+                        IssuerRegistrySnapshot.invalidate();
+                    } else {
+                        issuerCounts = null;
+                    }
+                    break;
+                default:
+                    // CPT的每个版本不会变化, 最新版本总是从链上查询
+                    break;
+            }
+        }
+
+        private synchronized void install() {
+            if (!addresses.equals(currentAddresses())) {
+                logger.info("[CacheSnapshot] contract addresses changed during replay, discard.");
+                return;
+            }
+            for (Map.Entry<String, WeIdDocument> entry : documents.entrySet()) {
+                WeIdDocumentCache.restore(
+                    entry.getKey(), entry.getValue(), metadata.get(entry.getKey()));
+            }
+            for (CptEntry entry : cpts) {
+                CptCache.restore(entry.dataStorageIndex, entry.cpt);
+            }
+            if (issuerCounts != null) {
+                IssuerRegistrySnapshot.restore(issuerCounts, authorityIssuers, specificIssuers,
+                    issuerLoadTime, generation);
+            }
+            long ageMillis = System.currentTimeMillis() - writeTime;
+            for (String[] entry : buckets) {
+                DataBucketCache.restore(entry[0], entry[1], entry[2], entry[3], ageMillis);
+            }
+            installed = true;
+        }
+    }
+
+    private static final class CptEntry {
+
+        private final int dataStorageIndex;
+
+        private final Cpt cpt;
+
+        private CptEntry(int dataStorageIndex, Cpt cpt) {
+            this.dataStorageIndex = dataStorageIndex;
+            this.cpt = cpt;
+        }
+    }
+}
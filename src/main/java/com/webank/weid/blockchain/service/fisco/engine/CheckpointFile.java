@@ -0,0 +1,85 @@
+package com.webank.weid.blockchain.service.fisco.engine;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 区块检查点文件, 文件内容为十进制的区块高度, 写入时先写临时文件再原子替换.
+ */
+public final class CheckpointFile {
+
+    private static final Logger logger = LoggerFactory.getLogger(CheckpointFile.class);
+
+    private CheckpointFile() {
+    }
+
+    /**
+     * 读取检查点.
+     *
+     * @param file 文件路径, 为空时不读取
+     * @return 区块高度, 文件为空, 不存在或内容错误时返回-1
+     */
+    public static long read(String file) {
+        if (StringUtils.isBlank(file)) {
+            return -1L;
+        }
+        Path path = Paths.get(file);
+        try {
+            if (!Files.exists(path)) {
+                return -1L;
+            }
+            String content = new String(Files.readAllBytes(path), StandardCharsets.UTF_8).trim();
+            long blockNumber = Long.parseLong(content);
+            logger.info("[CheckpointFile] read checkpoint {} from {}.", blockNumber, file);
+            return blockNumber;
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("[CheckpointFile] read checkpoint from {} failed.", file, e);
+            return -1L;
+        }
+    }
+
+    /**
+     * 写入检查点, 失败时只记录日志.
+     *
+     * @param file 文件路径, 为空时不写入
+     * @param blockNumber 区块高度
+     */
+    public static void write(String file, long blockNumber) {
+        if (StringUtils.isBlank(file)) {
+            return;
+        }
+        Path path = Paths.get(file);
+        Path tmp = Paths.get(file + ".tmp");
+        try {
+            Files.write(tmp, String.valueOf(blockNumber).getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp, path,
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("[CheckpointFile] write checkpoint to {} failed.", file, e);
+        }
+    }
+
+    /**
+     * 删除检查点.
+     *
+     * @param file 文件路径, 为空时不做任何事
+     */
+    public static void delete(String file) {
+        if (StringUtils.isBlank(file)) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(Paths.get(file));
+        } catch (IOException e) {
+            logger.warn("[CheckpointFile] delete checkpoint {} failed.", file, e);
+        }
+    }
+}
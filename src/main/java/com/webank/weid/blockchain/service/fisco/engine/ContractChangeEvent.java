@@ -0,0 +1,125 @@
+package com.webank.weid.blockchain.service.fisco.engine;
+
+/**
+ * 合约变更事件, 由链上的合约事件解析得到.
+ *
+ * <p>subject按类型不同分别为: WeID地址, evidence hash, cptId, 权威发行者地址.
+ * evidence的创建和修改事件还带有签名者地址和签名时间戳. 地址和hash均为小写.
+ */
+public final class ContractChangeEvent {
+
+    /**
+     * 变更类型.
+     */
+    public enum Type {
+        WEID_CREATED,
+        WEID_ATTRIBUTE_CHANGED,
+        EVIDENCE_CREATED,
+        EVIDENCE_ATTRIBUTE_CHANGED,
+        EVIDENCE_REVOKED,
+        CPT_REGISTERED,
+        CPT_UPDATED,
+        AUTHORITY_ISSUER_CHANGED
+    }
+
+    private final Type type;
+
+    private final String contractAddress;
+
+    private final String subject;
+
+    private final long blockNumber;
+
+    private final String transactionHash;
+
+    private final String signer;
+
+    private final long timestamp;
+
+    /**
+     * 构造函数.
+     *
+     * @param type 变更类型
+     * @param contractAddress 产生事件的合约地址
+     * @param subject 变更对象
+     * @param blockNumber 事件所在区块
+     * @param transactionHash 事件所在交易
+     */
+    public ContractChangeEvent(
+        Type type,
+        String contractAddress,
+        String subject,
+        long blockNumber,
+        String transactionHash
+    ) {
+        this(type, contractAddress, subject, blockNumber, transactionHash, null, 0L);
+    }
+
+    /**
+     * 构造函数, 用于带签名者的evidence事件.
+     *
+     * @param type 变更类型
+     * @param contractAddress 产生事件的合约地址
+     * @param subject 变更对象
+     * @param blockNumber 事件所在区块
+     * @param transactionHash 事件所在交易
+     * @param signer 签名者地址
+     * @param timestamp 签名时间戳
+     */
+    public ContractChangeEvent(
+        Type type,
+        String contractAddress,
+        String subject,
+        long blockNumber,
+        String transactionHash,
+        String signer,
+        long timestamp
+    ) {
+        this.type = type;
+        this.contractAddress = contractAddress;
+        this.subject = subject;
+        this.blockNumber = blockNumber;
+        this.transactionHash = transactionHash;
+        this.signer = signer;
+        this.timestamp = timestamp;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getContractAddress() {
+        return contractAddress;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public long getBlockNumber() {
+        return blockNumber;
+    }
+
+    public String getTransactionHash() {
+        return transactionHash;
+    }
+
+    public String getSigner() {
+        return signer;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "ContractChangeEvent{type=" + type
+            + ", contractAddress=" + contractAddress
+            + ", subject=" + subject
+            + ", blockNumber=" + blockNumber
+            + ", transactionHash=" + transactionHash
+            + ", signer=" + signer
+            + ", timestamp=" + timestamp + "}";
+    }
+}
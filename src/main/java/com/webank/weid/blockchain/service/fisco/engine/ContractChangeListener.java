@@ -0,0 +1,17 @@
+package com.webank.weid.blockchain.service.fisco.engine;
+
+/**
+ * 合约变更监听, 通过ContractEventSubscriber.addListener注册.
+ *
+ * <p>同一个事件在重新订阅后可能再次送达, 实现需要保证重复处理没有副作用.
+ */
+@FunctionalInterface
+public interface ContractChangeListener {
+
+    /**
+     * 收到合约变更.
+     *
+     * @param event 变更事件
+     */
+    void onChange(ContractChangeEvent event);
+}
@@ -0,0 +1,339 @@
+package com.webank.weid.blockchain.service.fisco.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.config.ContractAddressSnapshot;
+import com.webank.weid.blockchain.config.FiscoConfig;
+import com.webank.weid.blockchain.constant.WeIdConstant;
+import com.webank.weid.blockchain.exception.WeIdBaseException;
+import com.webank.weid.blockchain.service.fisco.BaseServiceFisco;
+import com.webank.weid.blockchain.util.NamedThreadFactory;
+import com.webank.weid.blockchain.util.PropertyUtils;
+
+/**
+ * 合约事件订阅, 订阅主群组WeIdContract, EvidenceContract, CptController和AuthorityIssuerController
+ * 的事件, 解析为ContractChangeEvent通知所有监听者, 使其他进程的修改也能使本进程的缓存失效.
+ *
+ * <p>默认关闭, 通过event.subscribe.enabled开启. 开启后引擎缓存(WeIdDocumentCache, WeIdExistenceFilter,
+ * EvidenceCache, CptCache, CredentialTemplateCache, IssuerRegistrySnapshot)自动注册为监听者.
+ * 检查点只在事件确实送达后推进: 推送到的最高区块, 或BlockBackfill补齐过的区块, 该区块之前的事件都已处理;
+ * 配置checkpoint-file时同时写入文件. 链上没有事件时检查点不变.
+ * 订阅出错或连接断开后, 每隔retry-seconds重新订阅: 先用BlockBackfill补齐检查点所在区块到最新区块之前
+ * 一个区块的事件, 再从最新区块开始订阅, 两者不重叠. 检查点所在区块的事件可能只处理了一部分,
+ * 因此从该区块开始补齐, 其中已处理的事件会重复送达. 合约地址齐全后才开始订阅, 地址变化后按新地址重新订阅.
+ * 其他群组的Evidence合约不在订阅范围内.
+ */
+public abstract class ContractEventSubscriber {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContractEventSubscriber.class);
+
+    private static final boolean ENABLED = Boolean.parseBoolean(
+        PropertyUtils.getProperty("event.subscribe.enabled", "false"));
+
+    private static final String CHECKPOINT_FILE =
+        PropertyUtils.getProperty("event.subscribe.checkpoint-file", StringUtils.EMPTY);
+
+    private static final long RETRY_SECONDS = Long.parseLong(
+        PropertyUtils.getProperty("event.subscribe.retry-seconds", "10"));
+
+    private static final List<ContractChangeListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private static final AtomicBoolean STARTED = new AtomicBoolean(false);
+
+    private static final ScheduledExecutorService SCHEDULER =
+        Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("weid-event-subscribe"));
+
+    private static volatile ContractEventSubscriber instance;
+
+    /**
+     * 已有一次等待执行的重新订阅时, 不再重复提交.
+     */
+    private final AtomicBoolean resubscribePending = new AtomicBoolean(false);
+
+    /**
+     * 事件已送达的最高区块, 小于0表示尚未收到过事件.
+     */
+    private volatile long checkpoint = -1L;
+
+    private final Object checkpointLock = new Object();
+
+    /**
+     * 注册合约变更监听, 未开启订阅时监听者不会收到通知.
+     *
+     * @param listener 监听者
+     */
+    public static void addListener(ContractChangeListener listener) {
+        LISTENERS.add(listener);
+    }
+
+    /**
+     * 是否开启了事件订阅.
+     *
+     * @return 开启返回true
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * 启动订阅, 重复调用只启动一次, 未开启时不做任何事.
+     */
+    public static void start() {
+        if (!ENABLED || !STARTED.compareAndSet(false, true)) {
+            return;
+        }
+        logger.info("[ContractEventSubscriber] checkpointFile: {}, retrySeconds: {}.",
+            CHECKPOINT_FILE, RETRY_SECONDS);
+        addListener(ContractEventSubscriber::invalidateEngineCaches);
+        SCHEDULER.execute(() -> {
+            ContractEventSubscriber subscriber = EngineFactoryFisco.createContractEventSubscriber();
+            subscriber.checkpoint = CheckpointFile.read(CHECKPOINT_FILE);
+            instance = subscriber;
+            BaseServiceFisco.addAddressChangeListener(snapshot -> subscriber.requestResubscribe(0));
+            subscriber.resubscribe();
+        });
+    }
+
+    /**
+     * 获取事件已送达的最高区块, 该区块之前的事件都已通知监听者, 该区块的事件可能只通知了一部分.
+     *
+     * @return 区块高度, 未开启或尚未收到过事件时返回-1
+     */
+    public static long getCheckpoint() {
+        ContractEventSubscriber subscriber = instance;
+        return subscriber == null ? -1L : subscriber.checkpoint;
+    }
+
+    /**
+     * 创建一个只用于解析历史区块的实例, 按当前合约地址加载合约对象, 不订阅也不推进检查点.
+     * 不要求开启event.subscribe.
+     *
+     * @return 解析器
+     * @throws Exception 加载合约对象失败
+     */
+    public static ContractEventSubscriber createDecoder() throws Exception {
+        List<String> addresses = currentAddresses();
+        if (!isComplete(addresses)) {
+            throw new WeIdBaseException("contract addresses are not ready: " + addresses);
+        }
+        ContractEventSubscriber decoder = EngineFactoryFisco.createContractEventSubscriber();
+        decoder.prepare(addresses);
+        return decoder;
+    }
+
+    /**
+     * 解析一个区块的交易回执中订阅合约的事件, 可以在多个线程中同时调用.
+     *
+     * @param blockNumber 区块高度
+     * @param receipts BlockFetcher查询得到的回执
+     * @return 变更事件, 按交易顺序排列
+     */
+    public abstract List<ContractChangeEvent> decodeReceipts(
+        long blockNumber,
+        List<Object> receipts
+    );
+
+    /**
+     * 按合约地址加载用于解析事件的合约对象, 加载完成后整体替换, 正在进行的解析不受影响.
+     *
+     * @param addresses 合约地址, 依次为WeIdContract, EvidenceContract, CptController,
+     *     AuthorityIssuerController
+     * @throws Exception 加载失败
+     */
+    protected abstract void prepare(List<String> addresses) throws Exception;
+
+    /**
+     * 从指定区块开始订阅, 调用前已通过prepare加载同一组地址.
+     *
+     * @param fromBlock 起始区块
+     * @param addresses 合约地址, 依次为WeIdContract, EvidenceContract, CptController,
+     *     AuthorityIssuerController
+     * @throws Exception 订阅失败
+     */
+    protected abstract void subscribe(long fromBlock, List<String> addresses) throws Exception;
+
+    /**
+     * 取消当前订阅, 没有订阅时不做任何事.
+     */
+    protected abstract void unsubscribe();
+
+    /**
+     * 处理一批解析后的事件, 通知监听者并推进检查点.
+     *
+     * @param events 变更事件
+     * @param blockNumber 这一批事件中的最高区块
+     */
+    protected synchronized void dispatch(List<ContractChangeEvent> events, long blockNumber) {
+        notifyListeners(events);
+        advance(blockNumber, true);
+    }
+
+    /**
+     * 订阅回调出错或推送结束, 稍后重新订阅.
+     *
+     * @param status SDK返回的状态码
+     */
+    protected void onSubscribeError(int status) {
+        logger.warn("[ContractEventSubscriber] subscription stopped with status {}, "
+            + "resubscribe in {} seconds.", status, RETRY_SECONDS);
+        requestResubscribe(RETRY_SECONDS);
+    }
+
+    /**
+     * 转换为ContractChangeEvent使用的小写形式.
+     *
+     * @param value 地址或hash
+     * @return 小写字符串
+     */
+    protected static String normalize(String value) {
+        return value == null ? StringUtils.EMPTY : value.toLowerCase(Locale.ROOT);
+    }
+
+    private void requestResubscribe(long delaySeconds) {
+        if (resubscribePending.compareAndSet(false, true)) {
+            SCHEDULER.schedule(() -> {
+                resubscribePending.set(false);
+                resubscribe();
+            }, delaySeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    private synchronized void resubscribe() {
+        unsubscribe();
+        try {
+            List<String> addresses = currentAddresses();
+            if (!isComplete(addresses)) {
+                logger.info("[ContractEventSubscriber] contract addresses are not ready: {}, "
+                    + "retry in {} seconds.", addresses, RETRY_SECONDS);
+                requestResubscribe(RETRY_SECONDS);
+                return;
+            }
+            prepare(addresses);
+            long latest = BaseServiceFisco.getLatestBlockNumber();
+            // 补齐到latest之前一个区块, latest及之后的区块由订阅推送
+            if (checkpoint >= 0 && checkpoint < latest) {
+                catchUp(checkpoint, latest - 1);
+            }
+            subscribe(latest, addresses);
+            logger.info("[ContractEventSubscriber] subscribe {} from block {}.", addresses, latest);
+        } catch (Exception e) {
+            logger.error("[ContractEventSubscriber] subscribe has error, retry in {} seconds.",
+                RETRY_SECONDS, e);
+            requestResubscribe(RETRY_SECONDS);
+        }
+    }
+
+    /**
+     * 用BlockBackfill处理检查点所在区块到toBlock之间的事件, 每个区块处理完后推进检查点,
+     * 检查点只在结束时写入文件.
+     */
+    private void catchUp(long fromBlock, long toBlock) throws Exception {
+        BlockBackfill backfill = new BlockBackfill("event-subscribe", (blockNumber, receipts) -> {
+            notifyListeners(decodeReceipts(blockNumber, receipts));
+            advance(blockNumber, false);
+        });
+        backfill.clearCheckpoint();
+        try {
+            backfill.run(fromBlock, toBlock);
+        } finally {
+            backfill.clearCheckpoint();
+            CheckpointFile.write(CHECKPOINT_FILE, checkpoint);
+        }
+    }
+
+    private void advance(long blockNumber, boolean persist) {
+        synchronized (checkpointLock) {
+            if (blockNumber > checkpoint) {
+                checkpoint = blockNumber;
+                if (persist) {
+                    CheckpointFile.write(CHECKPOINT_FILE, blockNumber);
+                }
+            }
+        }
+    }
+
+    private static void notifyListeners(List<ContractChangeEvent> events) {
+        for (ContractChangeEvent event : events) {
+            logger.debug("[ContractEventSubscriber] receive {}.", event);
+            for (ContractChangeListener listener : LISTENERS) {
+                try {
+                    listener.onChange(event);
+                } catch (Exception e) {
+                    logger.error("[ContractEventSubscriber] notify listener has error.", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取当前合约地址, 依次为WeIdContract, EvidenceContract, CptController,
+     * AuthorityIssuerController. 已发布快照时以快照为准, 地址写在配置中时没有快照, 取配置.
+     */
+    private static List<String> currentAddresses() {
+        List<String> addresses = new ArrayList<>();
+        ContractAddressSnapshot snapshot = BaseServiceFisco.getAddressSnapshot();
+        if (snapshot != null) {
+            addresses.add(snapshot.getWeIdAddress());
+            addresses.add(snapshot.getEvidenceAddress());
+            addresses.add(snapshot.getCptAddress());
+            addresses.add(snapshot.getIssuerAddress());
+            return addresses;
+        }
+        FiscoConfig fiscoConfig = BaseServiceFisco.fiscoConfig;
+        addresses.add(fiscoConfig.getWeIdAddress());
+        addresses.add(fiscoConfig.getEvidenceAddress());
+        addresses.add(fiscoConfig.getCptAddress());
+        addresses.add(fiscoConfig.getIssuerAddress());
+        return addresses;
+    }
+
+    private static boolean isComplete(List<String> addresses) {
+        for (String address : addresses) {
+            if (StringUtils.isBlank(address)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void invalidateEngineCaches(ContractChangeEvent event) {
+        switch (event.getType()) {
+            case WEID_CREATED:
+                WeIdExistenceFilter.put(event.getSubject());
+                WeIdDocumentCache.invalidate(event.getSubject());
+                break;
+            case WEID_ATTRIBUTE_CHANGED:
+                WeIdDocumentCache.invalidate(event.getSubject());
+                break;
+            case EVIDENCE_CREATED:
+            case EVIDENCE_ATTRIBUTE_CHANGED:
+            case EVIDENCE_REVOKED:
+                EvidenceCache.invalidateInfo(event.getContractAddress(), event.getSubject());
+                break;
+            case CPT_REGISTERED:
+            case CPT_UPDATED:
+                // 事件中不区分CPT和Policy, 两者都失效
+                int cptId = Integer.parseInt(event.getSubject());
+                CptCache.invalidateLatest(WeIdConstant.CPT_DATA_INDEX, cptId);
+                CptCache.invalidateLatest(WeIdConstant.POLICY_DATA_INDEX, cptId);
+                CredentialTemplateCache.invalidate(cptId);
+                break;
+            case AUTHORITY_ISSUER_CHANGED:
+                IssuerRegistrySnapshot.invalidate();
+                break;
+            default:
+                break;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.webank.weid.blockchain.service.fisco.engine;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.constant.WeIdConstant;
+import com.webank.weid.blockchain.exception.LoadContractException;
+import com.webank.weid.blockchain.service.fisco.BaseServiceFisco;
+
+/**
+ * 合约工厂注册器, 每个合约类型只解析一次静态load方法并生成工厂对象,
+ * 之后加载合约直接调用工厂, 不再走反射.
+ */
+public final class ContractFactoryRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContractFactoryRegistry.class);
+
+    private static final String LOAD_METHOD = "load";
+
+    private static final MethodType FACTORY_TYPE =
+        MethodType.methodType(Object.class, String.class, Object.class, Object.class);
+
+    private static final ClassValue<ContractFactory> FACTORIES = new ClassValue<ContractFactory>() {
+        @Override
+        protected ContractFactory computeValue(Class<?> cls) {
+            return resolve(cls, ChainVersion.CLIENT_CLASS, ChainVersion.KEY_PAIR_CLASS);
+        }
+    };
+
+    private ContractFactoryRegistry() {
+    }
+
+    /**
+     * 合约工厂, 对应生成合约类中的静态load方法.
+     */
+    @FunctionalInterface
+    public interface ContractFactory {
+
+        /**
+         * 加载合约.
+         *
+         * @param contractAddress 合约地址
+         * @param client Client对象
+         * @param credentials CryptoKeyPair对象
+         * @return 合约对象
+         */
+        Object load(String contractAddress, Object client, Object credentials);
+    }
+
+    /**
+     * 链版本相关的类型, 首次加载合约时才读取配置.
+     */
+    private static final class ChainVersion {
+
+        private static final boolean IS_VER2 = BaseServiceFisco.fiscoConfig.getVersion()
+            .startsWith(WeIdConstant.FISCO_BCOS_2_X_VERSION_PREFIX);
+
+        private static final Class<?> CLIENT_CLASS = IS_VER2
+            ? org.fisco.bcos.sdk.client.Client.class
+            : org.fisco.bcos.sdk.v3.client.Client.class;
+
+        // 获取ECDSAKeyPair或者SM2KeyPair的父类CryptoKeyPair
+        private static final Class<?> KEY_PAIR_CLASS = IS_VER2
+            ? org.fisco.bcos.sdk.crypto.keypair.CryptoKeyPair.class
+            : org.fisco.bcos.sdk.v3.crypto.keypair.CryptoKeyPair.class;
+    }
+
+    /**
+     * 预先解析当前链版本下引擎使用的合约类型.
+     */
+    public static void preload() {
+        Class<?>[] contractClasses = contractClasses(ChainVersion.IS_VER2);
+        for (Class<?> cls : contractClasses) {
+            FACTORIES.get(cls);
+        }
+        logger.info("[preload] resolved {} contract factories.", contractClasses.length);
+    }
+
+    /**
+     * 引擎使用的合约类型.
+     *
+     * @param isVer2 是否为FISCO BCOS 2.x
+     * @return 合约类型
+     */
+    static Class<?>[] contractClasses(boolean isVer2) {
+        return isVer2
+            ? new Class<?>[]{
+                com.webank.weid.contract.v2.WeIdContract.class,
+                com.webank.weid.contract.v2.CptController.class,
+                com.webank.weid.contract.v2.EvidenceContract.class,
+                com.webank.weid.contract.v2.AuthorityIssuerController.class,
+                com.webank.weid.contract.v2.SpecificIssuerController.class,
+                com.webank.weid.contract.v2.DataBucket.class
+            }
+            : new Class<?>[]{
+                com.webank.weid.contract.v3.WeIdContract.class,
+                com.webank.weid.contract.v3.CptController.class,
+                com.webank.weid.contract.v3.EvidenceContract.class,
+                com.webank.weid.contract.v3.AuthorityIssuerController.class,
+                com.webank.weid.contract.v3.SpecificIssuerController.class,
+                com.webank.weid.contract.v3.DataBucket.class
+            };
+    }
+
+    /**
+     * 获取合约类型对应的工厂.
+     *
+     * @param cls 合约类型
+     * @return 合约工厂
+     */
+    public static ContractFactory getFactory(Class<?> cls) {
+        return FACTORIES.get(cls);
+    }
+
+    /**
+     * 解析合约类型的静态load方法并生成工厂.
+     *
+     * @param cls 合约类型
+     * @param clientClass load方法的Client参数类型
+     * @param keyPairClass load方法的CryptoKeyPair参数类型
+     * @return 合约工厂
+     */
+    static ContractFactory resolve(Class<?> cls, Class<?> clientClass, Class<?> keyPairClass) {
+        MethodHandle load;
+        try {
+            load = MethodHandles.publicLookup().findStatic(
+                cls,
+                LOAD_METHOD,
+                MethodType.methodType(cls, String.class, clientClass, keyPairClass)
+            );
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            logger.error("[resolve] can not find load method of {}.", cls.getName(), e);
+            throw new LoadContractException(e);
+        }
+        try {
+            return lambdaFactory(load);
+        } catch (Throwable e) {
+            // 生成lambda失败时退化为直接调用MethodHandle
+            logger.warn("[resolve] build lambda factory of {} failed, use method handle.",
+                cls.getName(), e);
+            return methodHandleFactory(load);
+        }
+    }
+
+    /**
+     * 用LambdaMetafactory为load方法生成工厂.
+     *
+     * @param load 合约类型的静态load方法
+     * @return 合约工厂
+     * @throws Throwable 生成失败
+     */
+    static ContractFactory lambdaFactory(MethodHandle load) throws Throwable {
+        CallSite callSite = LambdaMetafactory.metafactory(
+            MethodHandles.lookup(),
+            LOAD_METHOD,
+            MethodType.methodType(ContractFactory.class),
+            FACTORY_TYPE,
+            load,
+            load.type()
+        );
+        return (ContractFactory) callSite.getTarget().invoke();
+    }
+
+    /**
+     * 直接调用load方法的工厂, 生成lambda失败时使用.
+     *
+     * @param load 合约类型的静态load方法
+     * @return 合约工厂
+     */
+    static ContractFactory methodHandleFactory(MethodHandle load) {
+        MethodHandle handle = load.asType(FACTORY_TYPE);
+        return (contractAddress, client, credentials) -> {
+            try {
+                return handle.invokeExact(contractAddress, client, credentials);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new LoadContractException(ex);
+            }
+        };
+    }
+}
@@ -0,0 +1,206 @@
+package com.webank.weid.blockchain.service.fisco.engine;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.exception.LoadContractException;
+import com.webank.weid.blockchain.exception.WeIdBaseException;
+import com.webank.weid.blockchain.service.fisco.KeyPairCache;
+import com.webank.weid.blockchain.util.PropertyUtils;
+
+/**
+ * 合约句柄缓存, 按(合约地址, 合约类型, 私钥指纹)缓存已加载的合约对象,
+ * 避免每笔交易都重新构造合约对象和CryptoKeyPair.
+ *
+ * <p>缓存key中只保存私钥的HMAC指纹(见{@link KeyPairCache#fingerprint(byte[])}), 不保存私钥本身.
+ * 条目被淘汰时会清零指纹并释放对合约对象的引用.
+ */
+public final class ContractHandleCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContractHandleCache.class);
+
+    private static final boolean ENABLED = Boolean.parseBoolean(
+        PropertyUtils.getProperty("contract.cache.enabled", "true"));
+
+    private static final long MAX_SIZE = Long.parseLong(
+        PropertyUtils.getProperty("contract.cache.max-size", "1024"));
+
+    private static final long EXPIRE_SECONDS = Long.parseLong(
+        PropertyUtils.getProperty("contract.cache.expire-seconds", "600"));
+
+    private static final Cache<HandleKey, Object> CACHE = Caffeine.newBuilder()
+        .maximumSize(MAX_SIZE)
+        .expireAfterAccess(EXPIRE_SECONDS, TimeUnit.SECONDS)
+        .removalListener(ContractHandleCache::onRemoval)
+        .recordStats()
+        .build();
+
+    static {
+        logger.info("[ContractHandleCache] enabled: {}, maxSize: {}, expireSeconds: {}.",
+            ENABLED, MAX_SIZE, EXPIRE_SECONDS);
+    }
+
+    private ContractHandleCache() {
+    }
+
+    /**
+     * 合约加载器, 缓存未命中时调用.
+     *
+     * @param <T> 合约类型
+     */
+    @FunctionalInterface
+    public interface ContractLoader<T> {
+
+        /**
+         * 加载合约对象.
+         *
+         * @return 合约对象
+         * @throws Exception 加载合约时可能出现的异常
+         */
+        T load() throws Exception;
+    }
+
+    /**
+     * 获取合约句柄, 未命中时通过loader加载并放入缓存.
+     *
+     * @param contractAddress 合约地址
+     * @param privateKey 交易发送者私钥(10进制)
+     * @param client 加载合约使用的Client对象
+     * @param cls 合约类型
+     * @param loader 合约加载器
+     * @param <T> 合约类型
+     * @return 合约对象
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T get(
+        String contractAddress,
+        String privateKey,
+        Object client,
+        Class<T> cls,
+        ContractLoader<T> loader
+    ) {
+        if (!ENABLED) {
+            return load(loader);
+        }
+        byte[] fingerprint = KeyPairCache.fingerprint(privateKey.getBytes(StandardCharsets.UTF_8));
+        HandleKey key = new HandleKey(contractAddress, cls, client, fingerprint);
+        return (T) CACHE.get(key, k -> load(loader));
+    }
+
+    /**
+     * 清除指定合约类型的所有缓存句柄, 在重新加载静态合约时调用.
+     *
+     * @param cls 合约类型
+     */
+    public static void invalidate(Class<?> cls) {
+        CACHE.asMap().keySet().removeIf(key -> key.contractClass == cls);
+    }
+
+    /**
+     * 清除所有缓存句柄.
+     */
+    public static void invalidateAll() {
+        CACHE.invalidateAll();
+    }
+
+    /**
+     * 获取缓存命中次数.
+     *
+     * @return 命中次数
+     */
+    public static long getHitCount() {
+        return CACHE.stats().hitCount();
+    }
+
+    /**
+     * 获取缓存未命中次数.
+     *
+     * @return 未命中次数
+     */
+    public static long getMissCount() {
+        return CACHE.stats().missCount();
+    }
+
+    /**
+     * 获取缓存统计信息.
+     *
+     * @return 统计信息
+     */
+    public static CacheStats stats() {
+        return CACHE.stats();
+    }
+
+    private static <T> T load(ContractLoader<T> loader) {
+        try {
+            return loader.load();
+        } catch (WeIdBaseException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new LoadContractException(e);
+        }
+    }
+
+    private static void onRemoval(HandleKey key, Object contract, RemovalCause cause) {
+        if (key != null) {
+            Arrays.fill(key.fingerprint, (byte) 0);
+            logger.debug("[ContractHandleCache] {} handle of {} removed, cause: {}.",
+                key.contractClass.getSimpleName(), key.contractAddress, cause);
+        }
+    }
+
+    private static final class HandleKey {
+
+        private final String contractAddress;
+        private final Class<?> contractClass;
+        private final Object client;
+        private final byte[] fingerprint;
+        private final int hash;
+
+        private HandleKey(
+            String contractAddress,
+            Class<?> contractClass,
+            Object client,
+            byte[] fingerprint
+        ) {
+            this.contractAddress = contractAddress;
+            this.contractClass = contractClass;
+            this.client = client;
+            this.fingerprint = fingerprint;
+            int h = contractAddress == null ? 0 : contractAddress.hashCode();
+            h = 31 * h + contractClass.hashCode();
+            h = 31 * h + System.identityHashCode(client);
+            this.hash = 31 * h + Arrays.hashCode(fingerprint);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof HandleKey)) {
+                return false;
+            }
+            HandleKey other = (HandleKey) o;
+            return hash == other.hash
+                && contractClass == other.contractClass
+                && client == other.client
+                && (contractAddress == null
+                    ? other.contractAddress == null
+                    : contractAddress.equals(other.contractAddress))
+                && Arrays.equals(fingerprint, other.fingerprint);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.webank.weid.blockchain.service.fisco.engine;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.config.ContractAddressSnapshot;
+import com.webank.weid.blockchain.config.FiscoConfig;
+import com.webank.weid.blockchain.constant.WeIdConstant;
+import com.webank.weid.blockchain.exception.LoadContractException;
+import com.webank.weid.blockchain.service.fisco.BaseServiceFisco;
+import com.webank.weid.blockchain.service.fisco.server.WeServer;
+
+/**
+ * 合约集合快照, 引擎共用的静态合约对象(WeIdContract, CptController, AuthorityIssuerController,
+ * SpecificIssuerController)按同一组地址一次加载, 创建后不可修改.
+ *
+ * <p>重新加载时先在调用线程中完整构建新的合约集合, 再通过一次volatile写替换当前集合,
+ * 读取方要么看到旧集合要么看到新集合, 不会读到新旧地址混合的合约. 地址未变化时不重新加载.
+ */
+public final class ContractSet {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContractSet.class);
+
+    private static final Object LOCK = new Object();
+
+    private static volatile ContractSet current;
+
+    static {
+        // 合约地址快照变化时, 在发布快照的线程中按快照中的地址构建新的合约集合
+        BaseServiceFisco.addAddressChangeListener(snapshot -> reload(addressesOf(snapshot)));
+    }
+
+    private final long version;
+
+    private final String weIdAddress;
+
+    private final String cptAddress;
+
+    private final String issuerAddress;
+
+    private final String specificIssuerAddress;
+
+    private final Map<Class<?>, Object> contracts;
+
+    /**
+     * 按一组地址加载合约集合.
+     *
+     * @param version 集合版本号
+     * @param addresses 依次为WeIdContract, CptController, AuthorityIssuerController,
+     *     SpecificIssuerController的地址
+     */
+    private ContractSet(long version, String[] addresses) {
+        this.version = version;
+        this.weIdAddress = addresses[0];
+        this.cptAddress = addresses[1];
+        this.issuerAddress = addresses[2];
+        this.specificIssuerAddress = addresses[3];
+        FiscoConfig fiscoConfig = BaseServiceFisco.fiscoConfig;
+        WeServer<?, ?, ?> weServer = BaseServiceFisco.getWeServer(BaseServiceFisco.masterGroupId);
+        Map<Class<?>, Object> loaded = new IdentityHashMap<>();
+        if (fiscoConfig.getVersion().startsWith(WeIdConstant.FISCO_BCOS_2_X_VERSION_PREFIX)) {
+            load(loaded, weServer, weIdAddress, com.webank.weid.contract.v2.WeIdContract.class);
+            load(loaded, weServer, cptAddress, com.webank.weid.contract.v2.CptController.class);
+            load(loaded, weServer, issuerAddress,
+                com.webank.weid.contract.v2.AuthorityIssuerController.class);
+            load(loaded, weServer, specificIssuerAddress,
+                com.webank.weid.contract.v2.SpecificIssuerController.class);
+        } else {
+            load(loaded, weServer, weIdAddress, com.webank.weid.contract.v3.WeIdContract.class);
+            load(loaded, weServer, cptAddress, com.webank.weid.contract.v3.CptController.class);
+            load(loaded, weServer, issuerAddress,
+                com.webank.weid.contract.v3.AuthorityIssuerController.class);
+            load(loaded, weServer, specificIssuerAddress,
+                com.webank.weid.contract.v3.SpecificIssuerController.class);
+        }
+        this.contracts = Collections.unmodifiableMap(loaded);
+    }
+
+    /**
+     * 获取当前的合约集合, 首次调用时按当前地址加载.
+     *
+     * @return 合约集合
+     */
+    public static ContractSet current() {
+        ContractSet contractSet = current;
+        if (contractSet == null) {
+            synchronized (LOCK) {
+                contractSet = current;
+                if (contractSet == null) {
+                    contractSet = new ContractSet(1L, currentAddresses());
+                    current = contractSet;
+                    logger.info("[ContractSet] load contract set version {}.", contractSet.version);
+                }
+            }
+        }
+        return contractSet;
+    }
+
+    /**
+     * 按当前的合约地址重新加载合约集合, 地址未变化时直接返回.
+     */
+    public static void reload() {
+        reload(currentAddresses());
+    }
+
+    private static void reload(String[] addresses) {
+        synchronized (LOCK) {
+            ContractSet previous = current;
+            if (previous != null && previous.sameAddresses(addresses)) {
+                logger.debug("[ContractSet] contract address not changed, skip reload.");
+                return;
+            }
+            long start = System.currentTimeMillis();
+            ContractSet next = new ContractSet(
+                previous == null ? 1L : previous.version + 1, addresses);
+            current = next;
+            if (previous != null) {
+                // 交易用的合约句柄按地址缓存, 旧地址的句柄不再需要
+                for (Class<?> cls : previous.contracts.keySet()) {
+                    ContractHandleCache.invalidate(cls);
+                }
+            }
+            logger.info("[ContractSet] publish contract set version {} in {} ms.",
+                next.version, System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * 获取集合中的合约对象.
+     *
+     * @param cls 合约类型
+     * @param <T> 合约类型
+     * @return 合约对象
+     */
+    public <T> T get(Class<T> cls) {
+        Object contract = contracts.get(cls);
+        if (contract == null) {
+            throw new LoadContractException();
+        }
+        return cls.cast(contract);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    private boolean sameAddresses(String[] addresses) {
+        return Objects.equals(weIdAddress, addresses[0])
+            && Objects.equals(cptAddress, addresses[1])
+            && Objects.equals(issuerAddress, addresses[2])
+            && Objects.equals(specificIssuerAddress, addresses[3]);
+    }
+
+    /**
+     * 当前的合约地址, 优先取已发布的地址快照, 地址写在配置中时没有快照, 取配置.
+     */
+    private static String[] currentAddresses() {
+        ContractAddressSnapshot snapshot = BaseServiceFisco.getAddressSnapshot();
+        if (snapshot != null) {
+            return addressesOf(snapshot);
+        }
+        FiscoConfig fiscoConfig = BaseServiceFisco.fiscoConfig;
+        return new String[]{
+            fiscoConfig.getWeIdAddress(),
+            fiscoConfig.getCptAddress(),
+            fiscoConfig.getIssuerAddress(),
+            fiscoConfig.getSpecificIssuerAddress()
+        };
+    }
+
+    private static String[] addressesOf(ContractAddressSnapshot snapshot) {
+        return new String[]{
+            snapshot.getWeIdAddress(),
+            snapshot.getCptAddress(),
+            snapshot.getIssuerAddress(),
+            snapshot.getSpecificIssuerAddress()
+        };
+    }
+
+    private static void load(
+        Map<Class<?>, Object> loaded,
+        WeServer<?, ?, ?> weServer,
+        String contractAddress,
+        Class<?> cls
+    ) {
+        try {
+            Object contract = ContractFactoryRegistry.getFactory(cls).load(
+                contractAddress,
+                weServer.getWeb3j(),
+                weServer.getCredentials()
+            );
+            loaded.put(cls, contract);
+            logger.info(cls.getSimpleName() + " init succ");
+        } catch (Exception e) {
+            logger.error("load contract Exception:{} failed. Error message is :{}",
+                cls.getSimpleName(), e.getMessage(), e);
+            throw new LoadContractException(e);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.webank.weid.blockchain.service.fisco.engine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjIntConsumer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.protocol.base.Cpt;
+import com.webank.weid.blockchain.service.fisco.BaseServiceFisco;
+import com.webank.weid.blockchain.util.PropertyUtils;
+
+/**
+ * CPT缓存, 按(存储类型, cptId, 版本)缓存解析后的Cpt对象. CPT和Policy的某一版本写入后不会再变化,
+ * 因此缓存条目不过期, 只按数量淘汰.
+ *
+ * <p>默认关闭, 通过cpt.cache.enabled开启. queryCpt总是返回最新版本, 调用方先查询链上的版本号,
+ * 版本号已缓存时跳过schema拼接、JSON反序列化和签名转换. 配置probe-seconds大于0时,
+ * 最新版本在确认后的这段时间内直接从缓存返回, 不再查询链上; 本进程更新CPT后立即失效. 缓存中的对象不会直接返回给调用方, 每次都返回副本.
+ */
+public final class CptCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CptCache.class);
+
+    private static final boolean ENABLED = Boolean.parseBoolean(
+        PropertyUtils.getProperty("cpt.cache.enabled", "false"));
+
+    private static final long MAX_SIZE = Long.parseLong(
+        PropertyUtils.getProperty("cpt.cache.max-size", "1000"));
+
+    private static final long PROBE_NANOS = TimeUnit.SECONDS.toNanos(Long.parseLong(
+        PropertyUtils.getProperty("cpt.cache.probe-seconds", "0")));
+
+    private static final Cache<CptKey, Cpt> CACHE = Caffeine.newBuilder()
+        .maximumSize(MAX_SIZE)
+        .recordStats()
+        .build();
+
+    /**
+     * (存储类型, cptId)到最近一次确认的最新版本.
+     */
+    private static final ConcurrentHashMap<CptKey, LatestVersion> LATEST =
+        new ConcurrentHashMap<>();
+
+    static {
+        logger.info("[CptCache] enabled: {}, maxSize: {}, probeSeconds: {}.",
+            ENABLED, MAX_SIZE, TimeUnit.NANOSECONDS.toSeconds(PROBE_NANOS));
+        // CptController地址变化后原有数据不再适用
+        BaseServiceFisco.addAddressChangeListener(snapshot -> invalidateAll());
+    }
+
+    private CptCache() {
+    }
+
+    /**
+     * 获取在probe-seconds内确认过的最新版本.
+     *
+     * @param dataStorageIndex 存储类型, CPT或Policy
+     * @param cptId cptId
+     * @return Cpt副本, 没有确认过或已超过probe-seconds时返回null
+     */
+    public static Cpt getLatest(int dataStorageIndex, int cptId) {
+        if (!ENABLED || PROBE_NANOS <= 0) {
+            return null;
+        }
+        LatestVersion latest = LATEST.get(new CptKey(dataStorageIndex, cptId, 0));
+        if (latest == null || System.nanoTime() - latest.verifiedNanos > PROBE_NANOS) {
+            return null;
+        }
+        Cpt cpt = CACHE.getIfPresent(new CptKey(dataStorageIndex, cptId, latest.version));
+        return cpt == null ? null : copy(cpt);
+    }
+
+    /**
+     * 获取指定版本, 命中时同时记录该版本为最新版本.
+     *
+     * @param dataStorageIndex 存储类型, CPT或Policy
+     * @param cptId cptId
+     * @param version 链上查询到的最新版本号
+     * @return Cpt副本, 未命中或未开启时返回null
+     */
+    public static Cpt get(int dataStorageIndex, int cptId, int version) {
+        if (!ENABLED) {
+            return null;
+        }
+        Cpt cpt = CACHE.getIfPresent(new CptKey(dataStorageIndex, cptId, version));
+        if (cpt == null) {
+            return null;
+        }
+        markLatest(dataStorageIndex, cptId, version);
+        return copy(cpt);
+    }
+
+    /**
+     * 放入从链上解析的最新版本, 缓存中保存副本, 调用方可以继续使用传入的对象.
+     *
+     * @param dataStorageIndex 存储类型, CPT或Policy
+     * @param cpt 解析后的Cpt
+     */
+    public static void put(int dataStorageIndex, Cpt cpt) {
+        if (!ENABLED) {
+            return;
+        }
+        CACHE.put(
+            new CptKey(dataStorageIndex, cpt.getCptId(), cpt.getCptVersion()), copy(cpt));
+        markLatest(dataStorageIndex, cpt.getCptId(), cpt.getCptVersion());
+    }
+
+    /**
+     * 使最新版本失效, 在本进程更新CPT后调用, 已缓存的历史版本保留.
+     *
+     * @param dataStorageIndex 存储类型, CPT或Policy
+     * @param cptId cptId
+     */
+    public static void invalidateLatest(int dataStorageIndex, int cptId) {
+        LATEST.remove(new CptKey(dataStorageIndex, cptId, 0));
+    }
+
+    /**
+     * 清除所有缓存.
+     */
+    public static void invalidateAll() {
+        LATEST.clear();
+        CACHE.invalidateAll();
+    }
+
+    /**
+     * 遍历所有缓存的版本, 用于写入缓存快照.
+     *
+     * @param action 接收Cpt和存储类型, Cpt不应被修改
+     */
+    static void forEach(ObjIntConsumer<Cpt> action) {
+        if (!ENABLED) {
+            return;
+        }
+        CACHE.asMap().forEach((key, cpt) -> action.accept(cpt, key.dataStorageIndex));
+    }
+
+    /**
+     * 放入从缓存快照恢复的版本. 不记录为最新版本, 最新版本仍以链上查询为准.
+     *
+     * @param dataStorageIndex 存储类型, CPT或Policy
+     * @param cpt Cpt
+     */
+    static void restore(int dataStorageIndex, Cpt cpt) {
+        if (ENABLED) {
+            CACHE.asMap().putIfAbsent(
+                new CptKey(dataStorageIndex, cpt.getCptId(), cpt.getCptVersion()), cpt);
+        }
+    }
+
+    /**
+     * 获取缓存统计信息, hitRate即跳过解析的比例.
+     *
+     * @return 统计信息
+     */
+    public static CacheStats stats() {
+        return CACHE.stats();
+    }
+
+    private static void markLatest(int dataStorageIndex, int cptId, int version) {
+        LATEST.put(new CptKey(dataStorageIndex, cptId, 0),
+            new LatestVersion(version, System.nanoTime()));
+    }
+
+    private static Cpt copy(Cpt source) {
+        Cpt target = new Cpt();
+        target.setCptId(source.getCptId());
+        target.setCptVersion(source.getCptVersion());
+        target.setCptPublisher(source.getCptPublisher());
+        target.setCptSignature(source.getCptSignature());
+        target.setCreated(source.getCreated());
+        target.setUpdated(source.getUpdated());
+        if (source.getCptJsonSchema() != null) {
+            target.setCptJsonSchema(copyMap(source.getCptJsonSchema(), new HashMap<>()));
+        }
+        return target;
+    }
+
+    private static Map<String, Object> copyMap(
+        Map<String, Object> source,
+        Map<String, Object> target
+    ) {
+        for (Map.Entry<String, Object> entry : source.entrySet()) {
+            target.put(entry.getKey(), copyValue(entry.getValue()));
+        }
+        return target;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object copyValue(Object value) {
+        if (value instanceof Map) {
+            return copyMap((Map<String, Object>) value, new LinkedHashMap<>());
+        }
+        if (value instanceof List) {
+            List<Object> source = (List<Object>) value;
+            List<Object> target = new ArrayList<>(source.size());
+            for (Object item : source) {
+                target.add(copyValue(item));
+            }
+            return target;
+        }
+        // JSON反序列化得到的其他值都是不可变对象
+        return value;
+    }
+
+    private static final class LatestVersion {
+
+        private final int version;
+        private final long verifiedNanos;
+
+        private LatestVersion(int version, long verifiedNanos) {
+            this.version = version;
+            this.verifiedNanos = verifiedNanos;
+        }
+    }
+
+    private static final class CptKey {
+
+        private final int dataStorageIndex;
+        private final int cptId;
+        private final int version;
+
+        private CptKey(int dataStorageIndex, int cptId, int version) {
+            this.dataStorageIndex = dataStorageIndex;
+            this.cptId = cptId;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CptKey)) {
+                return false;
+            }
+            CptKey other = (CptKey) o;
+            return dataStorageIndex == other.dataStorageIndex
+                && cptId == other.cptId
+                && version == other.version;
+        }
+
+        @Override
+        public int hashCode() {
+            return (dataStorageIndex * 31 + cptId) * 31 + version;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.webank.weid.blockchain.service.fisco.engine;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.webank.wedpr.selectivedisclosure.CredentialTemplateEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.protocol.response.TransactionInfo;
+import com.webank.weid.blockchain.service.fisco.BaseServiceFisco;
+import com.webank.weid.blockchain.util.PropertyUtils;
+
+/**
+ * CredentialTemplate缓存, 按cptId缓存查询出的CredentialTemplateEntity,
+ * 并记录本进程putCredentialTemplate的交易哈希.
+ *
+ * <p>条目写入后最多保留expire-seconds, 本进程putCredentialTemplate或更新CPT后立即失效.
+ * 交易哈希和所在区块一起记录, 只有链上记录的区块与之相同时才使用, 可以跳过整块回执扫描.
+ */
+public final class CredentialTemplateCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CredentialTemplateCache.class);
+
+    private static final boolean ENABLED = Boolean.parseBoolean(
+        PropertyUtils.getProperty("cpt.template.cache.enabled", "true"));
+
+    private static final long MAX_SIZE = Long.parseLong(
+        PropertyUtils.getProperty("cpt.template.cache.max-size", "1000"));
+
+    private static final long EXPIRE_SECONDS = Long.parseLong(
+        PropertyUtils.getProperty("cpt.template.cache.expire-seconds", "300"));
+
+    private static final Cache<Integer, CredentialTemplateEntity> TEMPLATES = Caffeine.newBuilder()
+        .maximumSize(MAX_SIZE)
+        .expireAfterWrite(EXPIRE_SECONDS, TimeUnit.SECONDS)
+        .recordStats()
+        .build();
+
+    private static final Cache<Integer, TransactionInfo> TRANSACTIONS = Caffeine.newBuilder()
+        .maximumSize(MAX_SIZE)
+        .build();
+
+    static {
+        logger.info("[CredentialTemplateCache] enabled: {}, maxSize: {}, expireSeconds: {}.",
+            ENABLED, MAX_SIZE, EXPIRE_SECONDS);
+        // CptController地址变化后原有数据不再适用
+        BaseServiceFisco.addAddressChangeListener(snapshot -> invalidateAll());
+    }
+
+    private CredentialTemplateCache() {
+    }
+
+    /**
+     * 获取缓存的CredentialTemplateEntity.
+     *
+     * @param cptId cptId
+     * @return CredentialTemplateEntity副本, 未命中或未开启时返回null
+     */
+    public static CredentialTemplateEntity get(Integer cptId) {
+        if (!ENABLED) {
+            return null;
+        }
+        CredentialTemplateEntity entity = TEMPLATES.getIfPresent(cptId);
+        return entity == null ? null : copy(entity);
+    }
+
+    /**
+     * 放入CredentialTemplateEntity, 缓存中保存副本.
+     *
+     * @param cptId cptId
+     * @param entity CredentialTemplateEntity
+     */
+    public static void put(Integer cptId, CredentialTemplateEntity entity) {
+        if (ENABLED) {
+            TEMPLATES.put(cptId, copy(entity));
+        }
+    }
+
+    /**
+     * 记录putCredentialTemplate的交易, 同时使缓存的CredentialTemplateEntity失效.
+     *
+     * @param cptId cptId
+     * @param transactionInfo 交易信息
+     */
+    public static void recordTransaction(Integer cptId, TransactionInfo transactionInfo) {
+        TEMPLATES.invalidate(cptId);
+        if (ENABLED && transactionInfo.getBlockNumber() != null
+            && transactionInfo.getTransactionHash() != null) {
+            TRANSACTIONS.put(cptId, transactionInfo);
+        }
+    }
+
+    /**
+     * 获取记录的交易哈希.
+     *
+     * @param cptId cptId
+     * @param blockNumber 链上记录的CredentialTemplate所在区块
+     * @return 交易哈希, 没有记录或记录的区块不一致时返回null
+     */
+    public static String getTransactionHash(Integer cptId, int blockNumber) {
+        if (!ENABLED) {
+            return null;
+        }
+        TransactionInfo transactionInfo = TRANSACTIONS.getIfPresent(cptId);
+        if (transactionInfo == null
+            || !BigInteger.valueOf(blockNumber).equals(transactionInfo.getBlockNumber())) {
+            return null;
+        }
+        return transactionInfo.getTransactionHash();
+    }
+
+    /**
+     * 使cptId的CredentialTemplateEntity失效, 在本进程更新CPT后调用.
+     *
+     * @param cptId cptId
+     */
+    public static void invalidate(Integer cptId) {
+        TEMPLATES.invalidate(cptId);
+    }
+
+    /**
+     * 清除所有缓存.
+     */
+    public static void invalidateAll() {
+        TEMPLATES.invalidateAll();
+        TRANSACTIONS.invalidateAll();
+    }
+
+    /**
+     * 获取缓存统计信息.
+     *
+     * @return 统计信息
+     */
+    public static CacheStats stats() {
+        return TEMPLATES.stats();
+    }
+
+    private static CredentialTemplateEntity copy(CredentialTemplateEntity source) {
+        // publicKey和credentialSchema是不可变的protobuf对象, 可以共用
+        CredentialTemplateEntity target = new CredentialTemplateEntity();
+        target.setPublicKey(source.getPublicKey());
+        target.setCredentialKeyCorrectnessProof(source.getCredentialKeyCorrectnessProof());
+        target.setCredentialSchema(source.getCredentialSchema());
+        return target;
+    }
+}
@@ -0,0 +1,192 @@
+package com.webank.weid.blockchain.service.fisco.engine;
+
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.util.PropertyUtils;
+
+/**
+ * DataBucket读缓存, 按(DataBucket合约地址, bucketId, key)缓存get查询成功的结果.
+ *
+ * <p>DataBucket中保存的多是各群组的Evidence地址、全局合约地址和机构配置, 很少变化.
+ * 本进程put、removeExtraItem后对应key立即失效, removeDataBucketItem、enable、disable后整个bucket失效;
+ * 其他进程的修改最晚在expire-seconds后可见, 也可以通过DataBucketServiceEngine.refresh立即重新读取.
+ */
+public final class DataBucketCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataBucketCache.class);
+
+    private static final boolean ENABLED = Boolean.parseBoolean(
+        PropertyUtils.getProperty("databucket.cache.enabled", "true"));
+
+    private static final long MAX_SIZE = Long.parseLong(
+        PropertyUtils.getProperty("databucket.cache.max-size", "10000"));
+
+    private static final long EXPIRE_SECONDS = Long.parseLong(
+        PropertyUtils.getProperty("databucket.cache.expire-seconds", "300"));
+
+    private static final Cache<BucketKey, String> CACHE = Caffeine.newBuilder()
+        .maximumSize(MAX_SIZE)
+        .expireAfterWrite(EXPIRE_SECONDS, TimeUnit.SECONDS)
+        .recordStats()
+        .build();
+
+    static {
+        logger.info("[DataBucketCache] enabled: {}, maxSize: {}, expireSeconds: {}.",
+            ENABLED, MAX_SIZE, EXPIRE_SECONDS);
+    }
+
+    private DataBucketCache() {
+    }
+
+    /**
+     * 获取缓存的值.
+     *
+     * @param contractAddress DataBucket合约地址
+     * @param bucketId bucketId
+     * @param key key
+     * @return 缓存的值, 未命中或未开启时返回null
+     */
+    public static String get(String contractAddress, String bucketId, String key) {
+        if (!ENABLED) {
+            return null;
+        }
+        return CACHE.getIfPresent(new BucketKey(contractAddress, bucketId, key));
+    }
+
+    /**
+     * 放入从链上查询成功的值.
+     *
+     * @param contractAddress DataBucket合约地址
+     * @param bucketId bucketId
+     * @param key key
+     * @param value 链上的值
+     */
+    public static void put(String contractAddress, String bucketId, String key, String value) {
+        if (ENABLED && value != null) {
+            CACHE.put(new BucketKey(contractAddress, bucketId, key), value);
+        }
+    }
+
+    /**
+     * 使bucket中的一个key失效.
+     *
+     * @param contractAddress DataBucket合约地址
+     * @param bucketId bucketId
+     * @param key key
+     */
+    public static void invalidate(String contractAddress, String bucketId, String key) {
+        CACHE.invalidate(new BucketKey(contractAddress, bucketId, key));
+    }
+
+    /**
+     * 使整个bucket失效.
+     *
+     * @param contractAddress DataBucket合约地址
+     * @param bucketId bucketId
+     */
+    public static void invalidateBucket(String contractAddress, String bucketId) {
+        CACHE.asMap().keySet().removeIf(bucketKey -> bucketKey.inBucket(contractAddress, bucketId));
+    }
+
+    /**
+     * 清除所有缓存.
+     */
+    public static void invalidateAll() {
+        CACHE.invalidateAll();
+    }
+
+    /**
+     * 遍历所有缓存的值, 用于写入缓存快照.
+     *
+     * @param action 接收每个值
+     */
+    static void forEach(EntryConsumer action) {
+        if (!ENABLED) {
+            return;
+        }
+        CACHE.asMap().forEach((bucketKey, value) ->
+            action.accept(bucketKey.contractAddress, bucketKey.bucketId, bucketKey.key, value));
+    }
+
+    /**
+     * 放入从缓存快照恢复的值, 已有值时保留已有的. DataBucket没有合约事件,
+     * 快照写入已超过expire-seconds时不恢复.
+     *
+     * @param contractAddress DataBucket合约地址
+     * @param bucketId bucketId
+     * @param key key
+     * @param value 快照中的值
+     * @param ageMillis 快照写入至今的毫秒数
+     */
+    static void restore(
+        String contractAddress,
+        String bucketId,
+        String key,
+        String value,
+        long ageMillis
+    ) {
+        if (ENABLED && value != null && ageMillis < TimeUnit.SECONDS.toMillis(EXPIRE_SECONDS)) {
+            CACHE.asMap().putIfAbsent(new BucketKey(contractAddress, bucketId, key), value);
+        }
+    }
+
+    /**
+     * 获取缓存统计信息.
+     *
+     * @return 统计信息
+     */
+    public static CacheStats stats() {
+        return CACHE.stats();
+    }
+
+    /**
+     * 缓存值的接收者.
+     */
+    @FunctionalInterface
+    interface EntryConsumer {
+
+        void accept(String contractAddress, String bucketId, String key, String value);
+    }
+
+    private static final class BucketKey {
+
+        private final String contractAddress;
+        private final String bucketId;
+        private final String key;
+
+        private BucketKey(String contractAddress, String bucketId, String key) {
+            this.contractAddress = contractAddress;
+            this.bucketId = bucketId;
+            this.key = key;
+        }
+
+        private boolean inBucket(String contractAddress, String bucketId) {
+            return this.contractAddress.equals(contractAddress) && this.bucketId.equals(bucketId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof BucketKey)) {
+                return false;
+            }
+            BucketKey other = (BucketKey) o;
+            return contractAddress.equals(other.contractAddress)
+                && bucketId.equals(other.bucketId)
+                && key.equals(other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return (contractAddress.hashCode() * 31 + bucketId.hashCode()) * 31 + key.hashCode();
+        }
+    }
+}
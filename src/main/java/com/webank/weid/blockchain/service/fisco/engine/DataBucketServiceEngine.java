@@ -20,13 +20,22 @@ public interface DataBucketServiceEngine {
     ResponseData<Boolean> put(String bucketId, String key, String value, String privateKey);
     
     /**
-     * 根据bucketId获取具体合约数据.
+     * 根据bucketId获取具体合约数据, 查询成功的结果会被缓存.
      * 
      * @param bucketId 合约地址出来的bucketId
      * @param key 需要获取数据的key
      * @return 返回具体数据
      */
     ResponseData<String> get(String bucketId, String key);
+
+    /**
+     * 跳过缓存, 从链上重新读取数据并更新缓存. 用于需要立即看到其他进程修改的场景.
+     * 
+     * @param bucketId 合约地址出来的bucketId
+     * @param key 需要获取数据的key
+     * @return 返回具体数据
+     */
+    ResponseData<String> refresh(String bucketId, String key);
     
     /**
      * 根据bucketId删除extra里面的key.
@@ -5,6 +5,7 @@ package com.webank.weid.blockchain.service.fisco.engine;
 import com.webank.weid.blockchain.config.FiscoConfig;
 import com.webank.weid.blockchain.constant.CnsType;
 import com.webank.weid.blockchain.constant.WeIdConstant;
+import com.webank.weid.blockchain.service.fisco.FiscoBootstrap;
 import com.webank.weid.blockchain.service.fisco.engine.fiscov2.*;
 import com.webank.weid.blockchain.service.fisco.engine.fiscov2.CptServiceFiscoEngineFiscoV2;
 import com.webank.weid.blockchain.service.fisco.engine.fiscov3.*;
@@ -27,12 +28,12 @@ public class EngineFactoryFisco {
     protected static final Boolean isVer2;
 
     static {
-        fiscoConfig = new FiscoConfig();
-        if (!fiscoConfig.load()) {
-            logger.error("[BaseService] Failed to load Fisco-BCOS blockchain node information.");
-            System.exit(1);
-        }
+        fiscoConfig = FiscoBootstrap.getFiscoConfig();
         isVer2 = fiscoConfig.getVersion().startsWith(WeIdConstant.FISCO_BCOS_2_X_VERSION_PREFIX);
+        long start = System.nanoTime();
+        ContractFactoryRegistry.preload();
+        FiscoBootstrap.record(FiscoBootstrap.PHASE_CONTRACT_LOAD, start);
+        FiscoBootstrap.logSummary();
     }
 
     /**
@@ -108,4 +109,28 @@ public class EngineFactoryFisco {
             return new DataBucketServiceFiscoEngineV3(cnsType);
         }
     }
+
+    /**
+     * create ContractEventSubscriber.
+     * @return ContractEventSubscriber object
+     */
+    public static ContractEventSubscriber createContractEventSubscriber() {
+        if (isVer2) {
+            return new ContractEventSubscriberV2();
+        } else {
+            return new ContractEventSubscriberV3();
+        }
+    }
+
+    /**
+     * create BlockFetcher.
+     * @return BlockFetcher object
+     */
+    public static BlockFetcher createBlockFetcher() {
+        if (isVer2) {
+            return new BlockFetcherV2();
+        } else {
+            return new BlockFetcherV3();
+        }
+    }
 }
@@ -0,0 +1,148 @@
+package com.webank.weid.blockchain.service.fisco.engine;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.service.fisco.BaseServiceFisco;
+
+/**
+ * 引擎注册器, 按(引擎类型, 群组ID)共享引擎对象, 每个引擎只构建一次.
+ *
+ * <p>合约地址快照发生变化时, 所有已构建的引擎会重新构建, 构建成功后整体替换旧引擎;
+ * 构建失败时保留旧引擎. 使用方应每次通过注册器获取引擎, 不要长期持有引擎对象.
+ */
+public final class EngineRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(EngineRegistry.class);
+
+    private static final ConcurrentHashMap<EngineKey, EngineHolder> ENGINES =
+        new ConcurrentHashMap<>();
+
+    static {
+        BaseServiceFisco.addAddressChangeListener(snapshot -> rebuildAll());
+    }
+
+    private EngineRegistry() {
+    }
+
+    /**
+     * 获取群组下的Evidence引擎.
+     *
+     * @param groupId 群组ID
+     * @return Evidence引擎
+     */
+    public static EvidenceServiceEngineFisco getEvidenceServiceEngine(String groupId) {
+        return get(
+            EvidenceServiceEngineFisco.class,
+            groupId,
+            EngineFactoryFisco::createEvidenceServiceEngine
+        );
+    }
+
+    /**
+     * 获取群组下指定类型的引擎, 不存在时通过factory构建.
+     *
+     * @param engineType 引擎类型
+     * @param groupId 群组ID
+     * @param factory 引擎构建方法, 入参为群组ID
+     * @param <T> 引擎类型
+     * @return 引擎对象
+     */
+    public static <T> T get(Class<T> engineType, String groupId, Function<String, T> factory) {
+        EngineKey key = new EngineKey(engineType, groupId);
+        EngineHolder holder = ENGINES.get(key);
+        if (holder == null) {
+            holder = ENGINES.computeIfAbsent(key, k -> {
+                logger.info("[EngineRegistry] build {} for group {}.",
+                    engineType.getSimpleName(), groupId);
+                return new EngineHolder(factory.apply(groupId), factory);
+            });
+        }
+        return engineType.cast(holder.engine);
+    }
+
+    /**
+     * 重新构建群组下指定类型的引擎, 成功后替换旧引擎.
+     *
+     * @param engineType 引擎类型
+     * @param groupId 群组ID
+     */
+    public static void rebuild(Class<?> engineType, String groupId) {
+        rebuild(new EngineKey(engineType, groupId));
+    }
+
+    /**
+     * 重新构建所有已注册的引擎.
+     */
+    public static void rebuildAll() {
+        for (EngineKey key : ENGINES.keySet()) {
+            rebuild(key);
+        }
+    }
+
+    /**
+     * 移除所有引擎, 下次获取时重新构建.
+     */
+    public static void clear() {
+        ENGINES.clear();
+    }
+
+    private static void rebuild(EngineKey key) {
+        EngineHolder holder = ENGINES.get(key);
+        if (holder == null) {
+            return;
+        }
+        try {
+            EngineHolder rebuilt = new EngineHolder(holder.factory.apply(key.groupId), holder.factory);
+            ENGINES.replace(key, holder, rebuilt);
+            logger.info("[EngineRegistry] rebuild {} for group {}.",
+                key.engineType.getSimpleName(), key.groupId);
+        } catch (Exception e) {
+            logger.error("[EngineRegistry] rebuild {} for group {} failed, keep the old engine.",
+                key.engineType.getSimpleName(), key.groupId, e);
+        }
+    }
+
+    private static final class EngineHolder {
+
+        private final Object engine;
+        private final Function<String, ?> factory;
+
+        private EngineHolder(Object engine, Function<String, ?> factory) {
+            this.engine = engine;
+            this.factory = factory;
+        }
+    }
+
+    private static final class EngineKey {
+
+        private final Class<?> engineType;
+        private final String groupId;
+
+        private EngineKey(Class<?> engineType, String groupId) {
+            this.engineType = engineType;
+            this.groupId = groupId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof EngineKey)) {
+                return false;
+            }
+            EngineKey other = (EngineKey) o;
+            return engineType == other.engineType && Objects.equals(groupId, other.groupId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(engineType, groupId);
+        }
+    }
+}
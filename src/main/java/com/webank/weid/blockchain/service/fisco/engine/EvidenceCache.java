@@ -0,0 +1,173 @@
+package com.webank.weid.blockchain.service.fisco.engine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.protocol.base.EvidenceInfo;
+import com.webank.weid.blockchain.protocol.base.EvidenceSignInfo;
+import com.webank.weid.blockchain.util.PropertyUtils;
+
+/**
+ * Evidence读缓存, 按Evidence合约地址区分不同群组.
+ *
+ * <p>customKey到hash的映射在合约中只会绑定一次, 因此一直保留, 只按数量淘汰.
+ * EvidenceInfo默认不缓存, 通过evidence.cache.enabled开启, 条目写入后最多保留expire-seconds,
+ * 本进程对同一hash存证、addLog、setAttribute或revoke后立即失效. 每次命中都返回副本.
+ */
+public final class EvidenceCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(EvidenceCache.class);
+
+    private static final boolean ENABLED = Boolean.parseBoolean(
+        PropertyUtils.getProperty("evidence.cache.enabled", "false"));
+
+    private static final long MAX_SIZE = Long.parseLong(
+        PropertyUtils.getProperty("evidence.cache.max-size", "10000"));
+
+    private static final long EXPIRE_SECONDS = Long.parseLong(
+        PropertyUtils.getProperty("evidence.cache.expire-seconds", "10"));
+
+    private static final long CUSTOM_KEY_MAX_SIZE = Long.parseLong(
+        PropertyUtils.getProperty("evidence.cache.custom-key.max-size", "100000"));
+
+    private static final Cache<String, EvidenceInfo> INFOS = Caffeine.newBuilder()
+        .maximumSize(MAX_SIZE)
+        .expireAfterWrite(EXPIRE_SECONDS, TimeUnit.SECONDS)
+        .recordStats()
+        .build();
+
+    private static final Cache<String, String> CUSTOM_KEYS = Caffeine.newBuilder()
+        .maximumSize(CUSTOM_KEY_MAX_SIZE)
+        .recordStats()
+        .build();
+
+    static {
+        logger.info("[EvidenceCache] enabled: {}, maxSize: {}, expireSeconds: {}, "
+            + "customKeyMaxSize: {}.", ENABLED, MAX_SIZE, EXPIRE_SECONDS, CUSTOM_KEY_MAX_SIZE);
+    }
+
+    private EvidenceCache() {
+    }
+
+    /**
+     * 获取customKey绑定的hash.
+     *
+     * @param evidenceAddress Evidence合约地址
+     * @param customKey 自定义key
+     * @return hash, 未命中时返回null
+     */
+    public static String getHash(String evidenceAddress, String customKey) {
+        return CUSTOM_KEYS.getIfPresent(normalize(evidenceAddress) + customKey);
+    }
+
+    /**
+     * 记录customKey绑定的hash, 只应放入从链上查到的非空hash.
+     *
+     * @param evidenceAddress Evidence合约地址
+     * @param customKey 自定义key
+     * @param hash 绑定的hash
+     */
+    public static void putHash(String evidenceAddress, String customKey, String hash) {
+        CUSTOM_KEYS.put(normalize(evidenceAddress) + customKey, hash);
+    }
+
+    /**
+     * 获取缓存的EvidenceInfo.
+     *
+     * @param evidenceAddress Evidence合约地址
+     * @param hash evidence hash
+     * @return EvidenceInfo副本, 未命中或未开启时返回null
+     */
+    public static EvidenceInfo getInfo(String evidenceAddress, String hash) {
+        if (!ENABLED) {
+            return null;
+        }
+        EvidenceInfo evidenceInfo = INFOS.getIfPresent(infoKey(evidenceAddress, hash));
+        return evidenceInfo == null ? null : copy(evidenceInfo);
+    }
+
+    /**
+     * 放入EvidenceInfo, 缓存中保存副本.
+     *
+     * @param evidenceAddress Evidence合约地址
+     * @param evidenceInfo EvidenceInfo
+     */
+    public static void putInfo(String evidenceAddress, EvidenceInfo evidenceInfo) {
+        if (ENABLED) {
+            INFOS.put(
+                infoKey(evidenceAddress, evidenceInfo.getCredentialHash()), copy(evidenceInfo));
+        }
+    }
+
+    /**
+     * 使hash的EvidenceInfo失效, 在本进程修改该存证后调用.
+     *
+     * @param evidenceAddress Evidence合约地址
+     * @param hash evidence hash
+     */
+    public static void invalidateInfo(String evidenceAddress, String hash) {
+        if (ENABLED) {
+            INFOS.invalidate(infoKey(evidenceAddress, hash));
+        }
+    }
+
+    /**
+     * 清除所有缓存.
+     */
+    public static void invalidateAll() {
+        INFOS.invalidateAll();
+        CUSTOM_KEYS.invalidateAll();
+    }
+
+    /**
+     * 获取EvidenceInfo缓存统计信息.
+     *
+     * @return 统计信息
+     */
+    public static CacheStats stats() {
+        return INFOS.stats();
+    }
+
+    /**
+     * 获取customKey索引统计信息.
+     *
+     * @return 统计信息
+     */
+    public static CacheStats customKeyStats() {
+        return CUSTOM_KEYS.stats();
+    }
+
+    private static String infoKey(String evidenceAddress, String hash) {
+        // 合约事件中的地址和hash都是小写, 统一后才能按事件失效
+        return normalize(evidenceAddress) + normalize(hash);
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static EvidenceInfo copy(EvidenceInfo source) {
+        EvidenceInfo target = new EvidenceInfo();
+        target.setCredentialHash(source.getCredentialHash());
+        Map<String, EvidenceSignInfo> signInfoMap = new HashMap<>();
+        for (Map.Entry<String, EvidenceSignInfo> entry : source.getSignInfo().entrySet()) {
+            EvidenceSignInfo signInfo = new EvidenceSignInfo();
+            signInfo.setSignature(entry.getValue().getSignature());
+            signInfo.setTimestamp(entry.getValue().getTimestamp());
+            signInfo.setLogs(new ArrayList<>(entry.getValue().getLogs()));
+            signInfo.setRevoked(entry.getValue().getRevoked());
+            signInfoMap.put(entry.getKey(), signInfo);
+        }
+        target.setSignInfo(signInfoMap);
+        return target;
+    }
+}
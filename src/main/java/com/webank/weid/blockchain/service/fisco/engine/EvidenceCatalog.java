@@ -0,0 +1,180 @@
+package com.webank.weid.blockchain.service.fisco.engine;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.config.ContractAddressSnapshot;
+import com.webank.weid.blockchain.protocol.response.EvidenceCatalogPage;
+import com.webank.weid.blockchain.service.fisco.BaseServiceFisco;
+import com.webank.weid.blockchain.service.fisco.engine.ContractChangeEvent.Type;
+import com.webank.weid.blockchain.util.NamedThreadFactory;
+import com.webank.weid.blockchain.util.PropertyUtils;
+
+/**
+ * Evidence目录, 按(签名者, 时间戳, hash)索引主群组EvidenceContract的签名记录,
+ * 用于查询某个签名者在一段时间内创建或追加签名的evidence.
+ *
+ * <p>默认关闭, 通过evidence.catalog.enabled开启. 记录来自CreateEvidence和EvidenceAttributeChanged事件,
+ * 需要同时开启event.subscribe才能持续更新; 开启前已有的记录通过backfill从指定区块用BlockBackfill扫描补齐.
+ * 每条记录以固定的68字节追加到file指定的文件中, 启动时通过内存映射读回内存中的有序索引,
+ * 查询只读内存, 按游标分页, 每页的开销与翻页深度无关. 同一条记录重复送达时只保存一次.
+ * EvidenceContract地址变化后目录清空.
+ */
+public final class EvidenceCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(EvidenceCatalog.class);
+
+    private static final boolean ENABLED = Boolean.parseBoolean(
+        PropertyUtils.getProperty("evidence.catalog.enabled", "false"));
+
+    private static final String FILE =
+        PropertyUtils.getProperty("evidence.catalog.file", "evidence.catalog");
+
+    private static final int MAX_PAGE_SIZE = Integer.parseInt(
+        PropertyUtils.getProperty("evidence.catalog.max-page-size", "1000"));
+
+    private static final AtomicBoolean STARTED = new AtomicBoolean(false);
+
+    private static final AtomicBoolean BACKFILL_RUNNING = new AtomicBoolean(false);
+
+    private static ExecutorService backfillRunner;
+
+    private static BlockBackfill backfill;
+
+    private static volatile ContractEventSubscriber decoder;
+
+    private static volatile EvidenceCatalogFile catalog;
+
+    private EvidenceCatalog() {
+    }
+
+    /**
+     * 目录是否可用.
+     *
+     * @return 已开启且目录文件已打开时返回true
+     */
+    public static boolean isEnabled() {
+        EvidenceCatalogFile current = catalog;
+        return ENABLED && current != null && current.getContractAddress() != null;
+    }
+
+    /**
+     * 开始接收evidence事件, 重复调用只启动一次, 未开启时不做任何事.
+     * EvidenceContract地址确定后才读取目录文件, 地址为空时等待地址变化通知.
+     */
+    public static void start() {
+        if (!ENABLED || !STARTED.compareAndSet(false, true)) {
+            return;
+        }
+        logger.info("[EvidenceCatalog] file: {}, maxPageSize: {}.", FILE, MAX_PAGE_SIZE);
+        backfill = new BlockBackfill("evidence-catalog", EvidenceCatalog::consume);
+        backfillRunner = Executors.newSingleThreadExecutor(
+            new NamedThreadFactory("weid-evidence-backfill"));
+        catalog = new EvidenceCatalogFile(FILE, MAX_PAGE_SIZE, backfill::clearCheckpoint);
+        ContractEventSubscriber.addListener(EvidenceCatalog::onChange);
+        BaseServiceFisco.addAddressChangeListener(
+            snapshot -> onAddressChange(normalize(snapshot.getEvidenceAddress())));
+        ContractAddressSnapshot snapshot = BaseServiceFisco.getAddressSnapshot();
+        onAddressChange(normalize(snapshot != null
+            ? snapshot.getEvidenceAddress() : BaseServiceFisco.fiscoConfig.getEvidenceAddress()));
+    }
+
+    /**
+     * 查询签名者在时间范围内的记录, 按时间戳和hash排序.
+     *
+     * @param signer 签名者地址
+     * @param fromTimestamp 起始时间戳, 包含在内
+     * @param toTimestamp 结束时间戳, 包含在内
+     * @param cursor 上一页返回的nextCursor, 第一页传null
+     * @param pageSize 每页数量, 不超过max-page-size
+     * @return 一页记录
+     */
+    public static EvidenceCatalogPage query(
+        String signer,
+        long fromTimestamp,
+        long toTimestamp,
+        String cursor,
+        int pageSize
+    ) {
+        EvidenceCatalogFile current = catalog;
+        if (current == null) {
+            return new EvidenceCatalogPage();
+        }
+        return current.query(signer, fromTimestamp, toTimestamp, cursor, pageSize);
+    }
+
+    /**
+     * 在后台从指定区块扫描到当前最新区块, 补齐目录中缺少的记录, 同一时间只运行一个.
+     * 上一次补齐的检查点不小于fromBlock时从检查点之后继续.
+     *
+     * @param fromBlock 起始区块
+     * @return true表示已开始, false表示目录不可用或已有补齐任务在运行
+     */
+    public static boolean backfill(long fromBlock) {
+        if (!isEnabled() || !BACKFILL_RUNNING.compareAndSet(false, true)) {
+            return false;
+        }
+        backfillRunner.execute(() -> {
+            try {
+                runBackfill(fromBlock);
+            } finally {
+                BACKFILL_RUNNING.set(false);
+            }
+        });
+        return true;
+    }
+
+    private static void runBackfill(long fromBlock) {
+        try {
+            decoder = ContractEventSubscriber.createDecoder();
+            long toBlock = BaseServiceFisco.getLatestBlockNumber();
+            backfill.run(fromBlock, toBlock);
+            logger.info("[EvidenceCatalog] backfill to block {}, {} records in total.",
+                toBlock, catalog.size());
+        } catch (Exception e) {
+            logger.error("[EvidenceCatalog] backfill stopped, blocks up to {} are indexed.",
+                backfill.getCheckpoint(), e);
+        }
+    }
+
+    private static void consume(long blockNumber, List<Object> receipts) {
+        for (ContractChangeEvent event : decoder.decodeReceipts(blockNumber, receipts)) {
+            onChange(event);
+        }
+    }
+
+    private static void onChange(ContractChangeEvent event) {
+        if ((event.getType() != Type.EVIDENCE_CREATED
+            && event.getType() != Type.EVIDENCE_ATTRIBUTE_CHANGED)
+            || StringUtils.isBlank(event.getSigner())) {
+            return;
+        }
+        try {
+            catalog.add(event.getContractAddress(), normalize(event.getSigner()),
+                event.getTimestamp(), normalize(event.getSubject()), event.getBlockNumber());
+        } catch (Exception e) {
+            logger.warn("[EvidenceCatalog] add {} has error.", event, e);
+        }
+    }
+
+    private static void onAddressChange(String address) {
+        try {
+            catalog.switchTo(address);
+        } catch (IOException e) {
+            logger.error("[EvidenceCatalog] open {} for evidence contract {} has error.",
+                FILE, address, e);
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? StringUtils.EMPTY : value.toLowerCase(Locale.ROOT);
+    }
+}
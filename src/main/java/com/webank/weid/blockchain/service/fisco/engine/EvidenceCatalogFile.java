@@ -0,0 +1,321 @@
+package com.webank.weid.blockchain.service.fisco.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.apache.commons.lang3.StringUtils;
+import org.fisco.bcos.sdk.utils.Numeric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.protocol.base.EvidenceCatalogEntry;
+import com.webank.weid.blockchain.protocol.response.EvidenceCatalogPage;
+
+/**
+ * EvidenceCatalog使用的目录文件和内存中的有序索引.
+ *
+ * <p>记录以固定长度追加到文件末尾, 打开时读回内存并丢弃未写完的记录. 写入由调用方串行执行,
+ * 查询可以在任意线程中同时进行.
+ */
+final class EvidenceCatalogFile implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(EvidenceCatalogFile.class);
+
+    private static final int MAGIC = 0x45564354;
+
+    private static final int VERSION = 1;
+
+    /**
+     * 文件头: magic(4) + version(4) + EvidenceContract地址(20), 补齐到32字节.
+     */
+    static final int HEADER_SIZE = 32;
+
+    private static final int ADDRESS_SIZE = 20;
+
+    private static final int HASH_SIZE = 32;
+
+    /**
+     * 记录: 签名者地址(20) + 时间戳(8) + hash(32) + 区块高度(8).
+     */
+    static final int RECORD_SIZE = ADDRESS_SIZE + 8 + HASH_SIZE + 8;
+
+    /**
+     * 比所有hash都大, 用作查询上界.
+     */
+    private static final String MAX_HASH = "\uffff";
+
+    private final ConcurrentSkipListMap<Key, Long> entries = new ConcurrentSkipListMap<>();
+
+    private final String file;
+
+    private final int maxPageSize;
+
+    /**
+     * 目录被清空时调用, 用于清除补齐的检查点.
+     */
+    private final Runnable onReset;
+
+    private FileChannel channel;
+
+    private long writePosition;
+
+    private volatile String contractAddress;
+
+    /**
+     * 创建目录, 切换到第一个EvidenceContract地址时才打开文件.
+     *
+     * @param file 目录文件
+     * @param maxPageSize 每页最大数量
+     * @param onReset 目录被清空时调用
+     */
+    EvidenceCatalogFile(String file, int maxPageSize, Runnable onReset) {
+        this.file = file;
+        this.maxPageSize = maxPageSize;
+        this.onReset = onReset;
+    }
+
+    /**
+     * 当前的EvidenceContract地址.
+     *
+     * @return 地址, 尚未打开文件时返回null
+     */
+    String getContractAddress() {
+        return contractAddress;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * 切换到EvidenceContract地址, 第一次调用时打开文件, 之后地址变化时清空目录.
+     *
+     * @param address EvidenceContract地址, 小写
+     * @throws IOException 读写文件失败
+     */
+    synchronized void switchTo(String address) throws IOException {
+        if (StringUtils.isBlank(address) || address.equals(contractAddress)) {
+            return;
+        }
+        if (channel == null) {
+            open(address);
+        } else {
+            reset(address);
+        }
+    }
+
+    /**
+     * 添加一条记录, 记录不属于当前EvidenceContract或已存在时忽略.
+     *
+     * @param address 事件所属的EvidenceContract地址
+     * @param signer 签名者地址, 小写
+     * @param timestamp 时间戳
+     * @param hash evidence hash, 小写
+     * @param blockNumber 区块高度
+     * @return true表示已添加
+     * @throws IOException 写入文件失败
+     */
+    synchronized boolean add(String address, String signer, long timestamp, String hash,
+        long blockNumber) throws IOException {
+        Key key = new Key(signer, timestamp, hash);
+        if (!address.equals(contractAddress) || entries.containsKey(key)) {
+            return false;
+        }
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.put(toBytes(key.signer, ADDRESS_SIZE));
+        record.putLong(key.timestamp);
+        record.put(toBytes(key.hash, HASH_SIZE));
+        record.putLong(blockNumber);
+        record.flip();
+        while (record.hasRemaining()) {
+            writePosition += channel.write(record, writePosition);
+        }
+        entries.put(key, blockNumber);
+        return true;
+    }
+
+    /**
+     * 查询签名者在时间范围内的记录, 按时间戳和hash排序.
+     *
+     * @param signer 签名者地址
+     * @param fromTimestamp 起始时间戳, 包含在内
+     * @param toTimestamp 结束时间戳, 包含在内
+     * @param cursor 上一页返回的nextCursor, 第一页传null
+     * @param pageSize 每页数量, 不超过maxPageSize
+     * @return 一页记录
+     */
+    EvidenceCatalogPage query(
+        String signer,
+        long fromTimestamp,
+        long toTimestamp,
+        String cursor,
+        int pageSize
+    ) {
+        String signerAddress = normalize(signer);
+        Key low = new Key(signerAddress, fromTimestamp, StringUtils.EMPTY);
+        boolean lowInclusive = true;
+        if (StringUtils.isNotEmpty(cursor)) {
+            Key after = parseCursor(signerAddress, cursor);
+            if (after.compareTo(low) >= 0) {
+                low = after;
+                lowInclusive = false;
+            }
+        }
+        Key high = new Key(signerAddress, toTimestamp, MAX_HASH);
+        EvidenceCatalogPage page = new EvidenceCatalogPage();
+        if (low.compareTo(high) > 0) {
+            return page;
+        }
+        int limit = Math.max(1, Math.min(pageSize, maxPageSize));
+        for (Map.Entry<Key, Long> entry
+            : entries.subMap(low, lowInclusive, high, true).entrySet()) {
+            if (page.getEntries().size() == limit) {
+                EvidenceCatalogEntry last = page.getEntries().get(limit - 1);
+                page.setNextCursor(last.getTimestamp() + ":" + last.getHash());
+                break;
+            }
+            page.getEntries().add(toEntry(entry.getKey(), entry.getValue()));
+        }
+        return page;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void open(String address) throws IOException {
+        channel = FileChannel.open(Paths.get(file), StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (size < HEADER_SIZE || !matchHeader(address)) {
+            reset(address);
+            return;
+        }
+        long count = (size - HEADER_SIZE) / RECORD_SIZE;
+        // 单次映射不超过2GB, 按整条记录分段读取
+        long chunk = (Integer.MAX_VALUE / RECORD_SIZE) * (long) RECORD_SIZE;
+        long end = HEADER_SIZE + count * RECORD_SIZE;
+        for (long position = HEADER_SIZE; position < end; position += chunk) {
+            MappedByteBuffer buffer = channel.map(
+                MapMode.READ_ONLY, position, Math.min(chunk, end - position));
+            byte[] signer = new byte[ADDRESS_SIZE];
+            byte[] hash = new byte[HASH_SIZE];
+            while (buffer.hasRemaining()) {
+                buffer.get(signer);
+                long timestamp = buffer.getLong();
+                buffer.get(hash);
+                long blockNumber = buffer.getLong();
+                entries.put(new Key(Numeric.toHexString(signer), timestamp,
+                    Numeric.toHexString(hash)), blockNumber);
+            }
+        }
+        // 丢弃进程异常退出时未写完的记录
+        channel.truncate(end);
+        writePosition = end;
+        contractAddress = address;
+        logger.info("[EvidenceCatalog] open {} with {} records.", file, entries.size());
+    }
+
+    private boolean matchHeader(String address) throws IOException {
+        MappedByteBuffer header = channel.map(MapMode.READ_ONLY, 0, HEADER_SIZE);
+        byte[] stored = new byte[ADDRESS_SIZE];
+        int magic = header.getInt();
+        int version = header.getInt();
+        header.get(stored);
+        return magic == MAGIC && version == VERSION
+            && Numeric.toHexString(stored).equals(address);
+    }
+
+    private void reset(String address) throws IOException {
+        entries.clear();
+        onReset.run();
+        channel.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.put(toBytes(address, ADDRESS_SIZE));
+        header.clear();
+        channel.write(header, 0);
+        writePosition = HEADER_SIZE;
+        contractAddress = address;
+        logger.info("[EvidenceCatalog] reset catalog for evidence contract {}.", address);
+    }
+
+    private static Key parseCursor(String signer, String cursor) {
+        int separator = cursor.indexOf(':');
+        if (separator <= 0) {
+            throw new IllegalArgumentException("illegal cursor: " + cursor);
+        }
+        return new Key(signer, Long.parseLong(cursor.substring(0, separator)),
+            cursor.substring(separator + 1));
+    }
+
+    private static EvidenceCatalogEntry toEntry(Key key, Long blockNumber) {
+        EvidenceCatalogEntry entry = new EvidenceCatalogEntry();
+        entry.setHash(key.hash);
+        entry.setSigner(key.signer);
+        entry.setTimestamp(key.timestamp);
+        entry.setBlockNumber(blockNumber);
+        return entry;
+    }
+
+    private static byte[] toBytes(String hex, int size) {
+        byte[] bytes = Numeric.hexStringToByteArray(hex);
+        if (bytes.length != size) {
+            throw new IllegalArgumentException("illegal hex value: " + hex);
+        }
+        return bytes;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? StringUtils.EMPTY : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Key implements Comparable<Key> {
+
+        private final String signer;
+        private final long timestamp;
+        private final String hash;
+
+        private Key(String signer, long timestamp, String hash) {
+            this.signer = signer;
+            this.timestamp = timestamp;
+            this.hash = hash;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int result = signer.compareTo(other.signer);
+            if (result != 0) {
+                return result;
+            }
+            result = Long.compare(timestamp, other.timestamp);
+            if (result != 0) {
+                return result;
+            }
+            return hash.compareTo(other.hash);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && compareTo((Key) o) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return (signer.hashCode() * 31 + Long.hashCode(timestamp)) * 31 + hash.hashCode();
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package com.webank.weid.blockchain.service.fisco.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.constant.ErrorCode;
+import com.webank.weid.blockchain.constant.WeIdConstant;
+import com.webank.weid.blockchain.protocol.base.IssuerType;
+import com.webank.weid.blockchain.protocol.response.ResponseData;
+import com.webank.weid.blockchain.service.fisco.BaseServiceFisco;
+import com.webank.weid.blockchain.util.NamedThreadFactory;
+import com.webank.weid.blockchain.util.PropertyUtils;
+import com.webank.weid.blockchain.util.WeIdUtils;
+
+/**
+ * 发行者注册快照, 一次从链上加载的权威发行者集合和各类型特定发行者集合, 创建后不可修改.
+ *
+ * <p>默认关闭, 通过issuer.snapshot.enabled开启. 开启后后台每隔refresh-seconds查询发行者数量、
+ * 已认证发行者数量、发行者类型数量以及每个类型的发行者数量, 任一数量变化时重新加载快照.
+ * 本进程修改发行者后快照立即作废, 重新加载完成前的查询照常上链.
+ * 其他进程的修改最晚在下一次数量检查后可见; 数量不变的修改(如同时删除和新增一个发行者)不会被检查到,
+ * 因此快照在创建max-age-seconds后同样会重新加载.
+ */
+public final class IssuerRegistrySnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(IssuerRegistrySnapshot.class);
+
+    private static final boolean ENABLED = Boolean.parseBoolean(
+        PropertyUtils.getProperty("issuer.snapshot.enabled", "false"));
+
+    private static final long REFRESH_SECONDS = Long.parseLong(
+        PropertyUtils.getProperty("issuer.snapshot.refresh-seconds", "10"));
+
+    private static final long MAX_AGE_MILLIS = TimeUnit.SECONDS.toMillis(Long.parseLong(
+        PropertyUtils.getProperty("issuer.snapshot.max-age-seconds", "600")));
+
+    private static final int PAGE_SIZE = WeIdConstant.MAX_AUTHORITY_ISSUER_LIST_SIZE;
+
+    private static final AtomicBoolean STARTED = new AtomicBoolean(false);
+
+    /**
+     * 每次作废快照时递增, 加载开始后版本发生变化的快照不再发布.
+     */
+    private static final AtomicLong GENERATION = new AtomicLong();
+
+    private static volatile IssuerRegistrySnapshot current;
+
+    private static ScheduledExecutorService scheduler;
+
+    private static AuthorityIssuerServiceEngine source;
+
+    private static Predicate<String> authorityIssuerChecker;
+
+    static {
+        if (ENABLED) {
+            logger.info("[IssuerRegistrySnapshot] refreshSeconds: {}, maxAgeSeconds: {}.",
+                REFRESH_SECONDS, TimeUnit.MILLISECONDS.toSeconds(MAX_AGE_MILLIS));
+            // 发行者合约地址变化后原有数据不再适用
+            BaseServiceFisco.addAddressChangeListener(snapshot -> invalidate());
+        }
+    }
+
+    private final List<Integer> counts;
+
+    private final Set<String> authorityIssuers;
+
+    private final Map<String, Set<String>> specificIssuers;
+
+    private final long loadTime;
+
+    private IssuerRegistrySnapshot(
+        List<Integer> counts,
+        Set<String> authorityIssuers,
+        Map<String, Set<String>> specificIssuers
+    ) {
+        this(counts, authorityIssuers, specificIssuers, System.currentTimeMillis());
+    }
+
+    private IssuerRegistrySnapshot(
+        List<Integer> counts,
+        Set<String> authorityIssuers,
+        Map<String, Set<String>> specificIssuers,
+        long loadTime
+    ) {
+        this.counts = counts;
+        this.authorityIssuers = authorityIssuers;
+        this.specificIssuers = specificIssuers;
+        this.loadTime = loadTime;
+    }
+
+    /**
+     * 启动后台加载任务, 重复调用只启动一次, 未开启时不做任何事.
+     *
+     * @param engine 用于查询发行者列表的引擎
+     * @param checker 直接查询链上的权威发行者判断, 用于确定列表中的地址是否已认证
+     */
+    public static synchronized void start(
+        AuthorityIssuerServiceEngine engine,
+        Predicate<String> checker
+    ) {
+        if (!ENABLED || !STARTED.compareAndSet(false, true)) {
+            return;
+        }
+        source = engine;
+        authorityIssuerChecker = checker;
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+            new NamedThreadFactory("weid-issuer-snapshot"));
+        scheduler.scheduleWithFixedDelay(
+            IssuerRegistrySnapshot::refresh, 0, Math.max(1L, REFRESH_SECONDS), TimeUnit.SECONDS);
+    }
+
+    /**
+     * 判断地址是否为权威发行者.
+     *
+     * @param address 地址
+     * @return 快照可用时返回判断结果, 否则返回null
+     */
+    public static Boolean isAuthorityIssuer(String address) {
+        IssuerRegistrySnapshot snapshot = current;
+        if (snapshot == null) {
+            return null;
+        }
+        return snapshot.authorityIssuers.contains(normalize(address));
+    }
+
+    /**
+     * 判断地址是否为指定类型的发行者.
+     *
+     * @param issuerType 发行者类型
+     * @param address 地址
+     * @return 快照可用且包含该类型时返回判断结果, 否则返回null
+     */
+    public static Boolean isSpecificTypeIssuer(String issuerType, String address) {
+        IssuerRegistrySnapshot snapshot = current;
+        if (snapshot == null) {
+            return null;
+        }
+        Set<String> issuers = snapshot.specificIssuers.get(issuerType);
+        if (issuers == null) {
+            return null;
+        }
+        return issuers.contains(normalize(address));
+    }
+
+    /**
+     * 作废当前快照并在后台重新加载, 在本进程修改发行者后调用.
+     */
+    public static void invalidate() {
+        if (!ENABLED) {
+            return;
+        }
+        GENERATION.incrementAndGet();
+        current = null;
+        ScheduledExecutorService executor = scheduler;
+        if (executor != null) {
+            executor.execute(IssuerRegistrySnapshot::refresh);
+        }
+    }
+
+    /**
+     * 获取当前快照, 用于写入缓存快照.
+     *
+     * @return 当前快照, 未开启或尚未加载时返回null
+     */
+    static IssuerRegistrySnapshot current() {
+        return current;
+    }
+
+    /**
+     * 获取快照版本, 恢复缓存快照前记录, 恢复时版本已变化说明期间快照被作废过.
+     *
+     * @return 版本
+     */
+    static long generation() {
+        return GENERATION.get();
+    }
+
+    /**
+     * 发布从缓存快照恢复的快照, 已有快照或版本已变化时不发布.
+     * 恢复的快照保留原来的加载时间, 下一次数量检查照常进行.
+     *
+     * @param counts 加载时的各项数量
+     * @param authorityIssuers 权威发行者地址
+     * @param specificIssuers 发行者类型到发行者地址
+     * @param loadTime 原来的加载时间
+     * @param generation 恢复开始前通过generation获取的版本
+     */
+    static synchronized void restore(
+        List<Integer> counts,
+        Set<String> authorityIssuers,
+        Map<String, Set<String>> specificIssuers,
+        long loadTime,
+        long generation
+    ) {
+        if (!ENABLED || current != null || generation != GENERATION.get()) {
+            return;
+        }
+        Map<String, Set<String>> issuers = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : specificIssuers.entrySet()) {
+            issuers.put(entry.getKey(), Collections.unmodifiableSet(entry.getValue()));
+        }
+        current = new IssuerRegistrySnapshot(
+            Collections.unmodifiableList(counts),
+            Collections.unmodifiableSet(authorityIssuers),
+            Collections.unmodifiableMap(issuers),
+            loadTime
+        );
+    }
+
+    List<Integer> getCounts() {
+        return counts;
+    }
+
+    Set<String> getAuthorityIssuers() {
+        return authorityIssuers;
+    }
+
+    Map<String, Set<String>> getSpecificIssuers() {
+        return specificIssuers;
+    }
+
+    long getLoadTime() {
+        return loadTime;
+    }
+
+    private static void refresh() {
+        long generation = GENERATION.get();
+        try {
+            IssuerRegistrySnapshot snapshot = current;
+            List<Integer> counts = queryCounts();
+            if (counts == null) {
+                return;
+            }
+            if (snapshot != null && snapshot.counts.equals(counts)
+                && System.currentTimeMillis() - snapshot.loadTime < MAX_AGE_MILLIS) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            IssuerRegistrySnapshot next = load(counts);
+            if (next == null) {
+                return;
+            }
+            synchronized (IssuerRegistrySnapshot.class) {
+                if (generation != GENERATION.get()) {
+                    logger.info("[IssuerRegistrySnapshot] invalidated during loading, discard.");
+                    return;
+                }
+                current = next;
+            }
+            logger.info("[IssuerRegistrySnapshot] load {} authority issuers and {} issuer types "
+                    + "in {} ms.", next.authorityIssuers.size(), next.specificIssuers.size(),
+                System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("[IssuerRegistrySnapshot] refresh snapshot has error.", e);
+        }
+    }
+
+    /**
+     * 查询用于判断变化的数量: 发行者数量, 已认证发行者数量, 类型数量, 以及每个类型的发行者数量.
+     */
+    private static List<Integer> queryCounts() {
+        List<Integer> counts = new ArrayList<>();
+        ResponseData<Integer> issuerCount = source.getIssuerCount();
+        ResponseData<Integer> recognizedCount = source.getRecognizedIssuerCount();
+        ResponseData<Integer> typeCount = source.getIssuerTypeCount();
+        if (!isSuccess(issuerCount) || !isSuccess(recognizedCount) || !isSuccess(typeCount)) {
+            logger.warn("[IssuerRegistrySnapshot] query issuer count failed.");
+            return null;
+        }
+        counts.add(issuerCount.getResult());
+        counts.add(recognizedCount.getResult());
+        counts.add(typeCount.getResult());
+        List<String> types = queryIssuerTypes(typeCount.getResult());
+        if (types == null) {
+            return null;
+        }
+        for (String type : types) {
+            ResponseData<Integer> size = source.getSpecificTypeIssuerSize(type);
+            if (!isSuccess(size)) {
+                logger.warn("[IssuerRegistrySnapshot] query issuer size of type {} failed.", type);
+                return null;
+            }
+            counts.add(size.getResult());
+        }
+        return counts;
+    }
+
+    private static IssuerRegistrySnapshot load(List<Integer> counts) {
+        Set<String> authorityIssuers = new HashSet<>();
+        int issuerCount = counts.get(0);
+        for (int index = 0; index < issuerCount; index += PAGE_SIZE) {
+            List<String> page = source.getAuthorityIssuerAddressList(index, PAGE_SIZE);
+            if (page == null || page.isEmpty()) {
+                // 查询失败时返回空列表, 不能据此认为后面没有发行者
+                logger.warn("[IssuerRegistrySnapshot] query authority issuers from {} failed.",
+                    index);
+                return null;
+            }
+            for (String address : page) {
+                // 列表中包含未认证的发行者, 以链上判断为准
+                if (!WeIdUtils.isEmptyStringAddress(address)
+                    && authorityIssuerChecker.test(address)) {
+                    authorityIssuers.add(normalize(address));
+                }
+            }
+        }
+
+        List<String> types = queryIssuerTypes(counts.get(2));
+        if (types == null) {
+            return null;
+        }
+        Map<String, Set<String>> specificIssuers = new HashMap<>();
+        for (String type : types) {
+            ResponseData<Integer> size = source.getSpecificTypeIssuerSize(type);
+            if (!isSuccess(size)) {
+                return null;
+            }
+            Set<String> issuers = new HashSet<>();
+            for (int index = 0; index < size.getResult(); index += PAGE_SIZE) {
+                ResponseData<List<String>> page =
+                    source.getSpecificTypeIssuerList(type, index, PAGE_SIZE);
+                if (!isSuccess(page) || page.getResult() == null) {
+                    logger.warn("[IssuerRegistrySnapshot] query issuers of type {} failed.", type);
+                    return null;
+                }
+                for (String address : page.getResult()) {
+                    issuers.add(normalize(address));
+                }
+            }
+            specificIssuers.put(type, Collections.unmodifiableSet(issuers));
+        }
+        return new IssuerRegistrySnapshot(
+            Collections.unmodifiableList(counts),
+            Collections.unmodifiableSet(authorityIssuers),
+            Collections.unmodifiableMap(specificIssuers)
+        );
+    }
+
+    private static List<String> queryIssuerTypes(int typeCount) {
+        List<String> types = new ArrayList<>();
+        for (int index = 0; index < typeCount; index += PAGE_SIZE) {
+            ResponseData<List<IssuerType>> page = source.getIssuerTypeList(index, PAGE_SIZE);
+            if (!isSuccess(page)) {
+                logger.warn("[IssuerRegistrySnapshot] query issuer type list failed.");
+                return null;
+            }
+            for (IssuerType issuerType : page.getResult()) {
+                types.add(issuerType.getTypeName());
+            }
+        }
+        return types;
+    }
+
+    private static boolean isSuccess(ResponseData<?> response) {
+        return response != null
+            && response.getErrorCode() != null
+            && response.getErrorCode().intValue() == ErrorCode.SUCCESS.getCode();
+    }
+
+    private static String normalize(String address) {
+        return address == null ? "" : address.toLowerCase(Locale.ROOT);
+    }
+}
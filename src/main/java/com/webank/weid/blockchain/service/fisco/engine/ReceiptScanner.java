@@ -0,0 +1,81 @@
+package com.webank.weid.blockchain.service.fisco.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.util.NamedThreadFactory;
+import com.webank.weid.blockchain.util.PropertyUtils;
+
+/**
+ * 交易回执并发扫描, 在同一个区块的交易中查找按交易顺序第一个满足条件的回执.
+ *
+ * <p>所有扫描共用一个固定大小的线程池, 同时查询的回执数量不超过receipt.scan.concurrency;
+ * 找到结果后, 排在该交易之后且尚未开始的查询直接跳过.
+ */
+public final class ReceiptScanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReceiptScanner.class);
+
+    private static final int CONCURRENCY = Integer.parseInt(
+        PropertyUtils.getProperty("receipt.scan.concurrency", "8"));
+
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+        CONCURRENCY, new NamedThreadFactory("weid-receipt-scan"));
+
+    private ReceiptScanner() {
+    }
+
+    /**
+     * 并发查询交易回执, 返回交易顺序最靠前的非null结果, 与逐笔顺序扫描的结果一致.
+     *
+     * @param transHashes 交易哈希列表, 按区块中的交易顺序排列
+     * @param matcher 根据交易哈希查询回执并提取结果, 不满足条件时返回null
+     * @param <R> 结果类型
+     * @return 结果, 所有交易都不满足条件时返回null
+     */
+    public static <R> R findFirst(List<String> transHashes, Function<String, R> matcher) {
+        int size = transHashes.size();
+        AtomicReferenceArray<R> results = new AtomicReferenceArray<>(size);
+        AtomicReferenceArray<RuntimeException> errors = new AtomicReferenceArray<>(size);
+        AtomicInteger firstIndex = new AtomicInteger(size);
+        List<CompletableFuture<Void>> tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int index = i;
+            tasks.add(CompletableFuture.runAsync(() -> {
+                if (index > firstIndex.get()) {
+                    return;
+                }
+                try {
+                    R result = matcher.apply(transHashes.get(index));
+                    if (result != null) {
+                        results.set(index, result);
+                        firstIndex.accumulateAndGet(index, Math::min);
+                    }
+                } catch (RuntimeException e) {
+                    errors.set(index, e);
+                }
+            }, EXECUTOR));
+        }
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+        int first = firstIndex.get();
+        // 排在结果之前的交易查询失败时, 无法确定结果是否为第一个
+        for (int i = 0; i < first && i < size; i++) {
+            if (errors.get(i) != null) {
+                throw errors.get(i);
+            }
+        }
+        R result = first < size ? results.get(first) : null;
+        logger.debug("[findFirst] scan {} transactions, found at index: {}.",
+            size, result != null ? first : -1);
+        return result;
+    }
+}
@@ -0,0 +1,207 @@
+package com.webank.weid.blockchain.service.fisco.engine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.protocol.base.AuthenticationProperty;
+import com.webank.weid.blockchain.protocol.base.ServiceProperty;
+import com.webank.weid.blockchain.protocol.base.WeIdDocument;
+import com.webank.weid.blockchain.protocol.base.WeIdDocumentMetadata;
+import com.webank.weid.blockchain.util.PropertyUtils;
+
+/**
+ * WeIdDocument读缓存, 按WeID地址缓存一次resolve得到的document和metadata.
+ *
+ * <p>默认关闭, 通过weid.document.cache.enabled开启. 条目写入后最多保留max-staleness-seconds,
+ * 本进程调用updateWeId/deactivateWeId后立即失效; 其他进程对同一WeID的修改最晚在该时间后可见.
+ * 缓存中的对象不会直接返回给调用方, 每次命中都返回副本.
+ */
+public final class WeIdDocumentCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(WeIdDocumentCache.class);
+
+    private static final boolean ENABLED = Boolean.parseBoolean(
+        PropertyUtils.getProperty("weid.document.cache.enabled", "false"));
+
+    private static final long MAX_SIZE = Long.parseLong(
+        PropertyUtils.getProperty("weid.document.cache.max-size", "10000"));
+
+    private static final long MAX_STALENESS_SECONDS = Long.parseLong(
+        PropertyUtils.getProperty("weid.document.cache.max-staleness-seconds", "30"));
+
+    private static final Cache<String, Entry> CACHE = Caffeine.newBuilder()
+        .maximumSize(MAX_SIZE)
+        .expireAfterWrite(MAX_STALENESS_SECONDS, TimeUnit.SECONDS)
+        .recordStats()
+        .build();
+
+    static {
+        logger.info("[WeIdDocumentCache] enabled: {}, maxSize: {}, maxStalenessSeconds: {}.",
+            ENABLED, MAX_SIZE, MAX_STALENESS_SECONDS);
+    }
+
+    private WeIdDocumentCache() {
+    }
+
+    /**
+     * 缓存是否开启.
+     *
+     * @return 开启返回true
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * 获取缓存的解析结果.
+     *
+     * @param weAddress WeID地址
+     * @return 缓存条目, 未命中或未开启时返回null
+     */
+    public static Entry get(String weAddress) {
+        if (!ENABLED) {
+            return null;
+        }
+        return CACHE.getIfPresent(normalize(weAddress));
+    }
+
+    /**
+     * 放入解析结果, 调用方之后不应再修改传入的对象.
+     *
+     * @param weAddress WeID地址
+     * @param document WeIdDocument
+     * @param metadata WeIdDocumentMetadata
+     * @return 缓存条目, 未开启缓存时同样返回, 只是不放入缓存
+     */
+    public static Entry put(String weAddress, WeIdDocument document, WeIdDocumentMetadata metadata) {
+        Entry entry = new Entry(document, metadata);
+        if (ENABLED) {
+            CACHE.put(normalize(weAddress), entry);
+        }
+        return entry;
+    }
+
+    /**
+     * 使WeID的缓存失效, 在本进程修改WeID后调用.
+     *
+     * @param weAddress WeID地址
+     */
+    public static void invalidate(String weAddress) {
+        if (ENABLED) {
+            CACHE.invalidate(normalize(weAddress));
+        }
+    }
+
+    /**
+     * 清除所有缓存.
+     */
+    public static void invalidateAll() {
+        CACHE.invalidateAll();
+    }
+
+    /**
+     * 获取当前所有条目, 用于写入缓存快照.
+     *
+     * @return WeID地址到缓存条目, 未开启时为空
+     */
+    static Map<String, Entry> entries() {
+        return ENABLED ? new HashMap<>(CACHE.asMap()) : new HashMap<>();
+    }
+
+    /**
+     * 放入从缓存快照恢复的条目, 已有条目时保留已有的.
+     *
+     * @param weAddress WeID地址
+     * @param document WeIdDocument
+     * @param metadata WeIdDocumentMetadata
+     */
+    static void restore(String weAddress, WeIdDocument document, WeIdDocumentMetadata metadata) {
+        if (ENABLED) {
+            CACHE.asMap().putIfAbsent(normalize(weAddress), new Entry(document, metadata));
+        }
+    }
+
+    /**
+     * 获取缓存统计信息, hitRate即命中率.
+     *
+     * @return 统计信息
+     */
+    public static CacheStats stats() {
+        return CACHE.stats();
+    }
+
+    private static String normalize(String weAddress) {
+        // 合约事件中的地址是小写, 统一后才能按事件失效
+        return weAddress == null ? "" : weAddress.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 缓存条目, 一次resolve的document和metadata.
+     */
+    public static final class Entry {
+
+        private final WeIdDocument document;
+        private final WeIdDocumentMetadata metadata;
+
+        private Entry(WeIdDocument document, WeIdDocumentMetadata metadata) {
+            this.document = document;
+            this.metadata = metadata;
+        }
+
+        /**
+         * 获取document副本.
+         *
+         * @param weId 调用方查询时使用的WeID, 作为副本的id
+         * @return WeIdDocument副本
+         */
+        public WeIdDocument copyDocument(String weId) {
+            WeIdDocument copy = new WeIdDocument();
+            copy.setId(weId);
+            List<AuthenticationProperty> authentications =
+                new ArrayList<>(document.getAuthentication().size());
+            for (AuthenticationProperty source : document.getAuthentication()) {
+                AuthenticationProperty target = new AuthenticationProperty();
+                target.setId(source.getId());
+                target.setType(source.getType());
+                target.setController(source.getController());
+                target.setPublicKeyMultibase(source.getPublicKeyMultibase());
+                authentications.add(target);
+            }
+            copy.setAuthentication(authentications);
+            List<ServiceProperty> services = new ArrayList<>(document.getService().size());
+            for (ServiceProperty source : document.getService()) {
+                ServiceProperty target = new ServiceProperty();
+                target.setId(source.getId());
+                target.setType(source.getType());
+                target.setServiceEndpoint(source.getServiceEndpoint());
+                services.add(target);
+            }
+            copy.setService(services);
+            return copy;
+        }
+
+        /**
+         * 获取metadata副本.
+         *
+         * @return WeIdDocumentMetadata副本
+         */
+        public WeIdDocumentMetadata copyMetadata() {
+            WeIdDocumentMetadata copy = new WeIdDocumentMetadata();
+            copy.setCreated(metadata.getCreated());
+            copy.setUpdated(metadata.getUpdated());
+            copy.setDeactivated(metadata.isDeactivated());
+            copy.setVersionId(metadata.getVersionId());
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.webank.weid.blockchain.service.fisco.engine;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.constant.ErrorCode;
+import com.webank.weid.blockchain.protocol.response.ResponseData;
+import com.webank.weid.blockchain.service.fisco.BaseServiceFisco;
+import com.webank.weid.blockchain.util.NamedThreadFactory;
+import com.webank.weid.blockchain.util.PropertyUtils;
+import com.webank.weid.blockchain.util.WeIdUtils;
+
+/**
+ * WeID存在性过滤器, 用布隆过滤器记录链上已存在的WeID地址, 用于快速判断WeID不存在.
+ *
+ * <p>默认关闭, 通过weid.existence.filter.enabled开启. 开启后在后台按getWeIdCount/getWeIdList
+ * 分页加载全部WeID, 之后每隔scan-seconds只加载新增的WeID; 本进程创建的WeID立即加入过滤器.
+ * 加载完成前过滤器不做判断, 所有查询照常上链. 过滤器只会误判"可能存在", 不会漏掉已加载的WeID;
+ * 其他进程创建的WeID最晚在下一次增量加载后可见, 因此只用于isWeIdExist和isDeactivated,
+ * 解析document和metadata不经过过滤器.
+ *
+ * <p>过滤器占用内存由memory-bytes限定, 结合目标误判率false-positive-rate计算可容纳的WeID数量,
+ * 超出后误判率会逐渐升高, 但结果仍然正确.
+ */
+public final class WeIdExistenceFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(WeIdExistenceFilter.class);
+
+    private static final boolean ENABLED = Boolean.parseBoolean(
+        PropertyUtils.getProperty("weid.existence.filter.enabled", "false"));
+
+    private static final long MEMORY_BYTES = Long.parseLong(
+        PropertyUtils.getProperty("weid.existence.filter.memory-bytes", "8388608"));
+
+    private static final double FALSE_POSITIVE_RATE = Double.parseDouble(
+        PropertyUtils.getProperty("weid.existence.filter.false-positive-rate", "0.001"));
+
+    private static final long SCAN_SECONDS = Long.parseLong(
+        PropertyUtils.getProperty("weid.existence.filter.scan-seconds", "60"));
+
+    private static final int PAGE_SIZE = Integer.parseInt(
+        PropertyUtils.getProperty("weid.existence.filter.page-size", "500"));
+
+    /**
+     * 按内存和误判率计算的容量: n = -m * (ln2)^2 / ln(p), m为比特数.
+     */
+    private static final long CAPACITY = Math.max(1L, (long) (MEMORY_BYTES * 8
+        * Math.log(2) * Math.log(2) / -Math.log(FALSE_POSITIVE_RATE)));
+
+    private static final AtomicBoolean STARTED = new AtomicBoolean(false);
+
+    private static volatile FilterState state = ENABLED ? new FilterState() : null;
+
+    static {
+        if (ENABLED) {
+            logger.info("[WeIdExistenceFilter] memoryBytes: {}, falsePositiveRate: {}, "
+                    + "capacity: {}, scanSeconds: {}.",
+                MEMORY_BYTES, FALSE_POSITIVE_RATE, CAPACITY, SCAN_SECONDS);
+            // WeIdContract地址变化后原有数据不再适用, 清空后重新加载
+            BaseServiceFisco.addAddressChangeListener(snapshot -> reset());
+        }
+    }
+
+    private WeIdExistenceFilter() {
+    }
+
+    /**
+     * 过滤器是否开启.
+     *
+     * @return 开启返回true
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * 启动后台加载任务, 重复调用只启动一次, 未开启时不做任何事.
+     *
+     * @param source 用于查询WeID列表的引擎
+     */
+    public static void start(WeIdServiceEngineFisco source) {
+        if (!ENABLED || !STARTED.compareAndSet(false, true)) {
+            return;
+        }
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            new NamedThreadFactory("weid-existence-filter"));
+        scheduler.scheduleWithFixedDelay(
+            () -> scan(source), 0, Math.max(1L, SCAN_SECONDS), TimeUnit.SECONDS);
+    }
+
+    /**
+     * 判断WeID地址是否可能存在.
+     *
+     * @param weAddress WeID地址
+     * @return 返回false时WeID一定不存在; 未开启或尚未加载完成时总是返回true
+     */
+    public static boolean mightExist(String weAddress) {
+        FilterState current = state;
+        if (!ENABLED || !current.seeded) {
+            return true;
+        }
+        return current.filter.mightContain(normalize(weAddress));
+    }
+
+    /**
+     * 记录已存在的WeID地址, 在本进程创建WeID或链上确认WeID存在后调用.
+     *
+     * @param weAddress WeID地址
+     */
+    public static void put(String weAddress) {
+        if (ENABLED) {
+            state.filter.put(normalize(weAddress));
+        }
+    }
+
+    /**
+     * 清空过滤器, 后台任务会重新全量加载.
+     */
+    public static void reset() {
+        if (!ENABLED) {
+            return;
+        }
+        state = new FilterState();
+        logger.info("[WeIdExistenceFilter] reset, the filter will be reloaded.");
+    }
+
+    private static void scan(WeIdServiceEngineFisco source) {
+        FilterState current = state;
+        try {
+            ResponseData<Integer> countResp = source.getWeIdCount();
+            if (countResp.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+                logger.warn("[WeIdExistenceFilter] get weId count failed, errorCode: {}.",
+                    countResp.getErrorCode());
+                return;
+            }
+            int count = countResp.getResult();
+            long start = System.currentTimeMillis();
+            while (current.scanned < count && current == state) {
+                int last = Math.min(current.scanned + PAGE_SIZE, count) - 1;
+                ResponseData<List<String>> page = source.getWeIdList(current.scanned, last);
+                if (page.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()
+                    || page.getResult() == null) {
+                    logger.warn("[WeIdExistenceFilter] get weId list [{}, {}] failed, "
+                        + "errorCode: {}.", current.scanned, last, page.getErrorCode());
+                    return;
+                }
+                for (String weId : page.getResult()) {
+                    current.filter.put(normalize(WeIdUtils.convertWeIdToAddress(weId)));
+                }
+                current.scanned = last + 1;
+            }
+            if (current != state) {
+                return;
+            }
+            if (!current.seeded) {
+                current.seeded = true;
+                logger.info("[WeIdExistenceFilter] load {} weIds in {} ms.",
+                    count, System.currentTimeMillis() - start);
+            }
+            if (count > CAPACITY && !current.saturationLogged) {
+                current.saturationLogged = true;
+                logger.warn("[WeIdExistenceFilter] weId count {} exceeds the capacity {}, "
+                    + "increase weid.existence.filter.memory-bytes.", count, CAPACITY);
+            }
+        } catch (Exception e) {
+            logger.error("[WeIdExistenceFilter] scan weId list has error.", e);
+        }
+    }
+
+    private static String normalize(String weAddress) {
+        return weAddress == null ? "" : weAddress.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class FilterState {
+
+        private final BloomFilter<CharSequence> filter = BloomFilter.create(
+            Funnels.stringFunnel(StandardCharsets.UTF_8), CAPACITY, FALSE_POSITIVE_RATE);
+
+        /**
+         * 已加载的WeID数量, 只由后台任务读写.
+         */
+        private int scanned;
+
+        private volatile boolean seeded;
+
+        private boolean saturationLogged;
+    }
+}
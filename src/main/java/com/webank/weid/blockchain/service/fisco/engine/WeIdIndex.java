@@ -0,0 +1,232 @@
+package com.webank.weid.blockchain.service.fisco.engine;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.service.fisco.BaseServiceFisco;
+import com.webank.weid.blockchain.service.fisco.engine.ContractChangeEvent.Type;
+import com.webank.weid.blockchain.util.NamedThreadFactory;
+import com.webank.weid.blockchain.util.PropertyUtils;
+
+/**
+ * 本地WeID索引, 按WeIdContract中的顺序保存全部WeID地址, 用于getWeIdList和getWeIdCount.
+ *
+ * <p>默认关闭, 通过weid.index.enabled开启. 索引保存在file指定的文件中, 文件头之后每个WeID地址占固定的20字节,
+ * 第i个地址的位置可以直接计算, 文件通过内存映射读取, 查询不访问链. 新的WeID只追加到文件末尾,
+ * 文件头中的数量在地址写入后才更新, 因此进程异常退出后重启仍可继续使用已写入的部分.
+ *
+ * <p>第一次启动时用scan-threads个线程按page-size并行分页查询链上的WeID列表, 按顺序写入文件;
+ * 之后每隔sync-seconds只查询新增的部分. 开启event.subscribe时收到CreateWeId事件会立即同步.
+ * 索引完成第一次同步前不提供查询; 超出索引范围的查询仍然上链, getWeIdCount最多落后一次同步.
+ * WeIdContract地址变化后索引清空并重新建立.
+ */
+public final class WeIdIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(WeIdIndex.class);
+
+    private static final boolean ENABLED = Boolean.parseBoolean(
+        PropertyUtils.getProperty("weid.index.enabled", "false"));
+
+    private static final String FILE =
+        PropertyUtils.getProperty("weid.index.file", "weid.index");
+
+    private static final int SCAN_THREADS = Integer.parseInt(
+        PropertyUtils.getProperty("weid.index.scan-threads", "4"));
+
+    private static final int PAGE_SIZE = Integer.parseInt(
+        PropertyUtils.getProperty("weid.index.page-size", "500"));
+
+    private static final long SYNC_SECONDS = Long.parseLong(
+        PropertyUtils.getProperty("weid.index.sync-seconds", "60"));
+
+    private static final AtomicBoolean STARTED = new AtomicBoolean(false);
+
+    /**
+     * 已有一次等待执行的同步时, 不再重复提交.
+     */
+    private static final AtomicBoolean SYNC_PENDING = new AtomicBoolean(false);
+
+    private static ScheduledExecutorService scheduler;
+
+    private static ExecutorService scanExecutor;
+
+    private static volatile WeIdIndexFile index;
+
+    private static volatile boolean synced;
+
+    private WeIdIndex() {
+    }
+
+    /**
+     * 查询链上WeID列表的数据源.
+     */
+    public interface Source {
+
+        /**
+         * 查询链上的WeID数量.
+         *
+         * @return WeID数量
+         * @throws Exception 查询失败
+         */
+        int getCount() throws Exception;
+
+        /**
+         * 查询链上的WeID地址列表.
+         *
+         * @param first 起始下标
+         * @param last 结束下标, 包含在内
+         * @return WeID地址列表
+         * @throws Exception 查询失败
+         */
+        List<String> getAddressList(int first, int last) throws Exception;
+    }
+
+    /**
+     * 启动后台同步任务, 重复调用只启动一次, 未开启时不做任何事.
+     *
+     * @param source 用于查询链上WeID列表的数据源
+     */
+    public static void start(Source source) {
+        if (!ENABLED || !STARTED.compareAndSet(false, true)) {
+            return;
+        }
+        logger.info("[WeIdIndex] file: {}, scanThreads: {}, pageSize: {}, syncSeconds: {}.",
+            FILE, SCAN_THREADS, PAGE_SIZE, SYNC_SECONDS);
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+            new NamedThreadFactory("weid-index"));
+        scanExecutor = Executors.newFixedThreadPool(
+            Math.max(1, SCAN_THREADS), new NamedThreadFactory("weid-index-scan"));
+        ContractEventSubscriber.addListener(event -> {
+            if (event.getType() == Type.WEID_CREATED) {
+                requestSync(source);
+            }
+        });
+        BaseServiceFisco.addAddressChangeListener(snapshot -> requestSync(source));
+        scheduler.scheduleWithFixedDelay(
+            () -> sync(source), 0, Math.max(1L, SYNC_SECONDS), TimeUnit.SECONDS);
+    }
+
+    /**
+     * 获取索引中的WeID数量.
+     *
+     * @return WeID数量, 未开启或尚未完成第一次同步时返回-1
+     */
+    public static int getCount() {
+        WeIdIndexFile current = index;
+        if (!synced || current == null) {
+            return -1;
+        }
+        return current.getCount();
+    }
+
+    /**
+     * 从索引中获取WeID地址列表.
+     *
+     * @param first 起始下标
+     * @param last 结束下标, 包含在内
+     * @return WeID地址列表, 未开启, 尚未完成第一次同步或超出索引范围时返回null
+     */
+    public static List<String> getAddressList(int first, int last) {
+        WeIdIndexFile current = index;
+        if (!synced || current == null || first < 0 || first > last) {
+            return null;
+        }
+        return current.read(first, last);
+    }
+
+    private static void requestSync(Source source) {
+        if (SYNC_PENDING.compareAndSet(false, true)) {
+            scheduler.execute(() -> {
+                SYNC_PENDING.set(false);
+                sync(source);
+            });
+        }
+    }
+
+    private static void sync(Source source) {
+        try {
+            String contractAddress = normalize(BaseServiceFisco.fiscoConfig.getWeIdAddress());
+            if (StringUtils.isBlank(contractAddress)) {
+                return;
+            }
+            WeIdIndexFile current = index;
+            if (current == null) {
+                current = WeIdIndexFile.open(FILE, contractAddress);
+                index = current;
+            } else if (!current.getContractAddress().equals(contractAddress)) {
+                synced = false;
+                current.reset(contractAddress);
+            }
+            int chainCount = source.getCount();
+            if (chainCount < current.getCount()) {
+                logger.warn("[WeIdIndex] weId count on chain {} is less than the index {}, "
+                    + "rebuild.", chainCount, current.getCount());
+                synced = false;
+                current.reset(contractAddress);
+            }
+            long start = System.currentTimeMillis();
+            int loaded = current.getCount();
+            while (current.getCount() < chainCount) {
+                if (!scan(source, current, chainCount)) {
+                    return;
+                }
+            }
+            if (!synced) {
+                synced = true;
+                int count = current.getCount();
+                logger.info("[WeIdIndex] index {} weIds, {} loaded in {} ms.",
+                    count, count - loaded, System.currentTimeMillis() - start);
+            }
+        } catch (Exception e) {
+            logger.error("[WeIdIndex] sync weId index has error.", e);
+        }
+    }
+
+    /**
+     * 并行查询最多scan-threads页, 按顺序写入索引, 遇到失败的页时停止.
+     */
+    private static boolean scan(Source source, WeIdIndexFile current, int chainCount) {
+        List<Future<List<String>>> pages = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        int first = current.getCount();
+        for (int i = 0; i < Math.max(1, SCAN_THREADS) && first < chainCount; i++) {
+            int pageFirst = first;
+            int pageLast = Math.min(pageFirst + PAGE_SIZE, chainCount) - 1;
+            pages.add(scanExecutor.submit(() -> source.getAddressList(pageFirst, pageLast)));
+            pageSizes.add(pageLast - pageFirst + 1);
+            first = pageLast + 1;
+        }
+        for (int i = 0; i < pages.size(); i++) {
+            try {
+                List<String> addresses = pages.get(i).get();
+                if (addresses == null || addresses.size() != pageSizes.get(i)) {
+                    throw new IOException("unexpected size of weId list.");
+                }
+                current.append(addresses);
+            } catch (Exception e) {
+                logger.warn("[WeIdIndex] get weId list from {} failed.", current.getCount(), e);
+                for (Future<List<String>> other : pages) {
+                    other.cancel(true);
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String normalize(String address) {
+        return address == null ? StringUtils.EMPTY : address.toLowerCase(Locale.ROOT);
+    }
+}
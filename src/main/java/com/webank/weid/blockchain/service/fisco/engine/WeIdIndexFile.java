@@ -0,0 +1,187 @@
+package com.webank.weid.blockchain.service.fisco.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.fisco.bcos.sdk.utils.Numeric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * WeIdIndex使用的索引文件, 只由同步线程写入, 查询线程通过内存映射读取.
+ *
+ * <p>文件头之后每个WeID地址占固定的20字节, 文件头中的数量在地址写入后才更新,
+ * 打开时以文件实际长度为上限, 文件尾部被截断时只保留完整的地址.
+ */
+final class WeIdIndexFile implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WeIdIndexFile.class);
+
+    private static final int MAGIC = 0x57494458;
+
+    private static final int VERSION = 1;
+
+    /**
+     * 文件头: magic(4) + version(4) + WeIdContract地址(20) + WeID数量(8), 补齐到64字节.
+     */
+    static final int HEADER_SIZE = 64;
+
+    static final int COUNT_OFFSET = 28;
+
+    static final int ADDRESS_SIZE = 20;
+
+    private static final int MIN_CAPACITY = 65536;
+
+    private static final int MAX_CAPACITY = (Integer.MAX_VALUE - HEADER_SIZE) / ADDRESS_SIZE;
+
+    private final FileChannel channel;
+
+    private volatile MappedByteBuffer buffer;
+
+    private volatile int count;
+
+    /**
+     * 每次清空索引后加一, 读取前后不一致时说明读取过程中索引被清空.
+     */
+    private volatile int generation;
+
+    private String contractAddress;
+
+    private WeIdIndexFile(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * 打开索引文件, 文件不存在或属于其他WeIdContract时清空.
+     *
+     * @param file 索引文件
+     * @param contractAddress WeIdContract地址, 小写
+     * @return 索引文件
+     * @throws IOException 读写文件失败
+     */
+    static WeIdIndexFile open(String file, String contractAddress) throws IOException {
+        FileChannel channel = new RandomAccessFile(file, "rw").getChannel();
+        WeIdIndexFile indexFile = new WeIdIndexFile(channel);
+        long size = channel.size();
+        int stored = 0;
+        if (size >= HEADER_SIZE) {
+            MappedByteBuffer header = channel.map(MapMode.READ_ONLY, 0, HEADER_SIZE);
+            byte[] address = new byte[ADDRESS_SIZE];
+            int magic = header.getInt();
+            int version = header.getInt();
+            header.get(address);
+            long headerCount = header.getLong();
+            if (magic == MAGIC && version == VERSION
+                && Numeric.toHexString(address).equals(contractAddress)) {
+                // 以文件实际长度为上限, 防止文件被截断
+                stored = (int) Math.min(headerCount, (size - HEADER_SIZE) / ADDRESS_SIZE);
+            } else {
+                stored = -1;
+            }
+        }
+        indexFile.remap(Math.max(stored, 0));
+        if (stored < 0 || size < HEADER_SIZE) {
+            indexFile.reset(contractAddress);
+        } else {
+            indexFile.contractAddress = contractAddress;
+            indexFile.count = stored;
+            // 截断后文件头中的数量可能偏大, 以实际保留的数量为准
+            indexFile.buffer.putLong(COUNT_OFFSET, stored);
+            indexFile.buffer.force();
+            logger.info("[WeIdIndex] open {} with {} weIds.", file, stored);
+        }
+        return indexFile;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    String getContractAddress() {
+        return contractAddress;
+    }
+
+    /**
+     * 读取索引中的地址.
+     *
+     * @param first 起始下标
+     * @param last 结束下标, 包含在内
+     * @return 地址列表, 超出索引范围或读取过程中索引被清空时返回null
+     */
+    List<String> read(int first, int last) {
+        int gen = generation;
+        if (last >= count) {
+            return null;
+        }
+        ByteBuffer view = buffer.duplicate();
+        view.position(HEADER_SIZE + first * ADDRESS_SIZE);
+        List<String> result = new ArrayList<>(last - first + 1);
+        byte[] address = new byte[ADDRESS_SIZE];
+        for (int i = first; i <= last; i++) {
+            view.get(address);
+            result.add(Numeric.toHexString(address));
+        }
+        return gen == generation ? result : null;
+    }
+
+    void append(List<String> addresses) throws IOException {
+        int total = count + addresses.size();
+        if (HEADER_SIZE + (long) total * ADDRESS_SIZE > buffer.capacity()) {
+            remap(total);
+        }
+        ByteBuffer view = buffer.duplicate();
+        view.position(HEADER_SIZE + count * ADDRESS_SIZE);
+        for (String address : addresses) {
+            view.put(toBytes(address));
+        }
+        // 先写地址再写数量, 数量之内的地址总是完整的
+        buffer.putLong(COUNT_OFFSET, total);
+        buffer.force();
+        count = total;
+    }
+
+    void reset(String contractAddress) {
+        generation++;
+        count = 0;
+        ByteBuffer view = buffer.duplicate();
+        view.position(0);
+        view.putInt(MAGIC);
+        view.putInt(VERSION);
+        view.put(toBytes(contractAddress));
+        view.putLong(0L);
+        buffer.force();
+        this.contractAddress = contractAddress;
+        logger.info("[WeIdIndex] reset index for weId contract {}.", contractAddress);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * 重新映射文件, 容量不足时按两倍扩大, 原有映射仍然有效. 单个映射不超过2GB, 约可容纳1亿个WeID.
+     */
+    private void remap(int required) throws IOException {
+        if (required > MAX_CAPACITY) {
+            throw new IOException("weId count exceeds the index capacity " + MAX_CAPACITY);
+        }
+        long capacity = Math.min(MAX_CAPACITY, Math.max(MIN_CAPACITY, (long) required * 2));
+        buffer = channel.map(MapMode.READ_WRITE, 0, HEADER_SIZE + capacity * ADDRESS_SIZE);
+    }
+
+    private static byte[] toBytes(String address) {
+        byte[] bytes = Numeric.hexStringToByteArray(address);
+        if (bytes.length != ADDRESS_SIZE) {
+            throw new IllegalArgumentException("illegal weId address: " + address);
+        }
+        return bytes;
+    }
+}
@@ -5,6 +5,7 @@ import java.util.List;
 
 import com.webank.weid.blockchain.protocol.base.WeIdDocument;
 import com.webank.weid.blockchain.protocol.base.WeIdDocumentMetadata;
+import com.webank.weid.blockchain.protocol.base.WeIdResolveResult;
 import com.webank.weid.blockchain.protocol.response.ResponseData;
 
 /**
@@ -89,6 +90,14 @@ public interface WeIdServiceEngineFisco extends ReloadStaticContract {
      */
     ResponseData<WeIdDocumentMetadata> getWeIdDocumentMetadata(String weId);
 
+    /**
+     * get weid document and metadata from blockchain with one resolve call.
+     *
+     * @param weId the entity's weid
+     * @return weid document and metadata
+     */
+    ResponseData<WeIdResolveResult> resolveFull(String weId);
+
     /**
      * query data according to block height, index location and search direction.
      * 
@@ -4,6 +4,7 @@ package com.webank.weid.blockchain.service.fisco.engine.fiscov2;
 
 import com.webank.weid.blockchain.constant.ErrorCode;
 import com.webank.weid.blockchain.constant.WeIdConstant;
+import com.webank.weid.blockchain.exception.WeIdBaseException;
 import com.webank.weid.blockchain.protocol.base.AuthorityIssuer;
 import com.webank.weid.blockchain.protocol.base.IssuerType;
 import com.webank.weid.blockchain.protocol.request.RegisterAuthorityIssuerArgs;
@@ -11,6 +12,8 @@ import com.webank.weid.blockchain.protocol.response.ResponseData;
 import com.webank.weid.blockchain.protocol.response.TransactionInfo;
 import com.webank.weid.blockchain.service.fisco.engine.AuthorityIssuerServiceEngine;
 import com.webank.weid.blockchain.service.fisco.engine.BaseEngineFisco;
+import com.webank.weid.blockchain.service.fisco.engine.ContractSet;
+import com.webank.weid.blockchain.service.fisco.engine.IssuerRegistrySnapshot;
 import com.webank.weid.blockchain.util.DataToolUtils;
 import com.webank.weid.blockchain.util.DateUtils;
 import com.webank.weid.blockchain.util.WeIdUtils;
@@ -40,17 +43,13 @@ public class AuthorityIssuerEngineV2 extends BaseEngineFisco implements Authorit
 
     private static final Logger logger = LoggerFactory.getLogger(AuthorityIssuerEngineV2.class);
 
-    private static AuthorityIssuerController authorityIssuerController;
-    private static SpecificIssuerController specificIssuerController;
     private static SpecificIssuerData specificIssuerData;
 
     /**
      * 构造函数.
      */
     public AuthorityIssuerEngineV2() {
-        if (authorityIssuerController == null || specificIssuerController == null) {
-            reload();
-        }
+        IssuerRegistrySnapshot.start(this, this::queryAuthorityIssuer);
     }
 
     /**
@@ -58,10 +57,15 @@ public class AuthorityIssuerEngineV2 extends BaseEngineFisco implements Authorit
      */
     @Override
     public void reload() {
-        authorityIssuerController = getContractService(fiscoConfig.getIssuerAddress(),
-            AuthorityIssuerController.class);
-        specificIssuerController = getContractService(fiscoConfig.getSpecificIssuerAddress(),
-            SpecificIssuerController.class);
+        ContractSet.reload();
+    }
+
+    private static AuthorityIssuerController authorityIssuerController() {
+        return ContractSet.current().get(AuthorityIssuerController.class);
+    }
+
+    private static SpecificIssuerController specificIssuerController() {
+        return ContractSet.current().get(SpecificIssuerController.class);
     }
 
     @Override
@@ -69,7 +73,7 @@ public class AuthorityIssuerEngineV2 extends BaseEngineFisco implements Authorit
         try {
             byte[] name = new byte[32];
             System.arraycopy(orgId.getBytes(), 0, name, 0, orgId.getBytes().length);
-            String address = authorityIssuerController
+            String address = authorityIssuerController()
                 .getAddressFromName(name);
             if (WeIdConstant.EMPTY_ADDRESS.equalsIgnoreCase(address)) {
                 return new ResponseData<>(StringUtils.EMPTY,
@@ -127,6 +131,7 @@ public class AuthorityIssuerEngineV2 extends BaseEngineFisco implements Authorit
                 authorityIssuer.getAccValue().getBytes()
             );
             ErrorCode errorCode = resolveRegisterAuthorityIssuerEvents(receipt);
+            IssuerRegistrySnapshot.invalidate();
             TransactionInfo info = new TransactionInfo(receipt);
             if (errorCode.equals(ErrorCode.SUCCESS)) {
                 return new ResponseData<>(Boolean.TRUE, ErrorCode.SUCCESS, info);
@@ -134,6 +139,7 @@ public class AuthorityIssuerEngineV2 extends BaseEngineFisco implements Authorit
                 return new ResponseData<>(Boolean.FALSE, errorCode, info);
             }
         } catch (Exception e) {
+            IssuerRegistrySnapshot.invalidate();
             logger.error("register authority issuer failed.", e);
             return new ResponseData<>(Boolean.FALSE, ErrorCode.AUTHORITY_ISSUER_ERROR);
         }
@@ -142,7 +148,7 @@ public class AuthorityIssuerEngineV2 extends BaseEngineFisco implements Authorit
     private ErrorCode resolveRegisterAuthorityIssuerEvents(
         TransactionReceipt transactionReceipt) {
         List<AuthorityIssuerRetLogEventResponse> eventList =
-            authorityIssuerController.getAuthorityIssuerRetLogEvents(transactionReceipt);
+            authorityIssuerController().getAuthorityIssuerRetLogEvents(transactionReceipt);
 
         AuthorityIssuerRetLogEventResponse event = eventList.get(0);
         if (event != null) {
@@ -192,6 +198,7 @@ public class AuthorityIssuerEngineV2 extends BaseEngineFisco implements Authorit
             List<AuthorityIssuerRetLogEventResponse> eventList =
                 authorityIssuerController.getAuthorityIssuerRetLogEvents(receipt);
 
+            IssuerRegistrySnapshot.invalidate();
             TransactionInfo info = new TransactionInfo(receipt);
             AuthorityIssuerRetLogEventResponse event = eventList.get(0);
 
@@ -210,6 +217,7 @@ public class AuthorityIssuerEngineV2 extends BaseEngineFisco implements Authorit
                 return new ResponseData<>(false, ErrorCode.AUTHORITY_ISSUER_ERROR, info);
             }
         } catch (Exception e) {
+            IssuerRegistrySnapshot.invalidate();
             logger.error("remove authority issuer failed.", e);
             return new ResponseData<>(false, ErrorCode.AUTHORITY_ISSUER_ERROR);
         }
@@ -231,6 +239,7 @@ public class AuthorityIssuerEngineV2 extends BaseEngineFisco implements Authorit
             }
             List<AuthorityIssuerRetLogEventResponse> eventList =
                 authorityIssuerController.getAuthorityIssuerRetLogEvents(receipt);
+            IssuerRegistrySnapshot.invalidate();
             TransactionInfo info = new TransactionInfo(receipt);
             AuthorityIssuerRetLogEventResponse event = eventList.get(0);
             if (event != null) {
@@ -257,6 +266,7 @@ public class AuthorityIssuerEngineV2 extends BaseEngineFisco implements Authorit
             }
 
         } catch (Exception e) {
+            IssuerRegistrySnapshot.invalidate();
             logger.error("(de-)recognize authority issuer failed.", e);
             return new ResponseData<>(false, ErrorCode.AUTHORITY_ISSUER_ERROR.getCode(),
                 e.getMessage());
@@ -269,10 +279,13 @@ public class AuthorityIssuerEngineV2 extends BaseEngineFisco implements Authorit
      */
     @Override
     public ResponseData<Boolean> isAuthorityIssuer(String address) {
+        Boolean snapshotResult = IssuerRegistrySnapshot.isAuthorityIssuer(address);
+        if (snapshotResult != null) {
+            return new ResponseData<>(snapshotResult, ErrorCode.SUCCESS);
+        }
         ResponseData<Boolean> resultData = new ResponseData<Boolean>();
         try {
-            Boolean result = authorityIssuerController.isAuthorityIssuer(
-                address);
+            Boolean result = queryAuthorityIssuer(address);
             resultData.setResult(result);
             if (result != null) {
                 resultData.setErrorCode(ErrorCode.SUCCESS);
@@ -287,6 +300,20 @@ public class AuthorityIssuerEngineV2 extends BaseEngineFisco implements Authorit
 
     }
 
+    /**
+     * 直接查询链上地址是否为权威发行者.
+     *
+     * @param address 地址
+     * @return 是否为权威发行者
+     */
+    private Boolean queryAuthorityIssuer(String address) {
+        try {
+            return authorityIssuerController().isAuthorityIssuer(address);
+        } catch (Exception e) {
+            throw new WeIdBaseException(ErrorCode.AUTHORITY_ISSUER_ERROR);
+        }
+    }
+
     /* (non-Javadoc)
      * @see com.webank.weid.blockchain.service.fisco.engine.AuthorityIssuerController
      * #getAuthorityIssuerInfoNonAccValue(java.lang.String)
@@ -296,7 +323,7 @@ public class AuthorityIssuerEngineV2 extends BaseEngineFisco implements Authorit
         ResponseData<AuthorityIssuer> resultData = new ResponseData<AuthorityIssuer>();
         try {
             Tuple2<List<byte[]>, List<BigInteger>> rawResult =
-                authorityIssuerController.getAuthorityIssuerInfoNonAccValue(
+                authorityIssuerController().getAuthorityIssuerInfoNonAccValue(
                     WeIdUtils.convertWeIdToAddress(weId));
             if (rawResult == null) {
                 return new ResponseData<>(null, ErrorCode.AUTHORITY_ISSUER_ERROR);
@@ -369,7 +396,7 @@ public class AuthorityIssuerEngineV2 extends BaseEngineFisco implements Authorit
         List<String> addressList = new ArrayList<>();
         try {
             addressList =
-                authorityIssuerController.getAuthorityIssuerAddressList(
+                authorityIssuerController().getAuthorityIssuerAddressList(
                     new BigInteger(index.toString()),
                     new BigInteger(num.toString())
                 );
@@ -397,10 +424,12 @@ public class AuthorityIssuerEngineV2 extends BaseEngineFisco implements Authorit
                 issuerAddress);
 
             ErrorCode errorCode = resolveSpecificIssuerEvents(receipt, false, issuerAddress);
+            IssuerRegistrySnapshot.invalidate();
             TransactionInfo info = new TransactionInfo(receipt);
             return new ResponseData<>(errorCode.getCode() == ErrorCode.SUCCESS.getCode(),
                 errorCode, info);
         } catch (Exception e) {
+            IssuerRegistrySnapshot.invalidate();
             logger.error("remove issuer from type failed.", e);
             return new ResponseData<>(false, ErrorCode.AUTHORITY_ISSUER_ERROR);
         }
@@ -411,7 +440,7 @@ public class AuthorityIssuerEngineV2 extends BaseEngineFisco implements Authorit
         boolean isRegister,
         String address) {
         List<SpecificIssuerRetLogEventResponse> eventList =
-            specificIssuerController.getSpecificIssuerRetLogEvents(transactionReceipt);
+            specificIssuerController().getSpecificIssuerRetLogEvents(transactionReceipt);
 
         SpecificIssuerRetLogEventResponse event = eventList.get(0);
         if (event != null) {
@@ -445,8 +474,15 @@ public class AuthorityIssuerEngineV2 extends BaseEngineFisco implements Authorit
      */
     @Override
     public ResponseData<Boolean> isSpecificTypeIssuer(String issuerType, String address) {
+        Boolean snapshotResult = IssuerRegistrySnapshot.isSpecificTypeIssuer(issuerType, address);
+        if (snapshotResult != null) {
+            return snapshotResult
+                ? new ResponseData<>(true, ErrorCode.SUCCESS)
+                : new ResponseData<>(false,
+                    ErrorCode.SPECIFIC_ISSUER_CONTRACT_ERROR_ALREADY_NOT_EXIST);
+        }
         try {
-            Boolean result = specificIssuerController.isSpecificTypeIssuer(
+            Boolean result = specificIssuerController().isSpecificTypeIssuer(
                 DataToolUtils.stringToByte32Array(issuerType),
                 address
             );
@@ -472,7 +508,7 @@ public class AuthorityIssuerEngineV2 extends BaseEngineFisco implements Authorit
         List<String> addresses = new ArrayList<>();
         try {
 
-            addresses = specificIssuerController.getSpecificTypeIssuerList(
+            addresses = specificIssuerController().getSpecificTypeIssuerList(
                 DataToolUtils.stringToByte32Array(issuerType),
                 new BigInteger(index.toString()),
                 new BigInteger(num.toString())
@@ -507,10 +543,12 @@ public class AuthorityIssuerEngineV2 extends BaseEngineFisco implements Authorit
             // pass-in empty address
             String emptyAddress = new Address(BigInteger.ZERO).toString();
             ErrorCode errorCode = resolveSpecificIssuerEvents(receipt, true, emptyAddress);
+            IssuerRegistrySnapshot.invalidate();
             TransactionInfo info = new TransactionInfo(receipt);
             return new ResponseData<>(errorCode.getCode() == ErrorCode.SUCCESS.getCode(),
                 errorCode, info);
         } catch (Exception e) {
+            IssuerRegistrySnapshot.invalidate();
             logger.error("register issuer type failed.", e);
             return new ResponseData<>(false, ErrorCode.AUTHORITY_ISSUER_ERROR);
         }
@@ -533,10 +571,12 @@ public class AuthorityIssuerEngineV2 extends BaseEngineFisco implements Authorit
                 issuerAddress
             );
             ErrorCode errorCode = resolveSpecificIssuerEvents(receipt, true, issuerAddress);
+            IssuerRegistrySnapshot.invalidate();
             TransactionInfo info = new TransactionInfo(receipt);
             return new ResponseData<>(errorCode.getCode() == ErrorCode.SUCCESS.getCode(),
                 errorCode, info);
         } catch (Exception e) {
+            IssuerRegistrySnapshot.invalidate();
             logger.error("add issuer into type failed.", e);
             return new ResponseData<>(false, ErrorCode.AUTHORITY_ISSUER_ERROR);
         }
@@ -545,7 +585,7 @@ public class AuthorityIssuerEngineV2 extends BaseEngineFisco implements Authorit
     @Override
     public ResponseData<Integer> getIssuerCount() {
         try {
-            Integer count = authorityIssuerController.getTotalIssuer().intValue();
+            Integer count = authorityIssuerController().getTotalIssuer().intValue();
             return new ResponseData<>(count, ErrorCode.SUCCESS);
         } catch (Exception e) {
             logger.error("[getIssuerCount] query IssuerCount failed. exception message: ", e);
@@ -556,7 +596,7 @@ public class AuthorityIssuerEngineV2 extends BaseEngineFisco implements Authorit
     @Override
     public ResponseData<Integer> getSpecificTypeIssuerSize(String issuerType) {
         try {
-            Integer count = specificIssuerController.getSpecificTypeIssuerSize(
+            Integer count = specificIssuerController().getSpecificTypeIssuerSize(
                 DataToolUtils.stringToByte32Array(issuerType)).intValue();
             return new ResponseData<>(count, ErrorCode.SUCCESS);
         } catch (Exception e) {
@@ -568,7 +608,7 @@ public class AuthorityIssuerEngineV2 extends BaseEngineFisco implements Authorit
     @Override
     public ResponseData<Integer> getRecognizedIssuerCount() {
         try {
-            Integer count = authorityIssuerController.getRecognizedIssuerCount().intValue();
+            Integer count = authorityIssuerController().getRecognizedIssuerCount().intValue();
             return new ResponseData<>(count, ErrorCode.SUCCESS);
         } catch (Exception e) {
             logger.error(
@@ -581,7 +621,7 @@ public class AuthorityIssuerEngineV2 extends BaseEngineFisco implements Authorit
     @Override
     public ResponseData<Integer> getIssuerTypeCount() {
         try {
-            Integer count = specificIssuerController.getIssuerTypeCount().intValue();
+            Integer count = specificIssuerController().getIssuerTypeCount().intValue();
             return new ResponseData<>(count, ErrorCode.SUCCESS);
         } catch (Exception e) {
             logger.error(
@@ -603,10 +643,12 @@ public class AuthorityIssuerEngineV2 extends BaseEngineFisco implements Authorit
             // pass-in empty address
             String emptyAddress = new Address(BigInteger.ZERO).toString();
             ErrorCode errorCode = resolveSpecificIssuerEvents(receipt, false, emptyAddress);
+            IssuerRegistrySnapshot.invalidate();
             TransactionInfo info = new TransactionInfo(receipt);
             return new ResponseData<>(errorCode.getCode() == ErrorCode.SUCCESS.getCode(),
                 errorCode, info);
         } catch (Exception e) {
+            IssuerRegistrySnapshot.invalidate();
             logger.error("remove issuer type failed.", e);
             return new ResponseData<>(false, ErrorCode.TRANSACTION_EXECUTE_ERROR);
         }
@@ -617,7 +659,7 @@ public class AuthorityIssuerEngineV2 extends BaseEngineFisco implements Authorit
         List<IssuerType> list = new ArrayList<IssuerType>();
         try {
             Tuple3<List<byte[]>, List<String>, List<BigInteger>> tuple =
-                specificIssuerController.getIssuerTypeList(
+                specificIssuerController().getIssuerTypeList(
                     new BigInteger(index.toString()), 
                     new BigInteger(num.toString())
                 );
@@ -0,0 +1,40 @@
+package com.webank.weid.blockchain.service.fisco.engine.fiscov2;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.fisco.bcos.sdk.client.Client;
+import org.fisco.bcos.sdk.client.protocol.response.BcosBlock;
+import org.fisco.bcos.sdk.model.TransactionReceipt;
+
+import com.webank.weid.blockchain.service.fisco.BaseServiceFisco;
+import com.webank.weid.blockchain.service.fisco.engine.BlockFetcher;
+
+/**
+ * FISCO BCOS 2.x的区块回执查询, 回执类型为v2的TransactionReceipt.
+ */
+public class BlockFetcherV2 implements BlockFetcher {
+
+    @Override
+    public List<Object> getReceipts(long blockNumber) throws Exception {
+        Client client = (Client) BaseServiceFisco.getClient();
+        BcosBlock bcosBlock = client.getBlockByNumber(BigInteger.valueOf(blockNumber), false);
+        List<Object> receipts = new ArrayList<>();
+        if (bcosBlock == null || bcosBlock.getBlock() == null) {
+            return receipts;
+        }
+        List<String> transList = bcosBlock.getBlock().getTransactions().stream()
+            .map(transactionResult -> (String) transactionResult.get())
+            .collect(Collectors.toList());
+        for (String transactionHash : transList) {
+            Optional<TransactionReceipt> receipt = client
+                .getTransactionReceipt(transactionHash)
+                .getTransactionReceipt();
+            receipt.ifPresent(receipts::add);
+        }
+        return receipts;
+    }
+}
@@ -0,0 +1,290 @@
+package com.webank.weid.blockchain.service.fisco.engine.fiscov2;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.fisco.bcos.sdk.BcosSDK;
+import org.fisco.bcos.sdk.abi.datatypes.NumericType;
+import org.fisco.bcos.sdk.abi.datatypes.generated.Bytes32;
+import org.fisco.bcos.sdk.eventsub.EventCallback;
+import org.fisco.bcos.sdk.eventsub.EventLogParams;
+import org.fisco.bcos.sdk.eventsub.EventSubscribe;
+import org.fisco.bcos.sdk.model.EventLog;
+import org.fisco.bcos.sdk.model.TransactionReceipt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.constant.ErrorCode;
+import com.webank.weid.blockchain.service.fisco.BaseServiceFisco;
+import com.webank.weid.blockchain.service.fisco.engine.ContractChangeEvent;
+import com.webank.weid.blockchain.service.fisco.engine.ContractChangeEvent.Type;
+import com.webank.weid.blockchain.service.fisco.engine.ContractEventSubscriber;
+import com.webank.weid.blockchain.service.fisco.engine.ContractFactoryRegistry;
+import com.webank.weid.blockchain.service.fisco.engine.ContractSet;
+import com.webank.weid.blockchain.service.fisco.server.WeServer;
+import com.webank.weid.blockchain.util.DataToolUtils;
+import com.webank.weid.contract.v2.AuthorityIssuerController;
+import com.webank.weid.contract.v2.AuthorityIssuerController.AuthorityIssuerRetLogEventResponse;
+import com.webank.weid.contract.v2.CptController;
+import com.webank.weid.contract.v2.CptController.RegisterCptRetLogEventResponse;
+import com.webank.weid.contract.v2.CptController.UpdateCptRetLogEventResponse;
+import com.webank.weid.contract.v2.EvidenceContract;
+import com.webank.weid.contract.v2.WeIdContract;
+
+/**
+ * FISCO BCOS 2.x的合约事件订阅, 通过EventSubscribe订阅, 用合约对象解析事件.
+ */
+public class ContractEventSubscriberV2 extends ContractEventSubscriber {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContractEventSubscriberV2.class);
+
+    private EventSubscribe eventSubscribe;
+
+    private String subscriptionId;
+
+    private EventCallback callback;
+
+    /**
+     * 解析事件用的地址和合约对象, prepare时整体替换, SDK回调线程总是读到同一组.
+     */
+    private volatile DecodeState state = DecodeState.EMPTY;
+
+    @Override
+    protected void prepare(List<String> addresses) throws Exception {
+        ContractSet contractSet = ContractSet.current();
+        EvidenceContract evidenceContract = null;
+        // EvidenceContract不在ContractSet中, 只用于解析事件, 不发送交易
+        if (StringUtils.isNotBlank(addresses.get(1))) {
+            WeServer<?, ?, ?> weServer =
+                BaseServiceFisco.getWeServer(BaseServiceFisco.masterGroupId);
+            evidenceContract = (EvidenceContract) ContractFactoryRegistry
+                .getFactory(EvidenceContract.class)
+                .load(addresses.get(1), weServer.getWeb3j(), weServer.getCredentials());
+        }
+        List<String> normalized = new ArrayList<>();
+        for (String address : addresses) {
+            normalized.add(normalize(address));
+        }
+        state = new DecodeState(
+            Collections.unmodifiableList(normalized),
+            contractSet.get(WeIdContract.class),
+            evidenceContract,
+            contractSet.get(CptController.class),
+            contractSet.get(AuthorityIssuerController.class)
+        );
+    }
+
+    @Override
+    protected void subscribe(long fromBlock, List<String> addresses) throws Exception {
+        if (eventSubscribe == null) {
+            BcosSDK bcosSdk = (BcosSDK) BaseServiceFisco.getBcosSDK();
+            eventSubscribe = bcosSdk.getEventSubscribe(
+                Integer.valueOf(BaseServiceFisco.masterGroupId));
+            eventSubscribe.start();
+        }
+
+        EventLogParams params = new EventLogParams();
+        params.setFromBlock(String.valueOf(fromBlock));
+        // latest表示持续订阅最新区块
+        params.setToBlock("latest");
+        params.setAddresses(new ArrayList<>(state.addresses));
+        params.setTopics(new ArrayList<>());
+        callback = new EventCallback() {
+            @Override
+            public void onReceiveLog(int status, List<EventLog> logs) {
+                onReceived(status, logs);
+            }
+        };
+        subscriptionId = eventSubscribe.subscribeEvent(params, callback);
+    }
+
+    @Override
+    protected void unsubscribe() {
+        if (eventSubscribe != null && subscriptionId != null) {
+            try {
+                eventSubscribe.unsubscribeEvent(subscriptionId, callback);
+            } catch (Exception e) {
+                logger.warn("[unsubscribe] unsubscribe {} has error.", subscriptionId, e);
+            }
+            subscriptionId = null;
+        }
+    }
+
+    @Override
+    public List<ContractChangeEvent> decodeReceipts(long blockNumber, List<Object> receipts) {
+        DecodeState current = state;
+        List<ContractChangeEvent> events = new ArrayList<>();
+        for (Object item : receipts) {
+            TransactionReceipt receipt = (TransactionReceipt) item;
+            if (receipt.getLogs() == null) {
+                continue;
+            }
+            for (TransactionReceipt.Logs log : receipt.getLogs()) {
+                if (current.addresses.contains(normalize(log.getAddress()))) {
+                    events.addAll(
+                        decode(current, log, blockNumber, receipt.getTransactionHash()));
+                }
+            }
+        }
+        return events;
+    }
+
+    private void onReceived(int status, List<EventLog> logs) {
+        if (status != 0) {
+            onSubscribeError(status);
+            return;
+        }
+        if (logs == null || logs.isEmpty()) {
+            return;
+        }
+        DecodeState current = state;
+        List<ContractChangeEvent> events = new ArrayList<>();
+        long blockNumber = -1L;
+        for (EventLog log : logs) {
+            try {
+                events.addAll(decode(current, toLogs(log), log.getBlockNumber().longValue(),
+                    log.getTransactionHash()));
+            } catch (Exception e) {
+                logger.error("[onReceived] decode event log has error, transaction: {}.",
+                    log.getTransactionHash(), e);
+            }
+            blockNumber = Math.max(blockNumber, log.getBlockNumber().longValue());
+        }
+        dispatch(events, blockNumber);
+    }
+
+    private static List<ContractChangeEvent> decode(
+        DecodeState current,
+        TransactionReceipt.Logs log,
+        long blockNumber,
+        String transactionHash
+    ) {
+        String address = normalize(log.getAddress());
+        TransactionReceipt receipt = toReceipt(log, transactionHash);
+        List<ContractChangeEvent> events = new ArrayList<>();
+        if (address.equals(current.addresses.get(0))) {
+            for (WeIdContract.CreateWeIdEventResponse event
+                : current.weIdContract.getCreateWeIdEvents(receipt)) {
+                events.add(new ContractChangeEvent(Type.WEID_CREATED, address,
+                    normalize(String.valueOf(event.identity)), blockNumber, transactionHash));
+            }
+            for (WeIdContract.WeIdAttributeChangedEventResponse event
+                : current.weIdContract.getWeIdAttributeChangedEvents(receipt)) {
+                events.add(new ContractChangeEvent(Type.WEID_ATTRIBUTE_CHANGED, address,
+                    normalize(String.valueOf(event.identity)), blockNumber, transactionHash));
+            }
+        } else if (address.equals(current.addresses.get(1))) {
+            for (EvidenceContract.CreateEvidenceEventResponse event
+                : current.evidenceContract.getCreateEvidenceEvents(receipt)) {
+                events.add(new ContractChangeEvent(Type.EVIDENCE_CREATED, address,
+                    toHash(event.hash), blockNumber, transactionHash,
+                    normalize(event.signer), toBigInteger(event.updated).longValue()));
+            }
+            for (EvidenceContract.EvidenceAttributeChangedEventResponse event
+                : current.evidenceContract.getEvidenceAttributeChangedEvents(receipt)) {
+                events.add(new ContractChangeEvent(Type.EVIDENCE_ATTRIBUTE_CHANGED, address,
+                    toHash(event.hash), blockNumber, transactionHash,
+                    normalize(event.signer), toBigInteger(event.updated).longValue()));
+            }
+            for (EvidenceContract.RevokeEventResponse event
+                : current.evidenceContract.getRevokeEvents(receipt)) {
+                events.add(new ContractChangeEvent(Type.EVIDENCE_REVOKED, address,
+                    toHash(event.hash), blockNumber, transactionHash));
+            }
+        } else if (address.equals(current.addresses.get(2))) {
+            for (RegisterCptRetLogEventResponse event
+                : current.cptController.getRegisterCptRetLogEvents(receipt)) {
+                if (isSuccess(toBigInteger(event.retCode))) {
+                    events.add(new ContractChangeEvent(Type.CPT_REGISTERED, address,
+                        toBigInteger(event.cptId).toString(), blockNumber, transactionHash));
+                }
+            }
+            for (UpdateCptRetLogEventResponse event
+                : current.cptController.getUpdateCptRetLogEvents(receipt)) {
+                if (isSuccess(toBigInteger(event.retCode))) {
+                    events.add(new ContractChangeEvent(Type.CPT_UPDATED, address,
+                        toBigInteger(event.cptId).toString(), blockNumber, transactionHash));
+                }
+            }
+        } else if (address.equals(current.addresses.get(3))) {
+            for (AuthorityIssuerRetLogEventResponse event
+                : current.authorityIssuerController.getAuthorityIssuerRetLogEvents(receipt)) {
+                if (isSuccess(event.retCode)) {
+                    events.add(new ContractChangeEvent(Type.AUTHORITY_ISSUER_CHANGED, address,
+                        normalize(String.valueOf(event.addr)), blockNumber, transactionHash));
+                }
+            }
+        }
+        return events;
+    }
+
+    private static final class DecodeState {
+
+        private static final DecodeState EMPTY =
+            new DecodeState(Collections.emptyList(), null, null, null, null);
+
+        private final List<String> addresses;
+
+        private final WeIdContract weIdContract;
+
+        private final EvidenceContract evidenceContract;
+
+        private final CptController cptController;
+
+        private final AuthorityIssuerController authorityIssuerController;
+
+        private DecodeState(
+            List<String> addresses,
+            WeIdContract weIdContract,
+            EvidenceContract evidenceContract,
+            CptController cptController,
+            AuthorityIssuerController authorityIssuerController
+        ) {
+            this.addresses = addresses;
+            this.weIdContract = weIdContract;
+            this.evidenceContract = evidenceContract;
+            this.cptController = cptController;
+            this.authorityIssuerController = authorityIssuerController;
+        }
+    }
+
+    private static TransactionReceipt.Logs toLogs(EventLog log) {
+        TransactionReceipt.Logs logs = new TransactionReceipt.Logs();
+        logs.setAddress(log.getAddress());
+        logs.setTopics(log.getTopics());
+        logs.setData(log.getData());
+        return logs;
+    }
+
+    /**
+     * 把一条日志包装成只含这条日志的回执, 以便使用合约对象的事件解析方法.
+     */
+    private static TransactionReceipt toReceipt(
+        TransactionReceipt.Logs log,
+        String transactionHash
+    ) {
+        TransactionReceipt receipt = new TransactionReceipt();
+        receipt.setTransactionHash(transactionHash);
+        receipt.setLogs(Collections.singletonList(log));
+        return receipt;
+    }
+
+    private static String toHash(byte[] hash) {
+        return DataToolUtils.convertHashByte32ArrayIntoHashStr(new Bytes32(hash).getValue());
+    }
+
+    private static BigInteger toBigInteger(Object value) {
+        // 事件的数值字段在部分合约类中是Uint256
+        if (value instanceof NumericType) {
+            return ((NumericType) value).getValue();
+        }
+        return (BigInteger) value;
+    }
+
+    private static boolean isSuccess(BigInteger retCode) {
+        return retCode != null && retCode.intValue() == ErrorCode.SUCCESS.getCode();
+    }
+}
@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.webank.weid.blockchain.service.fisco.engine.BaseEngineFisco;
+import com.webank.weid.blockchain.service.fisco.engine.DataBucketCache;
 import org.apache.commons.lang3.StringUtils;
 import org.fisco.bcos.sdk.abi.datatypes.generated.Bytes32;
 import org.fisco.bcos.sdk.abi.datatypes.generated.tuples.generated.Tuple2;
@@ -79,6 +80,7 @@ public class DataBucketServiceFiscoEngineV2 extends BaseEngineFisco implements D
         try {
             TransactionReceipt receipt = getDataBucket(privateKey).put(
                 bucketId, keyByte32.getValue(), value);
+            invalidateItem(bucketId, key);
             if (StringUtils
                 .equals(receipt.getStatus(), ParamKeyConstant.TRNSACTION_RECEIPT_STATUS_SUCCESS)) {
                 logger.info("[put] put [{}:{}] into chain success, bucketId is {}.", 
@@ -90,6 +92,7 @@ public class DataBucketServiceFiscoEngineV2 extends BaseEngineFisco implements D
                 key, value, bucketId);
             return new ResponseData<Boolean>(false, ErrorCode.TRANSACTION_EXECUTE_ERROR);
         } catch (Exception e) {
+            invalidateItem(bucketId, key);
             logger.error("[put] put [{}:{}] into chain has excpetion, bucketId is {}, exception:",
                 key, value, bucketId, e);
             return new ResponseData<Boolean>(false, ErrorCode.UNKNOW_ERROR);
@@ -138,6 +141,18 @@ public class DataBucketServiceFiscoEngineV2 extends BaseEngineFisco implements D
 
     @Override
     public ResponseData<String> get(String bucketId, String key) {
+        String value = DataBucketCache.get(dataBucket.getContractAddress(), bucketId, key);
+        if (value != null) {
+            logger.debug("[get] get from cache, bucketId: {}, key: {}, value: {}",
+                bucketId, key, value);
+            return new ResponseData<String>(value, ErrorCode.SUCCESS);
+        }
+        return refresh(bucketId, key);
+    }
+
+    @Override
+    public ResponseData<String> refresh(String bucketId, String key) {
+        DataBucketCache.invalidate(dataBucket.getContractAddress(), bucketId, key);
         Bytes32 keyByte32 = DataToolUtils.bytesArrayToBytes32(key.getBytes());
         try {
             Tuple2<BigInteger, String> tuple = dataBucket.get(
@@ -147,8 +162,10 @@ public class DataBucketServiceFiscoEngineV2 extends BaseEngineFisco implements D
                 logger.error("[get] the bucketId does not exits, bucketId is {}.", bucketId);
                 return new ResponseData<String>(StringUtils.EMPTY, ErrorCode.CNS_DOES_NOT_EXIST);
             }
-            logger.info("[get] get address successfully, bucketId: {}, key: {}, value: {}", 
+            logger.debug("[get] get address successfully, bucketId: {}, key: {}, value: {}",
                 bucketId, key, tuple.getValue2());
+            DataBucketCache.put(
+                dataBucket.getContractAddress(), bucketId, key, tuple.getValue2());
             return new ResponseData<String>(tuple.getValue2(), ErrorCode.SUCCESS);  
         } catch (Exception e) {
             logger.error(
@@ -174,6 +191,7 @@ public class DataBucketServiceFiscoEngineV2 extends BaseEngineFisco implements D
             logger.info("[remove] remove Extra Item, bucketId is {}, key is {}.", bucketId, key);
             TransactionReceipt receipt = getDataBucket(privateKey).removeExtraItem(
                 bucketId, keyByte32.getValue());
+            invalidateItem(bucketId, key);
             if (StringUtils
                 .equals(receipt.getStatus(), ParamKeyConstant.TRNSACTION_RECEIPT_STATUS_SUCCESS)) {
                 logger.info("[remove] remove {} from chain success, bucketId is {}.", 
@@ -184,6 +202,7 @@ public class DataBucketServiceFiscoEngineV2 extends BaseEngineFisco implements D
             logger.error("[remove] remove {} from chain fail, bucketId is {}.", key, bucketId);
             return new ResponseData<Boolean>(false, ErrorCode.TRANSACTION_EXECUTE_ERROR);
         } catch (Exception e) {
+            invalidateItem(bucketId, key);
             logger.error("[remove] remove {} from chain has excpetion, bucketId is {}, exception:",
                 key, bucketId, e);
             return new ResponseData<Boolean>(false, ErrorCode.UNKNOW_ERROR);
@@ -201,6 +220,7 @@ public class DataBucketServiceFiscoEngineV2 extends BaseEngineFisco implements D
                 bucketId, force);
             TransactionReceipt receipt = getDataBucket(privateKey)
                 .removeDataBucketItem(bucketId, force);
+            invalidateBucket(bucketId);
             if (StringUtils
                 .equals(receipt.getStatus(), ParamKeyConstant.TRNSACTION_RECEIPT_STATUS_SUCCESS)) {
                 logger.info("[remove] remove Bucket Item from chain success, bucketId is {}.", 
@@ -211,6 +231,7 @@ public class DataBucketServiceFiscoEngineV2 extends BaseEngineFisco implements D
             logger.error("[remove] remove Bucket Item from chain fail, bucketId is {}.", bucketId);
             return new ResponseData<Boolean>(false, ErrorCode.TRANSACTION_EXECUTE_ERROR);
         } catch (Exception e) {
+            invalidateBucket(bucketId);
             logger.error(
                 "[remove] remove Bucket Item from chain has excpetion, bucketId is {}, exception:",
                 bucketId, 
@@ -225,6 +246,7 @@ public class DataBucketServiceFiscoEngineV2 extends BaseEngineFisco implements D
         try {
             TransactionReceipt receipt = getDataBucket(privateKey).enable(
                 bucketId);
+            invalidateBucket(bucketId);
             if (StringUtils
                 .equals(receipt.getStatus(), ParamKeyConstant.TRNSACTION_RECEIPT_STATUS_SUCCESS)) {
                 logger.info("[enable] enable Bucket success, bucketId is {}.", bucketId);
@@ -234,6 +256,7 @@ public class DataBucketServiceFiscoEngineV2 extends BaseEngineFisco implements D
             logger.error("[enable] enable Bucket fail, bucketId is {}.", bucketId);
             return new ResponseData<Boolean>(false, ErrorCode.TRANSACTION_EXECUTE_ERROR);
         } catch (Exception e) {
+            invalidateBucket(bucketId);
             logger.error("[enable] enable Bucket has excpetion, bucketId is {}, exception:",
                 bucketId, e);
             return new ResponseData<Boolean>(false, ErrorCode.UNKNOW_ERROR);
@@ -245,6 +268,7 @@ public class DataBucketServiceFiscoEngineV2 extends BaseEngineFisco implements D
         try {
             TransactionReceipt receipt = getDataBucket(privateKey).disable(
                 bucketId);
+            invalidateBucket(bucketId);
             if (StringUtils
                 .equals(receipt.getStatus(), ParamKeyConstant.TRNSACTION_RECEIPT_STATUS_SUCCESS)) {
                 logger.info("[disable] disable Bucket success, bucketId is {}.", bucketId);
@@ -254,12 +278,22 @@ public class DataBucketServiceFiscoEngineV2 extends BaseEngineFisco implements D
             logger.error("[disable] disable Bucket fail, bucketId is {}.", bucketId);
             return new ResponseData<Boolean>(false, ErrorCode.TRANSACTION_EXECUTE_ERROR);
         } catch (Exception e) {
+            invalidateBucket(bucketId);
             logger.error("[disable] disable Bucket has excpetion, bucketId is {}, exception:", 
                 bucketId, e);
             return new ResponseData<Boolean>(false, ErrorCode.UNKNOW_ERROR);
         }
     }
 
+    private void invalidateItem(String bucketId, String key) {
+        DataBucketCache.invalidate(dataBucket.getContractAddress(), bucketId,
+            key == null ? StringUtils.EMPTY : key);
+    }
+
+    private void invalidateBucket(String bucketId) {
+        DataBucketCache.invalidateBucket(dataBucket.getContractAddress(), bucketId);
+    }
+
     @Override
     public ResponseData<List<HashContract>> getAllBucket() {
         int startIndex = 0;
@@ -8,6 +8,7 @@ import com.webank.weid.blockchain.protocol.response.ResponseData;
 import com.webank.weid.blockchain.protocol.response.TransactionInfo;
 import com.webank.weid.blockchain.service.fisco.BaseServiceFisco;
 import com.webank.weid.blockchain.service.fisco.engine.BaseEngineFisco;
+import com.webank.weid.blockchain.service.fisco.engine.EvidenceCache;
 import com.webank.weid.blockchain.service.fisco.engine.EvidenceServiceEngineFisco;
 import com.webank.weid.blockchain.util.DataToolUtils;
 import com.webank.weid.blockchain.util.WeIdUtils;
@@ -114,6 +115,7 @@ public class EvidenceServiceFiscoEngineFiscoV2 extends BaseEngineFisco implement
                     timestampList
                 );
 
+            EvidenceCache.invalidateInfo(this.evidenceAddress, hashValue);
             TransactionInfo info = new TransactionInfo(receipt);
             List<EvidenceContract.CreateEvidenceEventResponse> eventList =
                 evidenceContract.getCreateEvidenceEvents(receipt);
@@ -134,6 +136,8 @@ public class EvidenceServiceFiscoEngineFiscoV2 extends BaseEngineFisco implement
             return new ResponseData<>(StringUtils.EMPTY,
                 ErrorCode.CREDENTIAL_EVIDENCE_CONTRACT_FAILURE_ILLEAGAL_INPUT);
         } catch (Exception e) {
+            // 交易结果未知, 同样使缓存失效
+            EvidenceCache.invalidateInfo(this.evidenceAddress, hashValue);
             logger.error("create evidence failed due to system error. ", e);
             return new ResponseData<>(StringUtils.EMPTY, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR);
         }
@@ -187,6 +191,7 @@ public class EvidenceServiceFiscoEngineFiscoV2 extends BaseEngineFisco implement
                     timestampList
                 );
 
+            invalidateInfo(hashValues);
             TransactionInfo info = new TransactionInfo(receipt);
             List<EvidenceContract.CreateEvidenceEventResponse> eventList =
                 evidenceContractWriter.getCreateEvidenceEvents(receipt);
@@ -207,6 +212,7 @@ public class EvidenceServiceFiscoEngineFiscoV2 extends BaseEngineFisco implement
                     ErrorCode.SUCCESS, info);
             }
         } catch (Exception e) {
+            invalidateInfo(hashValues);
             logger.error("create evidence failed due to system error. ", e);
             return new ResponseData<>(result, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR);
         }
@@ -264,6 +270,7 @@ public class EvidenceServiceFiscoEngineFiscoV2 extends BaseEngineFisco implement
                     customKeyList
                 );
 
+            invalidateInfo(hashValues);
             TransactionInfo info = new TransactionInfo(receipt);
             List<EvidenceContract.CreateEvidenceEventResponse> eventList =
                 evidenceContractWriter.getCreateEvidenceEvents(receipt);
@@ -285,6 +292,7 @@ public class EvidenceServiceFiscoEngineFiscoV2 extends BaseEngineFisco implement
                     ErrorCode.SUCCESS, info);
             }
         } catch (Exception e) {
+            invalidateInfo(hashValues);
             logger.error("create evidence failed due to system error. ", e);
             return new ResponseData<>(result, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR);
         }
@@ -327,6 +335,7 @@ public class EvidenceServiceFiscoEngineFiscoV2 extends BaseEngineFisco implement
                     logList,
                     timestampList
                 );
+            EvidenceCache.invalidateInfo(this.evidenceAddress, hashValue);
             TransactionInfo info = new TransactionInfo(receipt);
             List<EvidenceAttributeChangedEventResponse> eventList =
                 evidenceContractWriter.getEvidenceAttributeChangedEvents(receipt);
@@ -344,6 +353,8 @@ public class EvidenceServiceFiscoEngineFiscoV2 extends BaseEngineFisco implement
             return new ResponseData<>(false,
                 ErrorCode.CREDENTIAL_EVIDENCE_CONTRACT_FAILURE_ILLEAGAL_INPUT);
         } catch (Exception e) {
+            // 交易结果未知, 同样使缓存失效
+            EvidenceCache.invalidateInfo(this.evidenceAddress, hashValue);
             logger.error("add log failed due to system error. ", e);
             return new ResponseData<>(false, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR);
         }
@@ -394,6 +405,7 @@ public class EvidenceServiceFiscoEngineFiscoV2 extends BaseEngineFisco implement
                     timestampList,
                     customKeyList
                 );
+            EvidenceCache.invalidateInfo(this.evidenceAddress, hashValue);
             TransactionInfo info = new TransactionInfo(receipt);
             List<EvidenceAttributeChangedEventResponse> eventList =
                 evidenceContractWriter.getEvidenceAttributeChangedEvents(receipt);
@@ -411,6 +423,8 @@ public class EvidenceServiceFiscoEngineFiscoV2 extends BaseEngineFisco implement
             return new ResponseData<>(false,
                 ErrorCode.CREDENTIAL_EVIDENCE_CONTRACT_FAILURE_ILLEAGAL_INPUT);
         } catch (Exception e) {
+            // 交易结果未知, 同样使缓存失效
+            EvidenceCache.invalidateInfo(this.evidenceAddress, hashValue);
             logger.error("add log failed due to system error. ", e);
             return new ResponseData<>(false, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR);
         }
@@ -419,8 +433,7 @@ public class EvidenceServiceFiscoEngineFiscoV2 extends BaseEngineFisco implement
     @Override
     public ResponseData<String> getHashByCustomKey(String customKey) {
         try {
-            String hash = DataToolUtils.convertHashByte32ArrayIntoHashStr(
-                evidenceContract.getHashByExtraKey(customKey));
+            String hash = queryHashByCustomKey(customKey);
             if (!StringUtils.isEmpty(hash)) {
                 return new ResponseData<>(hash, ErrorCode.SUCCESS);
             }
@@ -430,6 +443,40 @@ public class EvidenceServiceFiscoEngineFiscoV2 extends BaseEngineFisco implement
         return new ResponseData<>(StringUtils.EMPTY, ErrorCode.CREDENTIAL_EVIDENCE_NOT_EXIST);
     }
 
+    /**
+     * 使一批hash的EvidenceInfo缓存失效.
+     *
+     * @param hashValues hash列表
+     */
+    private void invalidateInfo(List<String> hashValues) {
+        if (hashValues == null) {
+            return;
+        }
+        for (String hash : hashValues) {
+            EvidenceCache.invalidateInfo(this.evidenceAddress, hash);
+        }
+    }
+
+    /**
+     * 查询customKey绑定的hash, customKey只会绑定一次, 查到后记录在缓存中.
+     *
+     * @param customKey 自定义key
+     * @return hash, 未绑定时返回空
+     * @throws Exception 调用合约时可能出现的异常
+     */
+    private String queryHashByCustomKey(String customKey) throws Exception {
+        String hash = EvidenceCache.getHash(this.evidenceAddress, customKey);
+        if (hash != null) {
+            return hash;
+        }
+        hash = DataToolUtils.convertHashByte32ArrayIntoHashStr(
+            evidenceContract.getHashByExtraKey(customKey));
+        if (StringUtils.isNotBlank(hash)) {
+            EvidenceCache.putHash(this.evidenceAddress, customKey, hash);
+        }
+        return hash;
+    }
+
     /**
      * Get an evidence full info.
      *
@@ -438,6 +485,10 @@ public class EvidenceServiceFiscoEngineFiscoV2 extends BaseEngineFisco implement
      */
     @Override
     public ResponseData<EvidenceInfo> getInfo(String hash) {
+        EvidenceInfo cached = EvidenceCache.getInfo(this.evidenceAddress, hash);
+        if (cached != null) {
+            return new ResponseData<>(cached, ErrorCode.SUCCESS);
+        }
         EvidenceInfo evidenceInfo = new EvidenceInfo();
         evidenceInfo.setCredentialHash(hash);
         byte[] hashByte = DataToolUtils.convertHashStrIntoHashByte32Array(hash);
@@ -469,6 +520,7 @@ public class EvidenceServiceFiscoEngineFiscoV2 extends BaseEngineFisco implement
                 }
             }
             evidenceInfo.setSignInfo(signInfoMap);
+            EvidenceCache.putInfo(this.evidenceAddress, evidenceInfo);
             // Reverse the order of the list
             /*for (String signer : evidenceInfo.getSigners()) {
                 List<String> extraList = evidenceInfo.getSignInfo().get(signer).getLogs();
@@ -532,6 +584,7 @@ public class EvidenceServiceFiscoEngineFiscoV2 extends BaseEngineFisco implement
                     extraKeyList
                 );
 
+            EvidenceCache.invalidateInfo(this.evidenceAddress, hashValue);
             TransactionInfo info = new TransactionInfo(receipt);
             List<EvidenceContract.CreateEvidenceEventResponse> eventList =
                 evidenceContractWriter.getCreateEvidenceEvents(receipt);
@@ -552,6 +605,8 @@ public class EvidenceServiceFiscoEngineFiscoV2 extends BaseEngineFisco implement
             return new ResponseData<>(StringUtils.EMPTY,
                 ErrorCode.CREDENTIAL_EVIDENCE_CONTRACT_FAILURE_ILLEAGAL_INPUT);
         } catch (Exception e) {
+            // 交易结果未知, 同样使缓存失效
+            EvidenceCache.invalidateInfo(this.evidenceAddress, hashValue);
             logger.error("create evidence failed due to system error. ", e);
             return new ResponseData<>(StringUtils.EMPTY, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR);
         }
@@ -569,8 +624,7 @@ public class EvidenceServiceFiscoEngineFiscoV2 extends BaseEngineFisco implement
             return new ResponseData<EvidenceInfo>(null, ErrorCode.ILLEGAL_INPUT);
         }
         try {
-            String hash = DataToolUtils.convertHashByte32ArrayIntoHashStr(
-                evidenceContract.getHashByExtraKey(extraKey));
+            String hash = queryHashByCustomKey(extraKey);
             if (StringUtils.isBlank(hash)) {
                 logger.error("[getInfoByCustomKey] extraKey dose not match any hash. ");
                 return new ResponseData<EvidenceInfo>(null,
@@ -623,6 +677,7 @@ public class EvidenceServiceFiscoEngineFiscoV2 extends BaseEngineFisco implement
                     valueList,
                     timestampList
                 );
+            EvidenceCache.invalidateInfo(this.evidenceAddress, hashValue);
             TransactionInfo info = new TransactionInfo(receipt);
             List<EvidenceExtraAttributeChangedEventResponse> eventList =
                 evidenceContractWriter.getEvidenceExtraAttributeChangedEvents(receipt);
@@ -640,6 +695,8 @@ public class EvidenceServiceFiscoEngineFiscoV2 extends BaseEngineFisco implement
             return new ResponseData<>(false,
                 ErrorCode.CREDENTIAL_EVIDENCE_CONTRACT_FAILURE_ILLEAGAL_INPUT);
         } catch (Exception e) {
+            // 交易结果未知, 同样使缓存失效
+            EvidenceCache.invalidateInfo(this.evidenceAddress, hashValue);
             logger.error("add log failed due to system error. ", e);
             return new ResponseData<>(false, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR);
         }
@@ -666,6 +723,7 @@ public class EvidenceServiceFiscoEngineFiscoV2 extends BaseEngineFisco implement
                             address,
                             revokeStage
                     );
+            EvidenceCache.invalidateInfo(this.evidenceAddress, hashValue);
             TransactionInfo info = new TransactionInfo(receipt);
             List<EvidenceContract.RevokeEventResponse> eventList =
                     evidenceContractWriter.getRevokeEvents(receipt);
@@ -683,6 +741,8 @@ public class EvidenceServiceFiscoEngineFiscoV2 extends BaseEngineFisco implement
             return new ResponseData<>(false,
                     ErrorCode.CREDENTIAL_EVIDENCE_CONTRACT_FAILURE_ILLEAGAL_INPUT);
         } catch (Exception e) {
+            // 交易结果未知, 同样使缓存失效
+            EvidenceCache.invalidateInfo(this.evidenceAddress, hashValue);
             logger.error("add log failed due to system error. ", e);
             return new ResponseData<>(false, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR);
         }
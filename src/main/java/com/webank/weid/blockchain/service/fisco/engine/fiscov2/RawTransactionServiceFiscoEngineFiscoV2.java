@@ -10,6 +10,7 @@ import com.webank.weid.blockchain.protocol.response.ResponseData;
 import com.webank.weid.blockchain.protocol.response.TransactionInfo;
 import com.webank.weid.blockchain.service.fisco.BaseServiceFisco;
 import com.webank.weid.blockchain.service.fisco.engine.BaseEngineFisco;
+import com.webank.weid.blockchain.service.fisco.engine.ContractSet;
 import com.webank.weid.blockchain.service.fisco.engine.RawTransactionServiceEngineFisco;
 import com.webank.weid.blockchain.util.DataToolUtils;
 import org.apache.commons.collections4.CollectionUtils;
@@ -42,38 +43,29 @@ public class RawTransactionServiceFiscoEngineFiscoV2 extends BaseEngineFisco imp
     private static final Logger logger = LoggerFactory
         .getLogger(RawTransactionServiceFiscoEngineFiscoV2.class);
 
-    /**
-     * WeIdentity DID contract object, for calling WeId contract.
-     */
-    private static WeIdContract weIdContract;
-
-    /**
-     * AuthorityIssuer contract object, for calling AuthorityIssuer contract.
-     */
-    private static AuthorityIssuerController authorityIssuerController;
-
-    /**
-     * cpt contract object, for calling cpt contract.
-     */
-    private static CptController cptController;
-    
     /**
      * 构造函数.
      */
     public RawTransactionServiceFiscoEngineFiscoV2() {
-        if (weIdContract == null || authorityIssuerController == null || cptController == null) {
-            reload(); 
-        }
     }
     
     /**
      * 重新加载静态合约对象.
      */
     public void reload() {
-        weIdContract = getContractService(BaseServiceFisco.fiscoConfig.getWeIdAddress(), WeIdContract.class);
-        authorityIssuerController = getContractService(BaseServiceFisco.fiscoConfig.getIssuerAddress(),
-            AuthorityIssuerController.class); 
-        cptController = getContractService(BaseServiceFisco.fiscoConfig.getCptAddress(), CptController.class);
+        ContractSet.reload();
+    }
+
+    private static WeIdContract weIdContract() {
+        return ContractSet.current().get(WeIdContract.class);
+    }
+
+    private static AuthorityIssuerController authorityIssuerController() {
+        return ContractSet.current().get(AuthorityIssuerController.class);
+    }
+
+    private static CptController cptController() {
+        return ContractSet.current().get(CptController.class);
     }
 
     /**
@@ -197,7 +189,7 @@ public class RawTransactionServiceFiscoEngineFiscoV2 extends BaseEngineFisco imp
         try {
             TransactionReceipt transactionReceipt = sendTransaction(transactionHex);
             List<WeIdContract.CreateWeIdEventResponse> response =
-                weIdContract.getCreateWeIdEvents(transactionReceipt);
+                weIdContract().getCreateWeIdEvents(transactionReceipt);
             TransactionInfo info = new TransactionInfo(transactionReceipt);
             if (!CollectionUtils.isEmpty(response)) {
                 return new ResponseData<>(Boolean.TRUE.toString(), ErrorCode.SUCCESS, info);
@@ -218,7 +210,7 @@ public class RawTransactionServiceFiscoEngineFiscoV2 extends BaseEngineFisco imp
             TransactionReceipt transactionReceipt = sendTransaction(transactionHex);
 
             List<AuthorityIssuerRetLogEventResponse> eventList =
-                authorityIssuerController.getAuthorityIssuerRetLogEvents(transactionReceipt);
+                authorityIssuerController().getAuthorityIssuerRetLogEvents(transactionReceipt);
             AuthorityIssuerRetLogEventResponse event = eventList.get(0);
             TransactionInfo info = new TransactionInfo(transactionReceipt);
             ErrorCode errorCode = verifyAuthorityIssuerRelatedEvent(event,
@@ -242,7 +234,7 @@ public class RawTransactionServiceFiscoEngineFiscoV2 extends BaseEngineFisco imp
             CptBaseInfo cptBaseInfo =
                 resolveRegisterCptEvents(
                     transactionReceipt,
-                    cptController
+                    cptController()
                 ).getResult();
 
             TransactionInfo info = new TransactionInfo(transactionReceipt);
@@ -4,6 +4,7 @@ package com.webank.weid.blockchain.service.fisco.engine.fiscov3;
 
 import com.webank.weid.blockchain.constant.ErrorCode;
 import com.webank.weid.blockchain.constant.WeIdConstant;
+import com.webank.weid.blockchain.exception.WeIdBaseException;
 import com.webank.weid.blockchain.protocol.base.AuthorityIssuer;
 import com.webank.weid.blockchain.protocol.base.IssuerType;
 import com.webank.weid.blockchain.protocol.request.RegisterAuthorityIssuerArgs;
@@ -12,6 +13,8 @@ import com.webank.weid.blockchain.protocol.response.TransactionInfo;
 import com.webank.weid.blockchain.service.fisco.BaseServiceFisco;
 import com.webank.weid.blockchain.service.fisco.engine.AuthorityIssuerServiceEngine;
 import com.webank.weid.blockchain.service.fisco.engine.BaseEngineFisco;
+import com.webank.weid.blockchain.service.fisco.engine.ContractSet;
+import com.webank.weid.blockchain.service.fisco.engine.IssuerRegistrySnapshot;
 import com.webank.weid.blockchain.util.DataToolUtils;
 import com.webank.weid.blockchain.util.DateUtils;
 import com.webank.weid.blockchain.util.WeIdUtils;
@@ -42,17 +45,13 @@ public class AuthorityIssuerEngineV3 extends BaseEngineFisco implements Authorit
     private static final Logger logger = LoggerFactory.getLogger(
         AuthorityIssuerEngineV3.class);
 
-    private static AuthorityIssuerController authorityIssuerController;
-    private static SpecificIssuerController specificIssuerController;
     private static SpecificIssuerData specificIssuerData;
 
     /**
      * 构造函数.
      */
     public AuthorityIssuerEngineV3() {
-        if (authorityIssuerController == null || specificIssuerController == null) {
-            reload();
-        }
+        IssuerRegistrySnapshot.start(this, this::queryAuthorityIssuer);
     }
 
     /**
@@ -60,10 +59,15 @@ public class AuthorityIssuerEngineV3 extends BaseEngineFisco implements Authorit
      */
     @Override
     public void reload() {
-        authorityIssuerController = getContractService(BaseServiceFisco.fiscoConfig.getIssuerAddress(),
-            AuthorityIssuerController.class);
-        specificIssuerController = getContractService(BaseServiceFisco.fiscoConfig.getSpecificIssuerAddress(),
-            SpecificIssuerController.class);
+        ContractSet.reload();
+    }
+
+    private static AuthorityIssuerController authorityIssuerController() {
+        return ContractSet.current().get(AuthorityIssuerController.class);
+    }
+
+    private static SpecificIssuerController specificIssuerController() {
+        return ContractSet.current().get(SpecificIssuerController.class);
     }
 
     @Override
@@ -71,7 +75,7 @@ public class AuthorityIssuerEngineV3 extends BaseEngineFisco implements Authorit
         try {
             byte[] name = new byte[32];
             System.arraycopy(orgId.getBytes(), 0, name, 0, orgId.getBytes().length);
-            String address = authorityIssuerController
+            String address = authorityIssuerController()
                 .getAddressFromName(name);
             if (WeIdConstant.EMPTY_ADDRESS.equalsIgnoreCase(address)) {
                 return new ResponseData<>(StringUtils.EMPTY,
@@ -129,6 +133,7 @@ public class AuthorityIssuerEngineV3 extends BaseEngineFisco implements Authorit
                 authorityIssuer.getAccValue().getBytes()
             );
             ErrorCode errorCode = resolveRegisterAuthorityIssuerEvents(receipt);
+            IssuerRegistrySnapshot.invalidate();
             TransactionInfo info = new TransactionInfo(receipt);
             if (errorCode.equals(ErrorCode.SUCCESS)) {
                 return new ResponseData<>(Boolean.TRUE, ErrorCode.SUCCESS, info);
@@ -136,6 +141,7 @@ public class AuthorityIssuerEngineV3 extends BaseEngineFisco implements Authorit
                 return new ResponseData<>(Boolean.FALSE, errorCode, info);
             }
         } catch (Exception e) {
+            IssuerRegistrySnapshot.invalidate();
             logger.error("register authority issuer failed.", e);
             return new ResponseData<>(Boolean.FALSE, ErrorCode.AUTHORITY_ISSUER_ERROR);
         }
@@ -144,7 +150,7 @@ public class AuthorityIssuerEngineV3 extends BaseEngineFisco implements Authorit
     private ErrorCode resolveRegisterAuthorityIssuerEvents(
         TransactionReceipt transactionReceipt) {
         List<AuthorityIssuerRetLogEventResponse> eventList =
-            authorityIssuerController.getAuthorityIssuerRetLogEvents(transactionReceipt);
+            authorityIssuerController().getAuthorityIssuerRetLogEvents(transactionReceipt);
 
         AuthorityIssuerRetLogEventResponse event = eventList.get(0);
         if (event != null) {
@@ -194,6 +200,7 @@ public class AuthorityIssuerEngineV3 extends BaseEngineFisco implements Authorit
             List<AuthorityIssuerRetLogEventResponse> eventList =
                 authorityIssuerController.getAuthorityIssuerRetLogEvents(receipt);
 
+            IssuerRegistrySnapshot.invalidate();
             TransactionInfo info = new TransactionInfo(receipt);
             AuthorityIssuerRetLogEventResponse event = eventList.get(0);
 
@@ -212,6 +219,7 @@ public class AuthorityIssuerEngineV3 extends BaseEngineFisco implements Authorit
                 return new ResponseData<>(false, ErrorCode.AUTHORITY_ISSUER_ERROR, info);
             }
         } catch (Exception e) {
+            IssuerRegistrySnapshot.invalidate();
             logger.error("remove authority issuer failed.", e);
             return new ResponseData<>(false, ErrorCode.AUTHORITY_ISSUER_ERROR);
         }
@@ -233,6 +241,7 @@ public class AuthorityIssuerEngineV3 extends BaseEngineFisco implements Authorit
             }
             List<AuthorityIssuerRetLogEventResponse> eventList =
                 authorityIssuerController.getAuthorityIssuerRetLogEvents(receipt);
+            IssuerRegistrySnapshot.invalidate();
             TransactionInfo info = new TransactionInfo(receipt);
             AuthorityIssuerRetLogEventResponse event = eventList.get(0);
             if (event != null) {
@@ -259,6 +268,7 @@ public class AuthorityIssuerEngineV3 extends BaseEngineFisco implements Authorit
             }
 
         } catch (Exception e) {
+            IssuerRegistrySnapshot.invalidate();
             logger.error("(de-)recognize authority issuer failed.", e);
             return new ResponseData<>(false, ErrorCode.AUTHORITY_ISSUER_ERROR.getCode(),
                 e.getMessage());
@@ -271,10 +281,13 @@ public class AuthorityIssuerEngineV3 extends BaseEngineFisco implements Authorit
      */
     @Override
     public ResponseData<Boolean> isAuthorityIssuer(String address) {
+        Boolean snapshotResult = IssuerRegistrySnapshot.isAuthorityIssuer(address);
+        if (snapshotResult != null) {
+            return new ResponseData<>(snapshotResult, ErrorCode.SUCCESS);
+        }
         ResponseData<Boolean> resultData = new ResponseData<Boolean>();
         try {
-            Boolean result = authorityIssuerController.isAuthorityIssuer(
-                address);
+            Boolean result = queryAuthorityIssuer(address);
             resultData.setResult(result);
             if (result != null) {
                 resultData.setErrorCode(ErrorCode.SUCCESS);
@@ -289,6 +302,20 @@ public class AuthorityIssuerEngineV3 extends BaseEngineFisco implements Authorit
 
     }
 
+    /**
+     * 直接查询链上地址是否为权威发行者.
+     *
+     * @param address 地址
+     * @return 是否为权威发行者
+     */
+    private Boolean queryAuthorityIssuer(String address) {
+        try {
+            return authorityIssuerController().isAuthorityIssuer(address);
+        } catch (Exception e) {
+            throw new WeIdBaseException(ErrorCode.AUTHORITY_ISSUER_ERROR);
+        }
+    }
+
     /* (non-Javadoc)
      * @see com.webank.weid.blockchain.service.fisco.engine.AuthorityIssuerController
      * #getAuthorityIssuerInfoNonAccValue(java.lang.String)
@@ -298,7 +325,7 @@ public class AuthorityIssuerEngineV3 extends BaseEngineFisco implements Authorit
         ResponseData<AuthorityIssuer> resultData = new ResponseData<AuthorityIssuer>();
         try {
             Tuple2<List<byte[]>, List<BigInteger>> rawResult =
-                authorityIssuerController.getAuthorityIssuerInfoNonAccValue(
+                authorityIssuerController().getAuthorityIssuerInfoNonAccValue(
                     WeIdUtils.convertWeIdToAddress(weId));
             if (rawResult == null) {
                 return new ResponseData<>(null, ErrorCode.AUTHORITY_ISSUER_ERROR);
@@ -371,7 +398,7 @@ public class AuthorityIssuerEngineV3 extends BaseEngineFisco implements Authorit
         List<String> addressList = new ArrayList<>();
         try {
             addressList =
-                authorityIssuerController.getAuthorityIssuerAddressList(
+                authorityIssuerController().getAuthorityIssuerAddressList(
                     new BigInteger(index.toString()),
                     new BigInteger(num.toString())
                 );
@@ -399,10 +426,12 @@ public class AuthorityIssuerEngineV3 extends BaseEngineFisco implements Authorit
                 issuerAddress);
 
             ErrorCode errorCode = resolveSpecificIssuerEvents(receipt, false, issuerAddress);
+            IssuerRegistrySnapshot.invalidate();
             TransactionInfo info = new TransactionInfo(receipt);
             return new ResponseData<>(errorCode.getCode() == ErrorCode.SUCCESS.getCode(),
                 errorCode, info);
         } catch (Exception e) {
+            IssuerRegistrySnapshot.invalidate();
             logger.error("remove issuer from type failed.", e);
             return new ResponseData<>(false, ErrorCode.AUTHORITY_ISSUER_ERROR);
         }
@@ -413,7 +442,7 @@ public class AuthorityIssuerEngineV3 extends BaseEngineFisco implements Authorit
         boolean isRegister,
         String address) {
         List<SpecificIssuerRetLogEventResponse> eventList =
-            specificIssuerController.getSpecificIssuerRetLogEvents(transactionReceipt);
+            specificIssuerController().getSpecificIssuerRetLogEvents(transactionReceipt);
 
         SpecificIssuerRetLogEventResponse event = eventList.get(0);
         if (event != null) {
@@ -447,8 +476,15 @@ public class AuthorityIssuerEngineV3 extends BaseEngineFisco implements Authorit
      */
     @Override
     public ResponseData<Boolean> isSpecificTypeIssuer(String issuerType, String address) {
+        Boolean snapshotResult = IssuerRegistrySnapshot.isSpecificTypeIssuer(issuerType, address);
+        if (snapshotResult != null) {
+            return snapshotResult
+                ? new ResponseData<>(true, ErrorCode.SUCCESS)
+                : new ResponseData<>(false,
+                    ErrorCode.SPECIFIC_ISSUER_CONTRACT_ERROR_ALREADY_NOT_EXIST);
+        }
         try {
-            Boolean result = specificIssuerController.isSpecificTypeIssuer(
+            Boolean result = specificIssuerController().isSpecificTypeIssuer(
                 DataToolUtils.stringToByte32Array(issuerType),
                 address
             );
@@ -474,7 +510,7 @@ public class AuthorityIssuerEngineV3 extends BaseEngineFisco implements Authorit
         List<String> addresses = new ArrayList<>();
         try {
 
-            addresses = specificIssuerController.getSpecificTypeIssuerList(
+            addresses = specificIssuerController().getSpecificTypeIssuerList(
                 DataToolUtils.stringToByte32Array(issuerType),
                 new BigInteger(index.toString()),
                 new BigInteger(num.toString())
@@ -509,10 +545,12 @@ public class AuthorityIssuerEngineV3 extends BaseEngineFisco implements Authorit
             // pass-in empty address
             String emptyAddress = new Address(BigInteger.ZERO).toString();
             ErrorCode errorCode = resolveSpecificIssuerEvents(receipt, true, emptyAddress);
+            IssuerRegistrySnapshot.invalidate();
             TransactionInfo info = new TransactionInfo(receipt);
             return new ResponseData<>(errorCode.getCode() == ErrorCode.SUCCESS.getCode(),
                 errorCode, info);
         } catch (Exception e) {
+            IssuerRegistrySnapshot.invalidate();
             logger.error("register issuer type failed.", e);
             return new ResponseData<>(false, ErrorCode.AUTHORITY_ISSUER_ERROR);
         }
@@ -535,10 +573,12 @@ public class AuthorityIssuerEngineV3 extends BaseEngineFisco implements Authorit
                 issuerAddress
             );
             ErrorCode errorCode = resolveSpecificIssuerEvents(receipt, true, issuerAddress);
+            IssuerRegistrySnapshot.invalidate();
             TransactionInfo info = new TransactionInfo(receipt);
             return new ResponseData<>(errorCode.getCode() == ErrorCode.SUCCESS.getCode(),
                 errorCode, info);
         } catch (Exception e) {
+            IssuerRegistrySnapshot.invalidate();
             logger.error("add issuer into type failed.", e);
             return new ResponseData<>(false, ErrorCode.AUTHORITY_ISSUER_ERROR);
         }
@@ -547,7 +587,7 @@ public class AuthorityIssuerEngineV3 extends BaseEngineFisco implements Authorit
     @Override
     public ResponseData<Integer> getIssuerCount() {
         try {
-            Integer count = authorityIssuerController.getTotalIssuer().intValue();
+            Integer count = authorityIssuerController().getTotalIssuer().intValue();
             return new ResponseData<>(count, ErrorCode.SUCCESS);
         } catch (Exception e) {
             logger.error("[getIssuerCount] query IssuerCount failed. exception message: ", e);
@@ -558,7 +598,7 @@ public class AuthorityIssuerEngineV3 extends BaseEngineFisco implements Authorit
     @Override
     public ResponseData<Integer> getSpecificTypeIssuerSize(String issuerType) {
         try {
-            Integer count = specificIssuerController.getSpecificTypeIssuerSize(
+            Integer count = specificIssuerController().getSpecificTypeIssuerSize(
                 DataToolUtils.stringToByte32Array(issuerType)).intValue();
             return new ResponseData<>(count, ErrorCode.SUCCESS);
         } catch (Exception e) {
@@ -570,7 +610,7 @@ public class AuthorityIssuerEngineV3 extends BaseEngineFisco implements Authorit
     @Override
     public ResponseData<Integer> getRecognizedIssuerCount() {
         try {
-            Integer count = authorityIssuerController.getRecognizedIssuerCount().intValue();
+            Integer count = authorityIssuerController().getRecognizedIssuerCount().intValue();
             return new ResponseData<>(count, ErrorCode.SUCCESS);
         } catch (Exception e) {
             logger.error(
@@ -583,7 +623,7 @@ public class AuthorityIssuerEngineV3 extends BaseEngineFisco implements Authorit
     @Override
     public ResponseData<Integer> getIssuerTypeCount() {
         try {
-            Integer count = specificIssuerController.getIssuerTypeCount().intValue();
+            Integer count = specificIssuerController().getIssuerTypeCount().intValue();
             return new ResponseData<>(count, ErrorCode.SUCCESS);
         } catch (Exception e) {
             logger.error(
@@ -605,10 +645,12 @@ public class AuthorityIssuerEngineV3 extends BaseEngineFisco implements Authorit
             // pass-in empty address
             String emptyAddress = new Address(BigInteger.ZERO).toString();
             ErrorCode errorCode = resolveSpecificIssuerEvents(receipt, false, emptyAddress);
+            IssuerRegistrySnapshot.invalidate();
             TransactionInfo info = new TransactionInfo(receipt);
             return new ResponseData<>(errorCode.getCode() == ErrorCode.SUCCESS.getCode(),
                 errorCode, info);
         } catch (Exception e) {
+            IssuerRegistrySnapshot.invalidate();
             logger.error("remove issuer type failed.", e);
             return new ResponseData<>(false, ErrorCode.TRANSACTION_EXECUTE_ERROR);
         }
@@ -619,7 +661,7 @@ public class AuthorityIssuerEngineV3 extends BaseEngineFisco implements Authorit
         List<IssuerType> list = new ArrayList<IssuerType>();
         try {
             Tuple3<List<byte[]>, List<String>, List<BigInteger>> tuple =
-                specificIssuerController.getIssuerTypeList(
+                specificIssuerController().getIssuerTypeList(
                     new BigInteger(index.toString()), 
                     new BigInteger(num.toString())
                 );
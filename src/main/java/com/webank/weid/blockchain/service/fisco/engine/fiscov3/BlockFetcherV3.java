@@ -0,0 +1,41 @@
+package com.webank.weid.blockchain.service.fisco.engine.fiscov3;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.fisco.bcos.sdk.v3.client.Client;
+import org.fisco.bcos.sdk.v3.client.protocol.response.BcosBlock;
+import org.fisco.bcos.sdk.v3.model.TransactionReceipt;
+
+import com.webank.weid.blockchain.service.fisco.BaseServiceFisco;
+import com.webank.weid.blockchain.service.fisco.engine.BlockFetcher;
+
+/**
+ * FISCO BCOS 3.x的区块回执查询, 回执类型为v3的TransactionReceipt.
+ */
+public class BlockFetcherV3 implements BlockFetcher {
+
+    @Override
+    public List<Object> getReceipts(long blockNumber) throws Exception {
+        Client client = (Client) BaseServiceFisco.getClient();
+        BcosBlock bcosBlock = client.getBlockByNumber(BigInteger.valueOf(blockNumber), false, true);
+        List<Object> receipts = new ArrayList<>();
+        if (bcosBlock == null || bcosBlock.getBlock() == null) {
+            return receipts;
+        }
+        List<String> transList = bcosBlock.getBlock().getTransactions().stream()
+            .map(transactionResult -> (String) transactionResult.get())
+            .collect(Collectors.toList());
+        for (String transactionHash : transList) {
+            TransactionReceipt receipt = client
+                .getTransactionReceipt(transactionHash, false)
+                .getTransactionReceipt();
+            if (receipt != null) {
+                receipts.add(receipt);
+            }
+        }
+        return receipts;
+    }
+}
@@ -3,7 +3,11 @@
 package com.webank.weid.blockchain.service.fisco.engine.fiscov3;
 
 import com.webank.weid.blockchain.service.fisco.engine.BaseEngineFisco;
+import com.webank.weid.blockchain.service.fisco.engine.ContractSet;
+import com.webank.weid.blockchain.service.fisco.engine.CptCache;
 import com.webank.weid.blockchain.service.fisco.engine.CptServiceEngineFisco;
+import com.webank.weid.blockchain.service.fisco.engine.CredentialTemplateCache;
+import com.webank.weid.blockchain.service.fisco.engine.ReceiptScanner;
 import com.webank.wedpr.selectivedisclosure.CredentialTemplateEntity;
 import com.webank.wedpr.selectivedisclosure.proto.AttributeTemplate;
 import com.webank.wedpr.selectivedisclosure.proto.AttributeTemplate.Builder;
@@ -20,6 +24,7 @@ import com.webank.weid.blockchain.protocol.base.CptBaseInfo;
 import com.webank.weid.blockchain.protocol.base.PresentationPolicyE;
 import com.webank.weid.blockchain.protocol.response.ResponseData;
 import com.webank.weid.blockchain.protocol.response.RsvSignature;
+import com.webank.weid.blockchain.protocol.response.TransactionInfo;
 import com.webank.weid.blockchain.util.DataToolUtils;
 import com.webank.weid.blockchain.util.JsonUtil;
 import com.webank.weid.blockchain.util.TransactionUtils;
@@ -55,7 +60,6 @@ public class CptServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements Cpt
         CptServiceFiscoEngineFiscoV3.class);
     private static final String CREDENTIAL_TEMPLATE_EVENT = new EventEncoder(
         ((Client)getClient()).getCryptoSuite()).encode(CptController.CREDENTIALTEMPLATE_EVENT);;
-    private static CptController cptController;
     /*private static Persistence dataDriver;
     private static PersistenceType persistenceType;*/
     private static Client client =  (Client) getClient();
@@ -64,9 +68,6 @@ public class CptServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements Cpt
      * 构造函数.
      */
     public CptServiceFiscoEngineFiscoV3() {
-        if (cptController == null) {
-            reload();
-        }
     }
 
     /**
@@ -74,7 +75,11 @@ public class CptServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements Cpt
      */
     @Override
     public void reload() {
-        cptController = getContractService(fiscoConfig.getCptAddress(), CptController.class);
+        ContractSet.reload();
+    }
+
+    private static CptController cptController() {
+        return ContractSet.current().get(CptController.class);
     }
 
     /*private static Persistence getDataDriver() {
@@ -142,6 +147,8 @@ public class CptServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements Cpt
                 );
             }
 
+            CptCache.invalidateLatest(dataStorageIndex, cptId);
+            CredentialTemplateCache.invalidate(cptId);
             ResponseData<CptBaseInfo> response = processUpdateEventLog(cptController,
                 transactionReceipt);
             if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
@@ -155,6 +162,8 @@ public class CptServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements Cpt
             }*/
             return response;
         } catch (Exception e) {
+            CptCache.invalidateLatest(dataStorageIndex, cptId);
+            CredentialTemplateCache.invalidate(cptId);
             logger.error("[updateCpt] cptId limited max value. cptId:{}", cptId, e);
             return new ResponseData<>(null, ErrorCode.UNKNOW_ERROR);
         }
@@ -311,15 +320,16 @@ public class CptServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements Cpt
     @Override
     public ResponseData<Boolean> putCredentialTemplate(Integer cptId, String credentialPublicKey, String credentialKeyCorrectnessProof) {
         try {
-            TransactionReceipt receipt = cptController.putCredentialTemplate(
+            TransactionReceipt receipt = cptController().putCredentialTemplate(
                     new BigInteger(String.valueOf(cptId)),
                     credentialPublicKey.getBytes(),
                     credentialKeyCorrectnessProof.getBytes());
-            if (receipt.getStatus() == ParamKeyConstant.TRNSACTION_RECEIPT_STATUS_SUCCESS_V3) {
-
+            if (receipt.getStatus() != ParamKeyConstant.TRNSACTION_RECEIPT_STATUS_SUCCESS_V3) {
                 logger.error("[processTemplate] put credential template to blockchain failed.");
                 return new ResponseData<Boolean>(false, ErrorCode.CPT_CREDENTIAL_TEMPLATE_SAVE_ERROR);
             }
+            // 记录交易, 查询时可以直接读取该交易的回执
+            CredentialTemplateCache.recordTransaction(cptId, new TransactionInfo(receipt));
         } catch (Exception e) {
             logger.error("[processTemplate] process credential template failed.", e);
             return new ResponseData<Boolean>(false, ErrorCode.CPT_CREDENTIAL_TEMPLATE_SAVE_ERROR);
@@ -384,13 +394,17 @@ public class CptServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements Cpt
     public ResponseData<Cpt> queryCpt(int cptId, int dataStorageIndex) {
 
         try {
+            Cpt latest = CptCache.getLatest(dataStorageIndex, cptId);
+            if (latest != null) {
+                return new ResponseData<>(latest, ErrorCode.SUCCESS);
+            }
             Tuple7<String, List<BigInteger>, List<byte[]>, List<byte[]>,
                                         BigInteger, byte[], byte[]> valueList;
             if (dataStorageIndex == WeIdConstant.CPT_DATA_INDEX) {
-                valueList = cptController
+                valueList = cptController()
                     .queryCpt(new BigInteger(String.valueOf(cptId)));
             } else {
-                valueList = cptController
+                valueList = cptController()
                     .queryPolicy(new BigInteger(String.valueOf(cptId)));
             }
 
@@ -403,6 +417,12 @@ public class CptServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements Cpt
                 logger.error("Query cpt id : {} does not exist.", cptId);
                 return new ResponseData<>(null, ErrorCode.CPT_NOT_EXISTS);
             }
+            // 版本号已缓存时跳过schema和签名的解析
+            Cpt cached = CptCache.get(
+                dataStorageIndex, cptId, valueList.getValue2().get(0).intValue());
+            if (cached != null) {
+                return new ResponseData<>(cached, ErrorCode.SUCCESS);
+            }
             Cpt cpt = new Cpt();
             cpt.setCptId(cptId);
             cpt.setCptPublisher(
@@ -448,6 +468,7 @@ public class CptServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements Cpt
             }
             //cpt.setCptSignature(cptSignature);
 
+            CptCache.put(dataStorageIndex, cpt);
             ResponseData<Cpt> responseData = new ResponseData<Cpt>(cpt, ErrorCode.SUCCESS);
             return responseData;
         } catch (Exception e) {
@@ -463,9 +484,13 @@ public class CptServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements Cpt
     @Override
     public ResponseData<CredentialTemplateEntity> queryCredentialTemplate(Integer cptId) {
 
+        CredentialTemplateEntity cached = CredentialTemplateCache.get(cptId);
+        if (cached != null) {
+            return new ResponseData<CredentialTemplateEntity>(cached, ErrorCode.SUCCESS);
+        }
         int blockNum = 0;
         try {
-            blockNum = cptController
+            blockNum = cptController()
                 .getCredentialTemplateBlock(new BigInteger(String.valueOf(cptId)))
                 .intValue();
         } catch (Exception e1) {
@@ -481,46 +506,49 @@ public class CptServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements Cpt
                 cptId);
             return new ResponseData<CredentialTemplateEntity>(null, ErrorCode.BASE_ERROR);
         }
-        BcosBlock bcosBlock = null;
-        bcosBlock = ((Client) getClient())
-            .getBlockByNumber(BigInteger.valueOf(blockNum), false, false);
-        if (bcosBlock == null) {
-            logger.info(
-                "[queryCredentialTemplate]:get block by number :{} . latestBlock is null",
-                blockNum);
-            return new ResponseData<CredentialTemplateEntity>(null, ErrorCode.BASE_ERROR);
+        CredentialTemplateEventResponse eventResponse = null;
+        String recordedHash = CredentialTemplateCache.getTransactionHash(cptId, blockNum);
+        if (recordedHash != null) {
+            try {
+                eventResponse = getCredentialTemplateEvent(cptId, recordedHash);
+            } catch (Exception e) {
+                logger.warn("[queryCredentialTemplate] read recorded transaction {} failed, "
+                    + "scan block {} instead.", recordedHash, blockNum, e);
+            }
         }
+        if (eventResponse == null) {
+            BcosBlock bcosBlock = ((Client) getClient())
+                .getBlockByNumber(BigInteger.valueOf(blockNum), false, false);
+            if (bcosBlock == null) {
+                logger.info(
+                    "[queryCredentialTemplate]:get block by number :{} . latestBlock is null",
+                    blockNum);
+                return new ResponseData<CredentialTemplateEntity>(null, ErrorCode.BASE_ERROR);
+            }
 
-        List<String> transList = bcosBlock.getBlock().getTransactions().stream()
-            .map(transactionResult -> (String) transactionResult.get())
-            .collect(Collectors.toList());
+            List<String> transList = bcosBlock.getBlock().getTransactions().stream()
+                .map(transactionResult -> (String) transactionResult.get())
+                .collect(Collectors.toList());
+            try {
+                eventResponse = ReceiptScanner.findFirst(
+                    transList, transHash -> getCredentialTemplateEvent(cptId, transHash));
+            } catch (Exception e) {
+                logger.error("[queryCredentialTemplate] scan block {} has error.", blockNum, e);
+                return new ResponseData<CredentialTemplateEntity>(null, ErrorCode.UNKNOW_ERROR);
+            }
+        }
 
         CredentialTemplateEntity credentialTemplateStorage = new CredentialTemplateEntity();
         try {
-            for (String transHash : transList) {
-                //String transHash = transaction.getHash();
-
-                TransactionReceipt receipt = ((Client) getClient())
-                    .getTransactionReceipt(transHash, true)
-                    .getTransactionReceipt();
-                List<TransactionReceipt.Logs> logs = receipt.getLogEntries();
-                for (TransactionReceipt.Logs log : logs) {
-
-                    if (StringUtils.equals(log.getTopics().get(0), CREDENTIAL_TEMPLATE_EVENT)) {
-                        List<CredentialTemplateEventResponse> event = cptController
-                            .getCredentialTemplateEvents(receipt);
-                        CredentialTemplateEventResponse eventResponse = event.get(0);
-                        byte[] proof = eventResponse.credentialProof;
-                        byte[] credentialPubKey = eventResponse.credentialPublicKey;
-                        credentialTemplateStorage
-                            .setCredentialKeyCorrectnessProof(DataToolUtils.byteToString(proof));
-                        TemplatePublicKey pubKey = TemplatePublicKey.newBuilder()
-                            .setCredentialPublicKey(DataToolUtils.byteToString(credentialPubKey))
-                            .build();
-                        credentialTemplateStorage.setPublicKey(pubKey);
-                        break;
-                    }
-                }
+            if (eventResponse != null) {
+                byte[] proof = eventResponse.credentialProof;
+                byte[] credentialPubKey = eventResponse.credentialPublicKey;
+                credentialTemplateStorage
+                    .setCredentialKeyCorrectnessProof(DataToolUtils.byteToString(proof));
+                TemplatePublicKey pubKey = TemplatePublicKey.newBuilder()
+                    .setCredentialPublicKey(DataToolUtils.byteToString(credentialPubKey))
+                    .build();
+                credentialTemplateStorage.setPublicKey(pubKey);
             }
             ResponseData<Cpt> resp = this.queryCpt(cptId, WeIdConstant.CPT_DATA_INDEX);
             Cpt cpt = resp.getResult();
@@ -540,10 +568,45 @@ public class CptServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements Cpt
             return new ResponseData<CredentialTemplateEntity>(null, ErrorCode.UNKNOW_ERROR);
         }
 
+        if (eventResponse != null) {
+            CredentialTemplateCache.put(cptId, credentialTemplateStorage);
+        }
         return new ResponseData<CredentialTemplateEntity>(credentialTemplateStorage,
             ErrorCode.SUCCESS);
     }
 
+    /**
+     * 读取交易回执中指定CPT的CredentialTemplate事件.
+     *
+     * @param cptId cptId
+     * @param transHash 交易哈希
+     * @return CredentialTemplate事件, 回执中没有该CPT的事件时返回null
+     */
+    private CredentialTemplateEventResponse getCredentialTemplateEvent(
+        Integer cptId,
+        String transHash
+    ) {
+        TransactionReceipt receipt = ((Client) getClient())
+            .getTransactionReceipt(transHash, true)
+            .getTransactionReceipt();
+        List<TransactionReceipt.Logs> logs = receipt.getLogEntries();
+        for (TransactionReceipt.Logs log : logs) {
+            if (CollectionUtils.isNotEmpty(log.getTopics())
+                && StringUtils.equals(log.getTopics().get(0), CREDENTIAL_TEMPLATE_EVENT)) {
+                List<CredentialTemplateEventResponse> events = cptController()
+                    .getCredentialTemplateEvents(receipt);
+                // 同一区块中可能有多个CPT的模板, 只取本CPT的
+                for (CredentialTemplateEventResponse event : events) {
+                    if (event.cptId != null && event.cptId.intValue() == cptId) {
+                        return event;
+                    }
+                }
+                return null;
+            }
+        }
+        return null;
+    }
+
     @Override
     public ResponseData<Integer> putPolicyIntoPresentation(List<Integer> policyIdList,
         String weIdPrivateKey) {
@@ -583,7 +646,7 @@ public class CptServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements Cpt
     @Override
     public ResponseData<PresentationPolicyE> getPolicyFromPresentation(Integer presentationId) {
         try {
-            Tuple2<List<BigInteger>, String> tuple = cptController
+            Tuple2<List<BigInteger>, String> tuple = cptController()
                 .getClaimPoliciesFromPresentationMap(
                     new BigInteger(String.valueOf(presentationId), 10));
             List<BigInteger> list = tuple.getValue1();
@@ -637,7 +700,7 @@ public class CptServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements Cpt
     @Override
     public ResponseData<List<Integer>> getPolicyFromCpt(Integer cptId) {
         try {
-            List list = cptController.getClaimPoliciesFromCptMap(
+            List list = cptController().getClaimPoliciesFromCptMap(
                 new BigInteger(String.valueOf(cptId), 10));
             List<Integer> policies = new ArrayList<>();
             for (Object obj : list) {
@@ -655,11 +718,11 @@ public class CptServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements Cpt
         try {
             List<?> list = null;
             if (dataStorageIndex == WeIdConstant.CPT_DATA_INDEX) {
-                list = cptController.getCptIdList(
+                list = cptController().getCptIdList(
                     new BigInteger(String.valueOf(startPos), 10),
                     new BigInteger(String.valueOf(num), 10));
             } else {
-                list = cptController.getPolicyIdList(
+                list = cptController().getPolicyIdList(
                     new BigInteger(String.valueOf(startPos), 10),
                     new BigInteger(String.valueOf(num), 10));
             }
@@ -679,9 +742,9 @@ public class CptServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements Cpt
         try {
             Integer count = null;
             if (dataStorageIndex == WeIdConstant.CPT_DATA_INDEX) {
-                count = cptController.getTotalCptId().intValue();
+                count = cptController().getTotalCptId().intValue();
             } else {
-                count = cptController.getTotalPolicyId().intValue();
+                count = cptController().getTotalPolicyId().intValue();
             }
             return new ResponseData<>(count, ErrorCode.SUCCESS);
         } catch (Exception e) {
@@ -1,6 +1,7 @@
 package com.webank.weid.blockchain.service.fisco.engine.fiscov3;
 
 import com.webank.weid.blockchain.service.fisco.engine.BaseEngineFisco;
+import com.webank.weid.blockchain.service.fisco.engine.DataBucketCache;
 import com.webank.weid.blockchain.constant.CnsType;
 import com.webank.weid.blockchain.constant.ErrorCode;
 import com.webank.weid.blockchain.constant.ParamKeyConstant;
@@ -82,6 +83,7 @@ public class DataBucketServiceFiscoEngineV3 extends BaseEngineFisco implements D
         try {
             TransactionReceipt receipt = getDataBucket(privateKey).put(
                 bucketId, keyByte32.getValue(), value);
+            invalidateItem(bucketId, key);
             if (receipt.getStatus() == ParamKeyConstant.TRNSACTION_RECEIPT_STATUS_SUCCESS_V3) {
                 logger.info("[put] put [{}:{}] into chain success, bucketId is {}.", 
                     key, value, bucketId);
@@ -92,6 +94,7 @@ public class DataBucketServiceFiscoEngineV3 extends BaseEngineFisco implements D
                 key, value, bucketId);
             return new ResponseData<Boolean>(false, ErrorCode.TRANSACTION_EXECUTE_ERROR);
         } catch (Exception e) {
+            invalidateItem(bucketId, key);
             logger.error("[put] put [{}:{}] into chain has excpetion, bucketId is {}, exception:",
                 key, value, bucketId, e);
             return new ResponseData<Boolean>(false, ErrorCode.UNKNOW_ERROR);
@@ -139,6 +142,18 @@ public class DataBucketServiceFiscoEngineV3 extends BaseEngineFisco implements D
 
     @Override
     public ResponseData<String> get(String bucketId, String key) {
+        String value = DataBucketCache.get(dataBucket.getContractAddress(), bucketId, key);
+        if (value != null) {
+            logger.debug("[get] get from cache, bucketId: {}, key: {}, value: {}",
+                bucketId, key, value);
+            return new ResponseData<String>(value, ErrorCode.SUCCESS);
+        }
+        return refresh(bucketId, key);
+    }
+
+    @Override
+    public ResponseData<String> refresh(String bucketId, String key) {
+        DataBucketCache.invalidate(dataBucket.getContractAddress(), bucketId, key);
         Bytes32 keyByte32 = DataToolUtils.bytesArrayToBytes32(key.getBytes());
         try {
             Tuple2<BigInteger, String> tuple = dataBucket.get(
@@ -148,8 +163,10 @@ public class DataBucketServiceFiscoEngineV3 extends BaseEngineFisco implements D
                 logger.error("[get] the bucketId does not exits, bucketId is {}.", bucketId);
                 return new ResponseData<String>(StringUtils.EMPTY, ErrorCode.CNS_DOES_NOT_EXIST);
             }
-            logger.info("[get] get address successfully, bucketId: {}, key: {}, value: {}", 
+            logger.debug("[get] get address successfully, bucketId: {}, key: {}, value: {}",
                 bucketId, key, tuple.getValue2());
+            DataBucketCache.put(
+                dataBucket.getContractAddress(), bucketId, key, tuple.getValue2());
             return new ResponseData<String>(tuple.getValue2(), ErrorCode.SUCCESS);  
         } catch (Exception e) {
             logger.error(
@@ -175,6 +192,7 @@ public class DataBucketServiceFiscoEngineV3 extends BaseEngineFisco implements D
             logger.info("[remove] remove Extra Item, bucketId is {}, key is {}.", bucketId, key);
             TransactionReceipt receipt = getDataBucket(privateKey).removeExtraItem(
                 bucketId, keyByte32.getValue());
+            invalidateItem(bucketId, key);
             if (receipt.getStatus() == ParamKeyConstant.TRNSACTION_RECEIPT_STATUS_SUCCESS_V3) {
 
                 logger.info("[remove] remove {} from chain success, bucketId is {}.", 
@@ -185,6 +203,7 @@ public class DataBucketServiceFiscoEngineV3 extends BaseEngineFisco implements D
             logger.error("[remove] remove {} from chain fail, bucketId is {}.", key, bucketId);
             return new ResponseData<Boolean>(false, ErrorCode.TRANSACTION_EXECUTE_ERROR);
         } catch (Exception e) {
+            invalidateItem(bucketId, key);
             logger.error("[remove] remove {} from chain has excpetion, bucketId is {}, exception:",
                 key, bucketId, e);
             return new ResponseData<Boolean>(false, ErrorCode.UNKNOW_ERROR);
@@ -202,6 +221,7 @@ public class DataBucketServiceFiscoEngineV3 extends BaseEngineFisco implements D
                 bucketId, force);
             TransactionReceipt receipt = getDataBucket(privateKey)
                 .removeDataBucketItem(bucketId, force);
+            invalidateBucket(bucketId);
             if (receipt.getStatus() == ParamKeyConstant.TRNSACTION_RECEIPT_STATUS_SUCCESS_V3) {
 
                 logger.info("[remove] remove Bucket Item from chain success, bucketId is {}.", 
@@ -212,6 +232,7 @@ public class DataBucketServiceFiscoEngineV3 extends BaseEngineFisco implements D
             logger.error("[remove] remove Bucket Item from chain fail, bucketId is {}.", bucketId);
             return new ResponseData<Boolean>(false, ErrorCode.TRANSACTION_EXECUTE_ERROR);
         } catch (Exception e) {
+            invalidateBucket(bucketId);
             logger.error(
                 "[remove] remove Bucket Item from chain has excpetion, bucketId is {}, exception:",
                 bucketId, 
@@ -226,6 +247,7 @@ public class DataBucketServiceFiscoEngineV3 extends BaseEngineFisco implements D
         try {
             TransactionReceipt receipt = getDataBucket(privateKey).enable(
                 bucketId);
+            invalidateBucket(bucketId);
             if (receipt.getStatus() == ParamKeyConstant.TRNSACTION_RECEIPT_STATUS_SUCCESS_V3) {
 
                 logger.info("[enable] enable Bucket success, bucketId is {}.", bucketId);
@@ -235,6 +257,7 @@ public class DataBucketServiceFiscoEngineV3 extends BaseEngineFisco implements D
             logger.error("[enable] enable Bucket fail, bucketId is {}.", bucketId);
             return new ResponseData<Boolean>(false, ErrorCode.TRANSACTION_EXECUTE_ERROR);
         } catch (Exception e) {
+            invalidateBucket(bucketId);
             logger.error("[enable] enable Bucket has excpetion, bucketId is {}, exception:",
                 bucketId, e);
             return new ResponseData<Boolean>(false, ErrorCode.UNKNOW_ERROR);
@@ -246,6 +269,7 @@ public class DataBucketServiceFiscoEngineV3 extends BaseEngineFisco implements D
         try {
             TransactionReceipt receipt = getDataBucket(privateKey).disable(
                 bucketId);
+            invalidateBucket(bucketId);
             if (receipt.getStatus() == ParamKeyConstant.TRNSACTION_RECEIPT_STATUS_SUCCESS_V3) {
 
                 logger.info("[disable] disable Bucket success, bucketId is {}.", bucketId);
@@ -255,12 +279,22 @@ public class DataBucketServiceFiscoEngineV3 extends BaseEngineFisco implements D
             logger.error("[disable] disable Bucket fail, bucketId is {}.", bucketId);
             return new ResponseData<Boolean>(false, ErrorCode.TRANSACTION_EXECUTE_ERROR);
         } catch (Exception e) {
+            invalidateBucket(bucketId);
             logger.error("[disable] disable Bucket has excpetion, bucketId is {}, exception:", 
                 bucketId, e);
             return new ResponseData<Boolean>(false, ErrorCode.UNKNOW_ERROR);
         }
     }
 
+    private void invalidateItem(String bucketId, String key) {
+        DataBucketCache.invalidate(dataBucket.getContractAddress(), bucketId,
+            key == null ? StringUtils.EMPTY : key);
+    }
+
+    private void invalidateBucket(String bucketId) {
+        DataBucketCache.invalidateBucket(dataBucket.getContractAddress(), bucketId);
+    }
+
     @Override
     public ResponseData<List<HashContract>> getAllBucket() {
         int startIndex = 0;
@@ -3,6 +3,7 @@
 package com.webank.weid.blockchain.service.fisco.engine.fiscov3;
 
 import com.webank.weid.blockchain.service.fisco.engine.BaseEngineFisco;
+import com.webank.weid.blockchain.service.fisco.engine.EvidenceCache;
 import com.webank.weid.blockchain.service.fisco.engine.EvidenceServiceEngineFisco;
 import com.webank.weid.blockchain.constant.CnsType;
 import com.webank.weid.blockchain.constant.ErrorCode;
@@ -117,6 +118,7 @@ public class EvidenceServiceFiscoEngineFiscoV3 extends BaseEngineFisco implement
                     timestampList
                 );
 
+            EvidenceCache.invalidateInfo(this.evidenceAddress, hashValue);
             TransactionInfo info = new TransactionInfo(receipt);
             List<EvidenceContract.CreateEvidenceEventResponse> eventList =
                 evidenceContract.getCreateEvidenceEvents(receipt);
@@ -137,6 +139,8 @@ public class EvidenceServiceFiscoEngineFiscoV3 extends BaseEngineFisco implement
             return new ResponseData<>(StringUtils.EMPTY,
                 ErrorCode.CREDENTIAL_EVIDENCE_CONTRACT_FAILURE_ILLEAGAL_INPUT);
         } catch (Exception e) {
+            // 交易结果未知, 同样使缓存失效
+            EvidenceCache.invalidateInfo(this.evidenceAddress, hashValue);
             logger.error("create evidence failed due to system error. ", e);
             return new ResponseData<>(StringUtils.EMPTY, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR);
         }
@@ -190,6 +194,7 @@ public class EvidenceServiceFiscoEngineFiscoV3 extends BaseEngineFisco implement
                     timestampList
                 );
 
+            invalidateInfo(hashValues);
             TransactionInfo info = new TransactionInfo(receipt);
             List<EvidenceContract.CreateEvidenceEventResponse> eventList =
                 evidenceContractWriter.getCreateEvidenceEvents(receipt);
@@ -210,6 +215,7 @@ public class EvidenceServiceFiscoEngineFiscoV3 extends BaseEngineFisco implement
                     ErrorCode.SUCCESS, info);
             }
         } catch (Exception e) {
+            invalidateInfo(hashValues);
             logger.error("create evidence failed due to system error. ", e);
             return new ResponseData<>(result, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR);
         }
@@ -267,6 +273,7 @@ public class EvidenceServiceFiscoEngineFiscoV3 extends BaseEngineFisco implement
                     customKeyList
                 );
 
+            invalidateInfo(hashValues);
             TransactionInfo info = new TransactionInfo(receipt);
             List<EvidenceContract.CreateEvidenceEventResponse> eventList =
                 evidenceContractWriter.getCreateEvidenceEvents(receipt);
@@ -288,6 +295,7 @@ public class EvidenceServiceFiscoEngineFiscoV3 extends BaseEngineFisco implement
                     ErrorCode.SUCCESS, info);
             }
         } catch (Exception e) {
+            invalidateInfo(hashValues);
             logger.error("create evidence failed due to system error. ", e);
             return new ResponseData<>(result, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR);
         }
@@ -333,6 +341,7 @@ public class EvidenceServiceFiscoEngineFiscoV3 extends BaseEngineFisco implement
                     logList,
                     timestampList
                 );
+            EvidenceCache.invalidateInfo(this.evidenceAddress, hashValue);
             TransactionInfo info = new TransactionInfo(receipt);
             List<EvidenceAttributeChangedEventResponse> eventList =
                 evidenceContractWriter.getEvidenceAttributeChangedEvents(receipt);
@@ -350,6 +359,8 @@ public class EvidenceServiceFiscoEngineFiscoV3 extends BaseEngineFisco implement
             return new ResponseData<>(false,
                 ErrorCode.CREDENTIAL_EVIDENCE_CONTRACT_FAILURE_ILLEAGAL_INPUT);
         } catch (Exception e) {
+            // 交易结果未知, 同样使缓存失效
+            EvidenceCache.invalidateInfo(this.evidenceAddress, hashValue);
             logger.error("add log failed due to system error. ", e);
             return new ResponseData<>(false, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR);
         }
@@ -400,6 +411,7 @@ public class EvidenceServiceFiscoEngineFiscoV3 extends BaseEngineFisco implement
                     timestampList,
                     customKeyList
                 );
+            EvidenceCache.invalidateInfo(this.evidenceAddress, hashValue);
             TransactionInfo info = new TransactionInfo(receipt);
             List<EvidenceAttributeChangedEventResponse> eventList =
                 evidenceContractWriter.getEvidenceAttributeChangedEvents(receipt);
@@ -417,6 +429,8 @@ public class EvidenceServiceFiscoEngineFiscoV3 extends BaseEngineFisco implement
             return new ResponseData<>(false,
                 ErrorCode.CREDENTIAL_EVIDENCE_CONTRACT_FAILURE_ILLEAGAL_INPUT);
         } catch (Exception e) {
+            // 交易结果未知, 同样使缓存失效
+            EvidenceCache.invalidateInfo(this.evidenceAddress, hashValue);
             logger.error("add log failed due to system error. ", e);
             return new ResponseData<>(false, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR);
         }
@@ -425,8 +439,7 @@ public class EvidenceServiceFiscoEngineFiscoV3 extends BaseEngineFisco implement
     @Override
     public ResponseData<String> getHashByCustomKey(String customKey) {
         try {
-            String hash = DataToolUtils.convertHashByte32ArrayIntoHashStr(
-                evidenceContract.getHashByExtraKey(customKey));
+            String hash = queryHashByCustomKey(customKey);
             if (!StringUtils.isEmpty(hash)) {
                 return new ResponseData<>(hash, ErrorCode.SUCCESS);
             }
@@ -436,6 +449,40 @@ public class EvidenceServiceFiscoEngineFiscoV3 extends BaseEngineFisco implement
         return new ResponseData<>(StringUtils.EMPTY, ErrorCode.CREDENTIAL_EVIDENCE_NOT_EXIST);
     }
 
+    /**
+     * 使一批hash的EvidenceInfo缓存失效.
+     *
+     * @param hashValues hash列表
+     */
+    private void invalidateInfo(List<String> hashValues) {
+        if (hashValues == null) {
+            return;
+        }
+        for (String hash : hashValues) {
+            EvidenceCache.invalidateInfo(this.evidenceAddress, hash);
+        }
+    }
+
+    /**
+     * 查询customKey绑定的hash, customKey只会绑定一次, 查到后记录在缓存中.
+     *
+     * @param customKey 自定义key
+     * @return hash, 未绑定时返回空
+     * @throws Exception 调用合约时可能出现的异常
+     */
+    private String queryHashByCustomKey(String customKey) throws Exception {
+        String hash = EvidenceCache.getHash(this.evidenceAddress, customKey);
+        if (hash != null) {
+            return hash;
+        }
+        hash = DataToolUtils.convertHashByte32ArrayIntoHashStr(
+            evidenceContract.getHashByExtraKey(customKey));
+        if (StringUtils.isNotBlank(hash)) {
+            EvidenceCache.putHash(this.evidenceAddress, customKey, hash);
+        }
+        return hash;
+    }
+
     /**
      * Get an evidence full info.
      *
@@ -444,6 +491,10 @@ public class EvidenceServiceFiscoEngineFiscoV3 extends BaseEngineFisco implement
      */
     @Override
     public ResponseData<EvidenceInfo> getInfo(String hash) {
+        EvidenceInfo cached = EvidenceCache.getInfo(this.evidenceAddress, hash);
+        if (cached != null) {
+            return new ResponseData<>(cached, ErrorCode.SUCCESS);
+        }
         EvidenceInfo evidenceInfo = new EvidenceInfo();
         evidenceInfo.setCredentialHash(hash);
         byte[] hashByte = DataToolUtils.convertHashStrIntoHashByte32Array(hash);
@@ -475,6 +526,7 @@ public class EvidenceServiceFiscoEngineFiscoV3 extends BaseEngineFisco implement
                 }
             }
             evidenceInfo.setSignInfo(signInfoMap);
+            EvidenceCache.putInfo(this.evidenceAddress, evidenceInfo);
             // Reverse the order of the list
             /*for (String signer : evidenceInfo.getSigners()) {
                 List<String> extraList = evidenceInfo.getSignInfo().get(signer).getLogs();
@@ -538,6 +590,7 @@ public class EvidenceServiceFiscoEngineFiscoV3 extends BaseEngineFisco implement
                     extraKeyList
                 );
 
+            EvidenceCache.invalidateInfo(this.evidenceAddress, hashValue);
             TransactionInfo info = new TransactionInfo(receipt);
             List<EvidenceContract.CreateEvidenceEventResponse> eventList =
                 evidenceContractWriter.getCreateEvidenceEvents(receipt);
@@ -558,6 +611,8 @@ public class EvidenceServiceFiscoEngineFiscoV3 extends BaseEngineFisco implement
             return new ResponseData<>(StringUtils.EMPTY,
                 ErrorCode.CREDENTIAL_EVIDENCE_CONTRACT_FAILURE_ILLEAGAL_INPUT);
         } catch (Exception e) {
+            // 交易结果未知, 同样使缓存失效
+            EvidenceCache.invalidateInfo(this.evidenceAddress, hashValue);
             logger.error("create evidence failed due to system error. ", e);
             return new ResponseData<>(StringUtils.EMPTY, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR);
         }
@@ -575,8 +630,7 @@ public class EvidenceServiceFiscoEngineFiscoV3 extends BaseEngineFisco implement
             return new ResponseData<EvidenceInfo>(null, ErrorCode.ILLEGAL_INPUT);
         }
         try {
-            String hash = DataToolUtils.convertHashByte32ArrayIntoHashStr(
-                evidenceContract.getHashByExtraKey(extraKey));
+            String hash = queryHashByCustomKey(extraKey);
             if (StringUtils.isBlank(hash)) {
                 logger.error("[getInfoByCustomKey] extraKey dose not match any hash. ");
                 return new ResponseData<EvidenceInfo>(null,
@@ -629,6 +683,7 @@ public class EvidenceServiceFiscoEngineFiscoV3 extends BaseEngineFisco implement
                     valueList,
                     timestampList
                 );
+            EvidenceCache.invalidateInfo(this.evidenceAddress, hashValue);
             TransactionInfo info = new TransactionInfo(receipt);
             List<EvidenceExtraAttributeChangedEventResponse> eventList =
                 evidenceContractWriter.getEvidenceExtraAttributeChangedEvents(receipt);
@@ -646,6 +701,8 @@ public class EvidenceServiceFiscoEngineFiscoV3 extends BaseEngineFisco implement
             return new ResponseData<>(false,
                 ErrorCode.CREDENTIAL_EVIDENCE_CONTRACT_FAILURE_ILLEAGAL_INPUT);
         } catch (Exception e) {
+            // 交易结果未知, 同样使缓存失效
+            EvidenceCache.invalidateInfo(this.evidenceAddress, hashValue);
             logger.error("add log failed due to system error. ", e);
             return new ResponseData<>(false, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR);
         }
@@ -672,6 +729,7 @@ public class EvidenceServiceFiscoEngineFiscoV3 extends BaseEngineFisco implement
                             address,
                             revokeStage
                     );
+            EvidenceCache.invalidateInfo(this.evidenceAddress, hashValue);
             TransactionInfo info = new TransactionInfo(receipt);
             List<EvidenceContract.RevokeEventResponse> eventList =
                     evidenceContractWriter.getRevokeEvents(receipt);
@@ -689,6 +747,8 @@ public class EvidenceServiceFiscoEngineFiscoV3 extends BaseEngineFisco implement
             return new ResponseData<>(false,
                     ErrorCode.CREDENTIAL_EVIDENCE_CONTRACT_FAILURE_ILLEAGAL_INPUT);
         } catch (Exception e) {
+            // 交易结果未知, 同样使缓存失效
+            EvidenceCache.invalidateInfo(this.evidenceAddress, hashValue);
             logger.error("add log failed due to system error. ", e);
             return new ResponseData<>(false, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR);
         }
@@ -3,6 +3,7 @@
 package com.webank.weid.blockchain.service.fisco.engine.fiscov3;
 
 import com.webank.weid.blockchain.service.fisco.engine.BaseEngineFisco;
+import com.webank.weid.blockchain.service.fisco.engine.ContractSet;
 import com.webank.weid.blockchain.constant.ErrorCode;
 import com.webank.weid.blockchain.constant.WeIdConstant;
 import com.webank.weid.contract.v3.AuthorityIssuerController;
@@ -43,28 +44,10 @@ public class RawTransactionServiceFiscoEngineFiscoV3 extends BaseEngineFisco imp
     private static final Logger logger = LoggerFactory
         .getLogger(RawTransactionServiceFiscoEngineFiscoV3.class);
 
-    /**
-     * WeIdentity DID contract object, for calling weIdentity DID contract.
-     */
-    private static WeIdContract weIdContract;
-
-    /**
-     * WeIdentity DID contract object, for calling weIdentity DID contract.
-     */
-    private static AuthorityIssuerController authorityIssuerController;
-
-    /**
-     * WeIdentity DID contract object, for calling weIdentity DID contract.
-     */
-    private static CptController cptController;
-    
     /**
      * 构造函数.
      */
     public RawTransactionServiceFiscoEngineFiscoV3() {
-        if (weIdContract == null || authorityIssuerController == null || cptController == null) {
-            reload(); 
-        }
     }
     
     /**
@@ -72,10 +55,19 @@ public class RawTransactionServiceFiscoEngineFiscoV3 extends BaseEngineFisco imp
      */
     @Override
     public void reload() {
-        weIdContract = getContractService(fiscoConfig.getWeIdAddress(), WeIdContract.class);
-        authorityIssuerController = getContractService(fiscoConfig.getIssuerAddress(), 
-            AuthorityIssuerController.class); 
-        cptController = getContractService(fiscoConfig.getCptAddress(), CptController.class); 
+        ContractSet.reload();
+    }
+
+    private static WeIdContract weIdContract() {
+        return ContractSet.current().get(WeIdContract.class);
+    }
+
+    private static AuthorityIssuerController authorityIssuerController() {
+        return ContractSet.current().get(AuthorityIssuerController.class);
+    }
+
+    private static CptController cptController() {
+        return ContractSet.current().get(CptController.class);
     }
 
     /**
@@ -190,7 +182,7 @@ public class RawTransactionServiceFiscoEngineFiscoV3 extends BaseEngineFisco imp
         try {
             TransactionReceipt transactionReceipt = sendTransaction(transactionHex);
             List<WeIdContract.CreateWeIdEventResponse> response =
-                weIdContract.getCreateWeIdEvents(transactionReceipt);
+                weIdContract().getCreateWeIdEvents(transactionReceipt);
             TransactionInfo info = new TransactionInfo(transactionReceipt);
             if (!CollectionUtils.isEmpty(response)) {
                 return new ResponseData<>(Boolean.TRUE.toString(), ErrorCode.SUCCESS, info);
@@ -211,7 +203,7 @@ public class RawTransactionServiceFiscoEngineFiscoV3 extends BaseEngineFisco imp
             TransactionReceipt transactionReceipt = sendTransaction(transactionHex);
 
             List<AuthorityIssuerRetLogEventResponse> eventList =
-                authorityIssuerController.getAuthorityIssuerRetLogEvents(transactionReceipt);
+                authorityIssuerController().getAuthorityIssuerRetLogEvents(transactionReceipt);
             AuthorityIssuerRetLogEventResponse event = eventList.get(0);
             TransactionInfo info = new TransactionInfo(transactionReceipt);
             ErrorCode errorCode = verifyAuthorityIssuerRelatedEvent(event,
@@ -235,7 +227,7 @@ public class RawTransactionServiceFiscoEngineFiscoV3 extends BaseEngineFisco imp
             CptBaseInfo cptBaseInfo =
                 resolveRegisterCptEvents(
                     transactionReceipt,
-                    cptController
+                    cptController()
                 ).getResult();
 
             TransactionInfo info = new TransactionInfo(transactionReceipt);
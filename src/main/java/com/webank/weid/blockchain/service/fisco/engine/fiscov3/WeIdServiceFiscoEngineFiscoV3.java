@@ -3,6 +3,10 @@
 package com.webank.weid.blockchain.service.fisco.engine.fiscov3;
 
 import com.webank.weid.blockchain.service.fisco.engine.BaseEngineFisco;
+import com.webank.weid.blockchain.service.fisco.engine.ContractSet;
+import com.webank.weid.blockchain.service.fisco.engine.WeIdDocumentCache;
+import com.webank.weid.blockchain.service.fisco.engine.WeIdExistenceFilter;
+import com.webank.weid.blockchain.service.fisco.engine.WeIdIndex;
 import com.webank.weid.blockchain.service.fisco.engine.WeIdServiceEngineFisco;
 import com.webank.weid.blockchain.constant.ErrorCode;
 import com.webank.weid.contract.v3.WeIdContract;
@@ -10,6 +14,7 @@ import com.webank.weid.blockchain.protocol.base.AuthenticationProperty;
 import com.webank.weid.blockchain.protocol.base.ServiceProperty;
 import com.webank.weid.blockchain.protocol.base.WeIdDocument;
 import com.webank.weid.blockchain.protocol.base.WeIdDocumentMetadata;
+import com.webank.weid.blockchain.protocol.base.WeIdResolveResult;
 import com.webank.weid.blockchain.protocol.response.ResponseData;
 import com.webank.weid.blockchain.protocol.response.TransactionInfo;
 import com.webank.weid.blockchain.util.DateUtils;
@@ -34,18 +39,22 @@ public class WeIdServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements We
     private static final Logger logger = LoggerFactory.getLogger(
         WeIdServiceFiscoEngineFiscoV3.class);
 
-    /**
-     * WeIdentity DID contract object, for calling weIdentity DID contract.
-     */
-    private static WeIdContract weIdContract;
-
     /**
      * 构造函数.
      */
     public WeIdServiceFiscoEngineFiscoV3() {
-        if (weIdContract == null) {
-            reload();
-        }
+        WeIdExistenceFilter.start(this);
+        WeIdIndex.start(new WeIdIndex.Source() {
+            @Override
+            public int getCount() throws Exception {
+                return weIdContract().getWeIdCount().intValue();
+            }
+
+            @Override
+            public List<String> getAddressList(int first, int last) throws Exception {
+                return queryWeIdAddressList(first, last);
+            }
+        });
     }
 
     /**
@@ -53,7 +62,11 @@ public class WeIdServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements We
      */
     @Override
     public void reload() {
-        weIdContract = getContractService(fiscoConfig.getWeIdAddress(), WeIdContract.class);
+        ContractSet.reload();
+    }
+
+    private static WeIdContract weIdContract() {
+        return ContractSet.current().get(WeIdContract.class);
     }
 
     /* (non-Javadoc)
@@ -62,9 +75,14 @@ public class WeIdServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements We
     @Override
     public ResponseData<Boolean> isWeIdExist(String weId) {
         try {
-
-            boolean isExist = weIdContract
-                .isIdentityExist(WeIdUtils.convertWeIdToAddress(weId)).booleanValue();
+            String weAddress = WeIdUtils.convertWeIdToAddress(weId);
+            if (!WeIdExistenceFilter.mightExist(weAddress)) {
+                return new ResponseData<>(false, ErrorCode.SUCCESS);
+            }
+            boolean isExist = weIdContract().isIdentityExist(weAddress).booleanValue();
+            if (isExist) {
+                WeIdExistenceFilter.put(weAddress);
+            }
             return new ResponseData<>(isExist, ErrorCode.SUCCESS);
         } catch (Exception e) {
             logger.error("[isWeIdExist] execute failed. Error message :{}", e);
@@ -78,9 +96,12 @@ public class WeIdServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements We
     @Override
     public ResponseData<Boolean> isDeactivated(String weId) {
         try {
-
-            boolean isExist = weIdContract
-                    .isDeactivated(WeIdUtils.convertWeIdToAddress(weId));
+            String weAddress = WeIdUtils.convertWeIdToAddress(weId);
+            // 不存在的WeID不会是注销状态
+            if (!WeIdExistenceFilter.mightExist(weAddress)) {
+                return new ResponseData<>(false, ErrorCode.SUCCESS);
+            }
+            boolean isExist = weIdContract().isDeactivated(weAddress);
             return new ResponseData<>(isExist, ErrorCode.SUCCESS);
         } catch (Exception e) {
             logger.error("[isDeactivated] execute failed. Error message :{}", e);
@@ -93,30 +114,12 @@ public class WeIdServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements We
      */
     @Override
     public ResponseData<WeIdDocument> getWeIdDocument(String weId) {
-        WeIdDocument result = new WeIdDocument();
-
-        result.setId(weId);
         try {
-            String identityAddr = WeIdUtils.convertWeIdToAddress(weId);
-            Tuple6<String, String, Boolean, BigInteger, List<String>, List<String>> document = weIdContract
-                    .resolve(identityAddr);
-            if (document == null) {
+            WeIdDocumentCache.Entry entry = resolveWeId(weId);
+            if (entry == null) {
                 return new ResponseData<>(null, ErrorCode.WEID_DOES_NOT_EXIST);
             }
-
-            List<AuthenticationProperty> authentications = new ArrayList<>();
-            for(int i = 0; i < document.getValue5().size(); i++){
-                authentications.add(AuthenticationProperty.fromString(document.getValue5().get(i)));
-            }
-            result.setAuthentication(authentications);
-            if(document.getValue6().size()>0){
-                List<ServiceProperty> serviceProperties= new ArrayList<>();
-                for(int i = 0; i < document.getValue6().size(); i++){
-                    serviceProperties.add(ServiceProperty.fromString(document.getValue6().get(i)));
-                }
-                result.setService(serviceProperties);
-            }
-            return new ResponseData<>(result, ErrorCode.SUCCESS);
+            return new ResponseData<>(entry.copyDocument(weId), ErrorCode.SUCCESS);
         }  catch (Exception e) {
             //由于合约中要求weid存在才返回对应的document，如果weid不存在，会抛出异常
             logger.error("[getWeIdDocument]: exception.", e);
@@ -126,26 +129,77 @@ public class WeIdServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements We
 
     @Override
     public ResponseData<WeIdDocumentMetadata> getWeIdDocumentMetadata(String weId) {
-        WeIdDocumentMetadata result = new WeIdDocumentMetadata();
-
         try {
-            String identityAddr = WeIdUtils.convertWeIdToAddress(weId);
-            Tuple6<String, String, Boolean, BigInteger, List<String>, List<String>> document = weIdContract
-                    .resolve(identityAddr);
-            if (document == null) {
+            WeIdDocumentCache.Entry entry = resolveWeId(weId);
+            if (entry == null) {
                 return new ResponseData<>(null, ErrorCode.WEID_DOES_NOT_EXIST);
             }
-            result.setCreated(Long.getLong(document.getValue1()));
-            result.setUpdated(Long.getLong(document.getValue2()));
-            result.setDeactivated(document.getValue3());
-            result.setVersionId(document.getValue4().intValue());
-            return new ResponseData<>(result, ErrorCode.SUCCESS);
+            return new ResponseData<>(entry.copyMetadata(), ErrorCode.SUCCESS);
         }  catch (Exception e) {
             logger.error("[getWeIdDocument]: exception.", e);
             return new ResponseData<>(null, ErrorCode.UNKNOW_ERROR);
         }
     }
 
+    @Override
+    public ResponseData<WeIdResolveResult> resolveFull(String weId) {
+        try {
+            WeIdDocumentCache.Entry entry = resolveWeId(weId);
+            if (entry == null) {
+                return new ResponseData<>(null, ErrorCode.WEID_DOES_NOT_EXIST);
+            }
+            WeIdResolveResult result = new WeIdResolveResult();
+            result.setWeIdDocument(entry.copyDocument(weId));
+            result.setWeIdDocumentMetadata(entry.copyMetadata());
+            return new ResponseData<>(result, ErrorCode.SUCCESS);
+        }  catch (Exception e) {
+            logger.error("[resolveFull]: exception.", e);
+            return new ResponseData<>(null, ErrorCode.WEID_DOES_NOT_EXIST);
+        }
+    }
+
+    /**
+     * 解析WeID的document和metadata, 开启WeIdDocumentCache时优先从缓存读取.
+     *
+     * @param weId WeID
+     * @return 解析结果, WeID不存在时返回null
+     * @throws Exception 调用合约时可能出现的异常
+     */
+    private WeIdDocumentCache.Entry resolveWeId(String weId) throws Exception {
+        String identityAddr = WeIdUtils.convertWeIdToAddress(weId);
+        WeIdDocumentCache.Entry cached = WeIdDocumentCache.get(identityAddr);
+        if (cached != null) {
+            return cached;
+        }
+        Tuple6<String, String, Boolean, BigInteger, List<String>, List<String>> document = weIdContract()
+                .resolve(identityAddr);
+        if (document == null) {
+            return null;
+        }
+
+        WeIdDocument result = new WeIdDocument();
+        result.setId(weId);
+        List<AuthenticationProperty> authentications = new ArrayList<>();
+        for(int i = 0; i < document.getValue5().size(); i++){
+            authentications.add(AuthenticationProperty.fromString(document.getValue5().get(i)));
+        }
+        result.setAuthentication(authentications);
+        if(document.getValue6().size()>0){
+            List<ServiceProperty> serviceProperties= new ArrayList<>();
+            for(int i = 0; i < document.getValue6().size(); i++){
+                serviceProperties.add(ServiceProperty.fromString(document.getValue6().get(i)));
+            }
+            result.setService(serviceProperties);
+        }
+
+        WeIdDocumentMetadata metadata = new WeIdDocumentMetadata();
+        metadata.setCreated(Long.getLong(document.getValue1()));
+        metadata.setUpdated(Long.getLong(document.getValue2()));
+        metadata.setDeactivated(document.getValue3());
+        metadata.setVersionId(document.getValue4().intValue());
+        return WeIdDocumentCache.put(identityAddr, result, metadata);
+    }
+
     /* (non-Javadoc)
      * @see com.webank.weid.blockchain.service.fisco.engine.WeIdController
      * #createWeId(java.lang.String, java.lang.String, java.lang.String)
@@ -185,6 +239,8 @@ public class WeIdServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements We
                     serviceList
             );
 
+            // 交易成功或失败(失败即WeID已存在)时链上都已存在该WeID
+            WeIdExistenceFilter.put(weAddress);
             TransactionInfo info = new TransactionInfo(receipt);
             //合约层面去掉了对交易发送者的地址是否等于所创建的weid地址的检查（为了允许可以代替其他人创建weid），所以交易失败的唯一可能是weid已经存在
             if (!receipt.isStatusOK()) {
@@ -196,6 +252,8 @@ public class WeIdServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements We
             }
             return new ResponseData<>(true, ErrorCode.SUCCESS, info);
         } catch (Exception e) {
+            // 交易结果未知, 加入过滤器只会让后续查询上链确认
+            WeIdExistenceFilter.put(weAddress);
             logger.error("[createWeId] create weid has error, Error Message：{}", e);
             return new ResponseData<>(false, ErrorCode.WEID_ALREADY_EXIST);
         }
@@ -233,6 +291,7 @@ public class WeIdServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements We
                     serviceList
             );
 
+            WeIdDocumentCache.invalidate(weAddress);
             TransactionInfo info = new TransactionInfo(receipt);
             //更新weid document限制只能是本人更新，如果更新不成功，则是传入的私钥不对，接口层已做weid是否存在的检查
             if (!receipt.isStatusOK()) {
@@ -244,6 +303,8 @@ public class WeIdServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements We
             }
             return new ResponseData<>(true, ErrorCode.SUCCESS, info);
         } catch (Exception e) {
+            // 交易结果未知, 同样使缓存失效
+            WeIdDocumentCache.invalidate(weAddress);
             logger.error("[updateWeId] update weid has error, Error Message：{}", e);
             return new ResponseData<>(false, ErrorCode.WEID_DOES_NOT_EXIST);
         }
@@ -267,6 +328,7 @@ public class WeIdServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements We
                     true
             );
 
+            WeIdDocumentCache.invalidate(weAddress);
             TransactionInfo info = new TransactionInfo(receipt);
             //注销WeId失败的原因可能是私钥和WeId不匹配
             if (!receipt.isStatusOK()) {
@@ -278,6 +340,8 @@ public class WeIdServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements We
             }
             return new ResponseData<>(true, ErrorCode.SUCCESS, info);
         } catch (Exception e) {
+            // 交易结果未知, 同样使缓存失效
+            WeIdDocumentCache.invalidate(weAddress);
             logger.error("[deactivateWeId] deactivate WeId has error, Error Message：{}", e);
             return new ResponseData<>(false, ErrorCode.WEID_DOES_NOT_EXIST);
         }
@@ -289,10 +353,13 @@ public class WeIdServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements We
             Integer last
     ) {
         try {
-            List addressList = weIdContract.getWeId(BigInteger.valueOf(first), BigInteger.valueOf(last));
+            List<String> addressList = WeIdIndex.getAddressList(first, last);
+            if (addressList == null) {
+                addressList = queryWeIdAddressList(first, last);
+            }
             List<String> result = new ArrayList<>();
-            for (Object o : addressList) {
-                result.add(WeIdUtils.convertAddressToWeId(o.toString()));
+            for (String address : addressList) {
+                result.add(WeIdUtils.convertAddressToWeId(address));
             }
             return new ResponseData<>(result, ErrorCode.SUCCESS);
         } catch (Exception e) {
@@ -303,12 +370,25 @@ public class WeIdServiceFiscoEngineFiscoV3 extends BaseEngineFisco implements We
 
     @Override
     public ResponseData<Integer> getWeIdCount() {
+        int indexed = WeIdIndex.getCount();
+        if (indexed >= 0) {
+            return new ResponseData<>(indexed, ErrorCode.SUCCESS);
+        }
         try {
-            Integer total = weIdContract.getWeIdCount().intValue();
+            Integer total = weIdContract().getWeIdCount().intValue();
             return new ResponseData<>(total, ErrorCode.SUCCESS);
         } catch (Exception e) {
             logger.error("[getWeIdTotal]: get weId total has unknow error. ", e);
             return new ResponseData<>(0, ErrorCode.UNKNOW_ERROR);
         }
     }
+
+    private static List<String> queryWeIdAddressList(int first, int last) throws Exception {
+        List addressList = weIdContract().getWeId(BigInteger.valueOf(first), BigInteger.valueOf(last));
+        List<String> result = new ArrayList<>();
+        for (Object o : addressList) {
+            result.add(o.toString());
+        }
+        return result;
+    }
 }
@@ -0,0 +1,176 @@
+package com.webank.weid.blockchain.service.fisco.server;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.constant.CnsType;
+import com.webank.weid.blockchain.protocol.response.CnsInfo;
+import com.webank.weid.blockchain.service.fisco.FiscoBootstrap;
+import com.webank.weid.blockchain.util.PropertyUtils;
+
+/**
+ * CNS/BFS地址解析缓存, 按(群组, cnsType, 大版本)缓存解析出的bucket地址.
+ *
+ * <p>同一个key并发未命中时只查询一次链上CNS/BFS; 条目写入超过刷新间隔后, 下次访问时在后台重新解析,
+ * 期间继续返回旧值, 解析出的地址发生变化时通知监听者. 解析失败或未找到记录时不缓存.
+ */
+public final class CnsResolutionCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CnsResolutionCache.class);
+
+    private static final long REFRESH_SECONDS = Long.parseLong(
+        PropertyUtils.getProperty("cns.cache.refresh-seconds", "300"));
+
+    private static final long MAX_SIZE = Long.parseLong(
+        PropertyUtils.getProperty("cns.cache.max-size", "256"));
+
+    private static final List<BiConsumer<String, CnsType>> CHANGE_LISTENERS =
+        new CopyOnWriteArrayList<>();
+
+    private static final LoadingCache<CnsKey, CnsInfo> CACHE;
+
+    static {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+            .maximumSize(MAX_SIZE)
+            .recordStats();
+        if (REFRESH_SECONDS > 0) {
+            builder.refreshAfterWrite(REFRESH_SECONDS, TimeUnit.SECONDS);
+        }
+        CACHE = builder.build(new CnsLoader());
+        logger.info("[CnsResolutionCache] maxSize: {}, refreshSeconds: {}.",
+            MAX_SIZE, REFRESH_SECONDS);
+    }
+
+    private CnsResolutionCache() {
+    }
+
+    /**
+     * 获取群组下cnsType对应的bucket地址信息.
+     *
+     * @param groupId 群组ID
+     * @param cnsType cns类型枚举
+     * @return 返回CnsInfo, 链上不存在时返回null
+     */
+    public static CnsInfo get(String groupId, CnsType cnsType) {
+        return CACHE.get(new CnsKey(groupId, cnsType));
+    }
+
+    /**
+     * 清除群组下cnsType的缓存, 下次访问时重新解析.
+     *
+     * @param groupId 群组ID
+     * @param cnsType cns类型枚举
+     */
+    public static void invalidate(String groupId, CnsType cnsType) {
+        CACHE.invalidate(new CnsKey(groupId, cnsType));
+    }
+
+    /**
+     * 清除所有缓存.
+     */
+    public static void invalidateAll() {
+        CACHE.invalidateAll();
+    }
+
+    /**
+     * 注册地址变化监听, 后台刷新发现bucket地址变化时回调(群组ID, cnsType).
+     *
+     * @param listener 监听者
+     */
+    public static void addChangeListener(BiConsumer<String, CnsType> listener) {
+        CHANGE_LISTENERS.add(listener);
+    }
+
+    /**
+     * 获取缓存统计信息, 其中loadCount和averageLoadPenalty即为CNS解析的次数和平均耗时(纳秒).
+     *
+     * @return 统计信息
+     */
+    public static CacheStats stats() {
+        return CACHE.stats();
+    }
+
+    private static CnsInfo resolve(CnsKey key) {
+        long start = System.nanoTime();
+        CnsInfo cnsInfo = WeServer.getInstance(FiscoBootstrap.getFiscoConfig(), key.groupId)
+            .queryCnsInfo(key.cnsType);
+        logger.info("[CnsResolutionCache] resolve {} of group {} in {} ms.",
+            key.cnsType, key.groupId, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        if (cnsInfo == null) {
+            logger.error("[CnsResolutionCache] cnsInfo is null of [{}]", key.cnsType);
+        }
+        return cnsInfo;
+    }
+
+    private static final class CnsLoader implements CacheLoader<CnsKey, CnsInfo> {
+
+        @Override
+        public CnsInfo load(CnsKey key) {
+            return resolve(key);
+        }
+
+        @Override
+        public CnsInfo reload(CnsKey key, CnsInfo oldValue) {
+            CnsInfo cnsInfo = resolve(key);
+            if (cnsInfo == null) {
+                // 刷新时没有查到记录, 保留旧地址
+                return oldValue;
+            }
+            if (!Objects.equals(oldValue.getAddress(), cnsInfo.getAddress())) {
+                logger.info("[CnsResolutionCache] address of {} in group {} changed from {} to {}.",
+                    key.cnsType, key.groupId, oldValue.getAddress(), cnsInfo.getAddress());
+                for (BiConsumer<String, CnsType> listener : CHANGE_LISTENERS) {
+                    try {
+                        listener.accept(key.groupId, key.cnsType);
+                    } catch (Exception e) {
+                        logger.error("[CnsResolutionCache] notify change listener has error.", e);
+                    }
+                }
+            }
+            return cnsInfo;
+        }
+    }
+
+    private static final class CnsKey {
+
+        private final String groupId;
+        private final CnsType cnsType;
+        private final String majorVersion;
+
+        private CnsKey(String groupId, CnsType cnsType) {
+            this.groupId = groupId;
+            this.cnsType = cnsType;
+            String version = cnsType.getVersion();
+            this.majorVersion = version.substring(0, version.indexOf(".") + 1);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CnsKey)) {
+                return false;
+            }
+            CnsKey other = (CnsKey) o;
+            return cnsType == other.cnsType
+                && Objects.equals(groupId, other.groupId)
+                && majorVersion.equals(other.majorVersion);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(groupId, cnsType, majorVersion);
+        }
+    }
+}
@@ -25,6 +25,7 @@ import com.webank.weid.blockchain.constant.WeIdConstant;
 import com.webank.weid.blockchain.exception.WeIdBaseException;
 import com.webank.weid.blockchain.protocol.response.AmopResponse;
 import com.webank.weid.blockchain.protocol.response.CnsInfo;
+import com.webank.weid.blockchain.service.fisco.FiscoBootstrap;
 import com.webank.weid.blockchain.service.fisco.server.v2.WeServerV2;
 import com.webank.weid.blockchain.protocol.amop.AmopCommonArgs;
 import com.webank.weid.blockchain.service.fisco.server.v3.WeServerV3;
@@ -34,8 +35,12 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 /**
  * BcosSDK,Client,CryptoKeyPair
@@ -56,21 +61,20 @@ public abstract class WeServer<B, W, C> {
     private static final Logger logger = LoggerFactory.getLogger(WeServer.class);
 
     /**
-     * WeServer对象上下文.
+     * WeServer对象上下文, 每个群组对应一个构建任务, 任务放入上下文之后才执行构建.
      */
-    private static ConcurrentHashMap<String, WeServer<?, ?, ?>>  weServerContext =
+    private static final ConcurrentHashMap<String, BuildTask> weServerContext =
         new ConcurrentHashMap<>();
 
     /**
-     * bucket地址映射Map.
+     * FISCO配置对象.
      */
-    private static ConcurrentHashMap<String, CnsInfo> bucketAddressMap =
-        new ConcurrentHashMap<>();
+    protected FiscoConfig fiscoConfig;
 
     /**
-     * FISCO配置对象.
+     * 当前WeServer所属群组.
      */
-    protected FiscoConfig fiscoConfig;
+    protected String groupId;
 
     /**
      * AMOP回调处理注册器.
@@ -92,6 +96,7 @@ public abstract class WeServer<B, W, C> {
 
     /**
      * 初始化WeServer服务,进行多线程安全保护,确保整个应用只初始化一次 并且根据配置FISCO的版本来自动初始化对应版本的服务.
+     * 已初始化的群组直接从上下文中读取,不加锁;首次初始化在上下文之外执行,同一群组的其他调用者等待其结果.
      *
      * @param fiscoConfig FISCO配置对象
      * @param groupId 群组ID
@@ -100,30 +105,99 @@ public abstract class WeServer<B, W, C> {
      * @param <C> Credential对象
      * @return 返回WeServer对象
      */
-    public static synchronized <B, W, C> WeServer<B, W, C> getInstance (
+    @SuppressWarnings("unchecked")
+    public static <B, W, C> WeServer<B, W, C> getInstance(
         FiscoConfig fiscoConfig,
         String groupId
     ) {
-        WeServer<?, ?, ?> weServer = weServerContext.get(groupId);
-        if (weServer == null) {
-            synchronized (WeServer.class) {
-                weServer = weServerContext.get(groupId);
-                if (weServer == null) {
-                    if (fiscoConfig.getVersion()
-                        .startsWith(WeIdConstant.FISCO_BCOS_2_X_VERSION_PREFIX)) {
-                        weServer = new WeServerV2(fiscoConfig);
-                        weServer.initWeb3j(groupId);
-                        weServerContext.put(groupId, weServer);
-                    } else {
-                        // v3
-                        weServer = new WeServerV3(fiscoConfig);
-                        weServer.initWeb3j(groupId);
-                        weServerContext.put(groupId, weServer);
-                    }
-                }
+        BuildTask task = weServerContext.get(groupId);
+        if (task == null) {
+            return (WeServer<B, W, C>) getOrBuild(
+                groupId,
+                () -> buildWeServer(fiscoConfig, groupId)
+            );
+        }
+        return (WeServer<B, W, C>) join(groupId, task);
+    }
+
+    /**
+     * 读取群组的WeServer, 不存在时由放入构建任务的调用者执行构建. 构建失败时移除任务, 下次调用重新构建.
+     *
+     * @param groupId 群组ID
+     * @param builder 构建WeServer
+     * @return 返回WeServer对象
+     */
+    static WeServer<?, ?, ?> getOrBuild(String groupId, Callable<WeServer<?, ?, ?>> builder) {
+        BuildTask task = weServerContext.get(groupId);
+        if (task == null) {
+            BuildTask created = new BuildTask(builder);
+            task = weServerContext.putIfAbsent(groupId, created);
+            if (task == null) {
+                task = created;
+                task.run();
+            }
+        }
+        return join(groupId, task);
+    }
+
+    private static WeServer<?, ?, ?> join(String groupId, BuildTask task) {
+        if (!task.isDone() && task.builder == Thread.currentThread()) {
+            throw new WeIdBaseException("recursive WeServer initialization for group: " + groupId);
+        }
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WeIdBaseException("interrupted while waiting for WeServer of group: "
+                + groupId, e);
+        } catch (ExecutionException e) {
+            weServerContext.remove(groupId, task);
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new WeIdBaseException("build WeServer failed for group: " + groupId, cause);
+        }
+    }
+
+    private static WeServer<?, ?, ?> buildWeServer(FiscoConfig fiscoConfig, String groupId) {
+        logger.info("[getInstance] begin build WeServer for group: {}.", groupId);
+        WeServer<?, ?, ?> weServer;
+        if (fiscoConfig.getVersion().startsWith(WeIdConstant.FISCO_BCOS_2_X_VERSION_PREFIX)) {
+            weServer = new WeServerV2(fiscoConfig);
+        } else {
+            // v3
+            weServer = new WeServerV3(fiscoConfig);
+        }
+        weServer.groupId = groupId;
+        weServer.initWeb3j(groupId);
+        FiscoBootstrap.logSummary();
+        return weServer;
+    }
+
+    /**
+     * 群组WeServer的构建任务, 记录执行构建的线程以识别重入.
+     */
+    private static final class BuildTask extends FutureTask<WeServer<?, ?, ?>> {
+
+        private volatile Thread builder;
+
+        private BuildTask(Callable<WeServer<?, ?, ?>> callable) {
+            super(callable);
+        }
+
+        @Override
+        public void run() {
+            builder = Thread.currentThread();
+            try {
+                super.run();
+            } finally {
+                builder = null;
             }
         }
-        return (WeServer<B, W, C>) weServer;
     }
 
     /**
@@ -263,23 +337,20 @@ public abstract class WeServer<B, W, C> {
      */
     public abstract Set<String> getGroupList();
 
+    /**
+     * 获取当前群组的节点列表.
+     * @return 节点列表
+     */
+    public abstract List<String> getGroupPeers();
+
 
     /**
-     * 获取Bucket地址.
+     * 获取Bucket地址, 通过CnsResolutionCache按群组缓存.
      *
      * @param cnsType cns类型枚举
      * @return 返回bucket地址
      */
     public CnsInfo getBucketByCns(CnsType cnsType) {
-        CnsInfo cnsInfo = bucketAddressMap.get(cnsType.toString());
-        if (cnsInfo == null) {
-            cnsInfo = this.queryCnsInfo(cnsType);
-            if (cnsInfo != null) {
-                bucketAddressMap.put(cnsType.toString(), cnsInfo);
-            } else {
-                logger.error("getBucketByCns cnsInfo is still null of [{}]", cnsType.toString());
-            }
-        }
-        return cnsInfo;
+        return CnsResolutionCache.get(groupId, cnsType);
     }
 }
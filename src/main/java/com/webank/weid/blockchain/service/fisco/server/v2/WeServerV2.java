@@ -7,6 +7,8 @@ import com.webank.weid.blockchain.exception.PrivateKeyIllegalException;
 import com.webank.weid.blockchain.exception.WeIdBaseException;
 import com.webank.weid.blockchain.protocol.response.AmopResponse;
 import com.webank.weid.blockchain.protocol.amop.AmopCommonArgs;
+import com.webank.weid.blockchain.service.fisco.FiscoBootstrap;
+import com.webank.weid.blockchain.service.fisco.KeyPairCache;
 import com.webank.weid.blockchain.service.fisco.server.WeServer;
 
 import java.io.IOException;
@@ -31,6 +33,7 @@ import org.fisco.bcos.sdk.config.model.ConfigProperty;
 import org.fisco.bcos.sdk.contract.precompiled.cns.CnsInfo;
 
 import org.fisco.bcos.sdk.contract.precompiled.cns.CnsService;
+import org.fisco.bcos.sdk.crypto.CryptoSuite;
 import org.fisco.bcos.sdk.crypto.keypair.CryptoKeyPair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,6 +48,11 @@ public class WeServerV2 extends WeServer<BcosSDK, Client, CryptoKeyPair> {
      */
     private static final Logger logger = LoggerFactory.getLogger(WeServerV2.class);
 
+    /**
+     * 所有群组共享的BcosSDK, 网络连接和线程池只按FiscoConfig创建一次.
+     */
+    private static volatile BcosSDK sharedBcosSdk;
+
     private BcosSDK bcosSdk;
 
     private Client client;
@@ -67,7 +75,6 @@ public class WeServerV2 extends WeServer<BcosSDK, Client, CryptoKeyPair> {
      */
     public WeServerV2(FiscoConfig fiscoConfig) {
         super(fiscoConfig);
-        initWeb3j(fiscoConfig.getGroupId());
     }
 
     /**
@@ -82,7 +89,10 @@ public class WeServerV2 extends WeServer<BcosSDK, Client, CryptoKeyPair> {
 
     public Client getWeb3j(String groupId) {
         logger.debug("getWeb3j groupId{}", groupId);
-        return bcosSdk.getClient(Integer.parseInt(groupId));
+        if (this.groupId == null || this.groupId.equals(groupId)) {
+            return client;
+        }
+        return (Client) WeServer.getInstance(fiscoConfig, groupId).getWeb3j();
     }
 
 
@@ -99,19 +109,20 @@ public class WeServerV2 extends WeServer<BcosSDK, Client, CryptoKeyPair> {
 
     @Override
     public CryptoKeyPair createCredentials(String privateKey) {
-        logger.info("createCredentials v2 {}", privateKey);
-        return client.getCryptoSuite().getKeyPairFactory().createKeyPair(new BigInteger(privateKey));
+        return deriveKeyPair(new BigInteger(privateKey));
     }
 
     @Override
     public void initWeb3j(String masterGroupId) {
         //this.pushCallBack = new OnNotifyCallbackV2();
-        logger.info("[WeServer] begin load property.");
-        ConfigProperty configProperty = loadConfigProperty(fiscoConfig);
         logger.info("[WeServer] begin init bcos sdk.");
-        initBcosSdk(configProperty);
+        long start = System.nanoTime();
+        initBcosSdk(masterGroupId);
+        FiscoBootstrap.record(FiscoBootstrap.PHASE_SDK_CONNECT, start);
         logger.info("[WeServer] begin init CnsService.");
+        start = System.nanoTime();
         initCnsService();
+        FiscoBootstrap.record(FiscoBootstrap.PHASE_CNS_RESOLUTION, start);
         logger.info("[WeServer] begin init initAmopCallBack.");
         /*initAmopCallBack(fiscoConfig);
         logger.info("[WeServer] WeServer init successfully.");*/
@@ -283,30 +294,43 @@ public class WeServerV2 extends WeServer<BcosSDK, Client, CryptoKeyPair> {
         configProperty.setCryptoMaterial(cryptoMaterial);
     }
 
-    private void initBcosSdk(ConfigProperty configProperty) {
-        if (bcosSdk == null) {
+    private void initBcosSdk(String groupId) {
+        BcosSDK sdk = getSharedBcosSdk();
+        try {
+            this.bcosSdk = sdk;
+            this.client = sdk.getClient(Integer.valueOf(groupId));
+        } catch (Exception e) {
+            logger.error("[build] get client of group {} fail.", groupId, e);
+            throw new WeIdBaseException("the bcosSdk build fail.");
+        }
+        logger.info("[WeServer] the client of group {} is build successfully.", groupId);
+    }
+
+    private BcosSDK getSharedBcosSdk() {
+        BcosSDK sdk = sharedBcosSdk;
+        if (sdk == null) {
             synchronized (WeServer.class) {
                 logger.info("[WeServer] the WeServer class is locked.");
-                if (bcosSdk == null) {
+                sdk = sharedBcosSdk;
+                if (sdk == null) {
+                    logger.info("[WeServer] begin load property.");
+                    ConfigProperty configProperty = loadConfigProperty(fiscoConfig);
                     logger.info("[WeServer] the bcosSdk is null and build BcosSDK.");
                     try {
-                        bcosSdk = new BcosSDK(new ConfigOption(configProperty));
-                        client = bcosSdk.getClient(Integer.valueOf(fiscoConfig.getGroupId()));
+                        sdk = new BcosSDK(new ConfigOption(configProperty));
                     } catch (Exception e) {
                         logger.error("[build] the ConfigOption build fail.", e);
                         throw new WeIdBaseException("the ConfigOption build fail.");
                     }
+                    sharedBcosSdk = sdk;
+                    logger.info("[WeServer] the bcosSdk is build successfully.");
                 } else {
                     logger.info("[WeServer] the bcosSdk is not null.");
                 }
                 logger.info("[WeServer] the WeServer class is unlock");
-                if (bcosSdk != null) {
-                    logger.info("[WeServer] the bcosSdk is build successfully.");
-                } else {
-                    throw new WeIdBaseException("the bcosSdk build fail.");
-                }
             }
         }
+        return sdk;
     }
 
     /*private void initAmopCallBack(FiscoConfig fiscoConfig) {
@@ -323,7 +347,11 @@ public class WeServerV2 extends WeServer<BcosSDK, Client, CryptoKeyPair> {
     }*/
 
     private void initCnsService() {
-        Client client = this.getWeb3j(fiscoConfig.getGroupId());
+        // 全局合约和bucket部署在主群组, 各群组都通过主群组的Client查询CNS
+        String masterGroupId = fiscoConfig.getGroupId();
+        Client client = masterGroupId.equals(groupId)
+            ? this.client
+            : bcosSdk.getClient(Integer.valueOf(masterGroupId));
         this.cnsService = new CnsService(client, client.getCryptoSuite().getCryptoKeyPair());
     }
 
@@ -336,6 +364,11 @@ public class WeServerV2 extends WeServer<BcosSDK, Client, CryptoKeyPair> {
         return groupList;
     }
 
+    @Override
+    public List<String> getGroupPeers() {
+        return this.getWeb3j().getGroupPeers().getGroupPeers();
+    }
+
     /**
      * 获取AMOP监听的topic.
      *
@@ -362,12 +395,18 @@ public class WeServerV2 extends WeServer<BcosSDK, Client, CryptoKeyPair> {
      */
     public CryptoKeyPair createCryptoKeyPair(String privateKey) {
         try {
-            return client.getCryptoSuite().getKeyPairFactory().createKeyPair(new BigInteger(privateKey));
+            return deriveKeyPair(new BigInteger(privateKey));
         } catch (Exception e) {
             throw new PrivateKeyIllegalException(e);
         }
     }
 
+    private CryptoKeyPair deriveKeyPair(BigInteger privateKey) {
+        CryptoSuite cryptoSuite = client.getCryptoSuite();
+        return KeyPairCache.get(cryptoSuite, privateKey,
+            key -> cryptoSuite.getKeyPairFactory().createKeyPair(key));
+    }
+
     /**
      * 获取Credentials对象.
      *
@@ -22,6 +22,12 @@ public abstract class AbstractService{
         rawEngineFisco = EngineFactoryFisco.createRawTransactionServiceEngine();
         cptServiceEngineFisco = EngineFactoryFisco.createCptServiceEngine();
         authEngine = EngineFactoryFisco.createAuthorityIssuerServiceEngine();
+        // 启动时加载合约集合, 避免首个请求承担加载耗时
+        ContractSet.current();
+        // 合约地址确定后再启动后台组件
+        EvidenceCatalog.start();
+        CacheSnapshot.start();
+        ContractEventSubscriber.start();
     }
     
     public AbstractService() { }
@@ -33,10 +39,8 @@ public abstract class AbstractService{
     //由上层调用reloadContract方法再执行CacheManager.clearAll()，这里删除了CacheManager模块
     protected void reloadContract() {
         BaseServiceFisco.reloadAddress();
-        weIdServiceEngineFisco.reload();
-        rawEngineFisco.reload();
-        cptServiceEngineFisco.reload();
-        authEngine.reload();
+        // 所有引擎共用同一个合约集合, 整体替换一次即可
+        ContractSet.reload();
         //重载合约, 需要清理缓存，避免缓存问题
         //CacheManager.clearAll();
     }
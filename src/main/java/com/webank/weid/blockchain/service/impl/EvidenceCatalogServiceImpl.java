@@ -0,0 +1,76 @@
+package com.webank.weid.blockchain.service.impl;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.constant.ChainType;
+import com.webank.weid.blockchain.constant.ErrorCode;
+import com.webank.weid.blockchain.protocol.response.EvidenceCatalogPage;
+import com.webank.weid.blockchain.protocol.response.ResponseData;
+import com.webank.weid.blockchain.rpc.EvidenceCatalogService;
+import com.webank.weid.blockchain.service.fisco.engine.EvidenceCatalog;
+import com.webank.weid.blockchain.util.DataToolUtils;
+import com.webank.weid.blockchain.util.WeIdUtils;
+
+/**
+ * Service implementations for querying the local evidence catalog.
+ */
+public class EvidenceCatalogServiceImpl extends AbstractService implements EvidenceCatalogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EvidenceCatalogServiceImpl.class);
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+    @Override
+    public ResponseData<EvidenceCatalogPage> getEvidenceBySigner(
+        String signer,
+        Long fromTimestamp,
+        Long toTimestamp,
+        String cursor,
+        Integer pageSize
+    ) {
+        if (!DataToolUtils.chainType.equals(ChainType.FISCO_BCOS_V2.getName())) {
+            return new ResponseData<>(null, ErrorCode.CHAIN_TYPE_NOT_VALID);
+        }
+        if (!EvidenceCatalog.isEnabled()) {
+            return new ResponseData<>(null, ErrorCode.THIS_IS_UNSUPPORTED);
+        }
+        if (StringUtils.isBlank(signer)) {
+            return new ResponseData<>(null, ErrorCode.ILLEGAL_INPUT);
+        }
+        String address = WeIdUtils.isWeIdValid(signer)
+            ? WeIdUtils.convertWeIdToAddress(signer)
+            : signer;
+        try {
+            EvidenceCatalogPage page = EvidenceCatalog.query(
+                address,
+                fromTimestamp == null ? Long.MIN_VALUE : fromTimestamp,
+                toTimestamp == null ? Long.MAX_VALUE : toTimestamp,
+                cursor,
+                pageSize == null ? DEFAULT_PAGE_SIZE : pageSize
+            );
+            return new ResponseData<>(page, ErrorCode.SUCCESS);
+        } catch (IllegalArgumentException e) {
+            logger.error("[getEvidenceBySigner] illegal cursor: {}.", cursor, e);
+            return new ResponseData<>(null, ErrorCode.ILLEGAL_INPUT);
+        }
+    }
+
+    @Override
+    public ResponseData<Boolean> backfill(Long fromBlock) {
+        if (!DataToolUtils.chainType.equals(ChainType.FISCO_BCOS_V2.getName())) {
+            return new ResponseData<>(false, ErrorCode.CHAIN_TYPE_NOT_VALID);
+        }
+        if (!EvidenceCatalog.isEnabled()) {
+            return new ResponseData<>(false, ErrorCode.THIS_IS_UNSUPPORTED);
+        }
+        if (fromBlock == null || fromBlock < 0) {
+            return new ResponseData<>(false, ErrorCode.ILLEGAL_INPUT);
+        }
+        if (!EvidenceCatalog.backfill(fromBlock)) {
+            return new ResponseData<>(false, ErrorCode.THIS_IS_REPEATED_CALL);
+        }
+        return new ResponseData<>(true, ErrorCode.SUCCESS);
+    }
+}
@@ -7,9 +7,8 @@ import com.webank.weid.blockchain.constant.ErrorCode;
 import com.webank.weid.blockchain.protocol.base.EvidenceInfo;
 import com.webank.weid.blockchain.protocol.response.ResponseData;
 import com.webank.weid.blockchain.rpc.EvidenceService;
-import com.webank.weid.blockchain.rpc.WeIdService;
 import com.webank.weid.blockchain.service.fisco.BaseServiceFisco;
-import com.webank.weid.blockchain.service.fisco.engine.EngineFactoryFisco;
+import com.webank.weid.blockchain.service.fisco.engine.EngineRegistry;
 import com.webank.weid.blockchain.service.fisco.engine.EvidenceServiceEngineFisco;
 import com.webank.weid.blockchain.util.DataToolUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -28,12 +27,8 @@ public class EvidenceServiceImpl extends AbstractService implements EvidenceServ
 
     private static final Logger logger = LoggerFactory.getLogger(EvidenceServiceImpl.class);
 
-    private WeIdService weIdService = new WeIdServiceImpl();
-
     //private ProcessingMode processingMode = ProcessingMode.IMMEDIATE;
 
-    private EvidenceServiceEngineFisco evidenceServiceEngineFisco;
-
     //FISCO BCOS区块链同时支持不同群组，其他区块链可以不使用这个变量或者赋予其他涵义
     public String groupId;
 
@@ -56,11 +51,16 @@ public class EvidenceServiceImpl extends AbstractService implements EvidenceServ
 
     private void initEvidenceServiceEngine(String groupId) {
         if(DataToolUtils.chainType.equals(ChainType.FISCO_BCOS_V2.getName())){
-            evidenceServiceEngineFisco = EngineFactoryFisco.createEvidenceServiceEngine(groupId);
+            // 引擎按群组共享, 这里只触发首次构建
+            EngineRegistry.getEvidenceServiceEngine(groupId);
             this.groupId = groupId;
         }
     }
 
+    private EvidenceServiceEngineFisco getEvidenceServiceEngine() {
+        return EngineRegistry.getEvidenceServiceEngine(groupId);
+    }
+
     @Override
     public String getGroupId(){
         return this.groupId;
@@ -75,7 +75,7 @@ public class EvidenceServiceImpl extends AbstractService implements EvidenceServ
             String privateKey
     ) {
         if(DataToolUtils.chainType.equals(ChainType.FISCO_BCOS_V2.getName())){
-            return evidenceServiceEngineFisco.createEvidence(
+            return getEvidenceServiceEngine().createEvidence(
                     hashValue,
                     signature,
                     log,
@@ -96,7 +96,7 @@ public class EvidenceServiceImpl extends AbstractService implements EvidenceServ
         String privateKey
     ) {
         if(DataToolUtils.chainType.equals(ChainType.FISCO_BCOS_V2.getName())){
-            ResponseData<String> hashResp = evidenceServiceEngineFisco.createEvidenceWithCustomKey(
+            ResponseData<String> hashResp = getEvidenceServiceEngine().createEvidenceWithCustomKey(
                     hashValue,
                     signature,
                     log,
@@ -123,7 +123,7 @@ public class EvidenceServiceImpl extends AbstractService implements EvidenceServ
             String privateKey
     ) {
         if(DataToolUtils.chainType.equals(ChainType.FISCO_BCOS_V2.getName())){
-            ResponseData<List<Boolean>> resp = evidenceServiceEngineFisco.batchCreateEvidence(
+            ResponseData<List<Boolean>> resp = getEvidenceServiceEngine().batchCreateEvidence(
                     hashValues, signatures, logs, timestamps, signers, privateKey);
             return new ResponseData<>(resp.getResult(), resp.getErrorCode(),
                     resp.getErrorMessage());
@@ -142,7 +142,7 @@ public class EvidenceServiceImpl extends AbstractService implements EvidenceServ
             String privateKey
     ) {
         if(DataToolUtils.chainType.equals(ChainType.FISCO_BCOS_V2.getName())){
-            ResponseData<List<Boolean>> resp = evidenceServiceEngineFisco.batchCreateEvidenceWithCustomKey(
+            ResponseData<List<Boolean>> resp = getEvidenceServiceEngine().batchCreateEvidenceWithCustomKey(
                     hashValues, signatures, logs, timestamps, signers, extraKeys, privateKey);
             return new ResponseData<>(resp.getResult(), resp.getErrorCode(),
                     resp.getErrorMessage());
@@ -159,7 +159,7 @@ public class EvidenceServiceImpl extends AbstractService implements EvidenceServ
             String privateKey
     ) {
         if(DataToolUtils.chainType.equals(ChainType.FISCO_BCOS_V2.getName())){
-            return evidenceServiceEngineFisco.addLog(
+            return getEvidenceServiceEngine().addLog(
                     hashValue,
                     signature,
                     log,
@@ -180,7 +180,7 @@ public class EvidenceServiceImpl extends AbstractService implements EvidenceServ
     public ResponseData<String> getHashByCustomKey(String customKey) {
         if(DataToolUtils.chainType.equals(ChainType.FISCO_BCOS_V2.getName())){
             try {
-                return evidenceServiceEngineFisco.getHashByCustomKey(customKey);
+                return getEvidenceServiceEngine().getHashByCustomKey(customKey);
             } catch (Exception e) {
                 logger.error("Failed to find the hash value from custom key.", e);
                 return new ResponseData<>(StringUtils.EMPTY, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR);
@@ -199,7 +199,7 @@ public class EvidenceServiceImpl extends AbstractService implements EvidenceServ
             String privateKey
     ) {
         if(DataToolUtils.chainType.equals(ChainType.FISCO_BCOS_V2.getName())){
-            return evidenceServiceEngineFisco.addLogByCustomKey(
+            return getEvidenceServiceEngine().addLogByCustomKey(
                     hashValue,
                     signature,
                     log,
@@ -221,7 +221,7 @@ public class EvidenceServiceImpl extends AbstractService implements EvidenceServ
     public ResponseData<EvidenceInfo> getInfo(String hashValue) {
         if(DataToolUtils.chainType.equals(ChainType.FISCO_BCOS_V2.getName())){
             try {
-                return evidenceServiceEngineFisco.getInfo(hashValue);
+                return getEvidenceServiceEngine().getInfo(hashValue);
             } catch (Exception e) {
                 logger.error("Failed to find the hash value from custom key.", e);
                 return new ResponseData<>(null, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR);
@@ -240,7 +240,7 @@ public class EvidenceServiceImpl extends AbstractService implements EvidenceServ
     public ResponseData<EvidenceInfo> getInfoByCustomKey(String customKey) {
         if(DataToolUtils.chainType.equals(ChainType.FISCO_BCOS_V2.getName())){
             try {
-                return evidenceServiceEngineFisco.getInfoByCustomKey(customKey);
+                return getEvidenceServiceEngine().getInfoByCustomKey(customKey);
             } catch (Exception e) {
                 logger.error("Failed to find the hash value from custom key.", e);
                 return new ResponseData<>(null, ErrorCode.CREDENTIAL_EVIDENCE_BASE_ERROR);
@@ -261,7 +261,7 @@ public class EvidenceServiceImpl extends AbstractService implements EvidenceServ
     @Override
     public ResponseData<Boolean> revoke(String hash, Boolean revokeStage, Long timestamp, String privateKey) {
         if(DataToolUtils.chainType.equals(ChainType.FISCO_BCOS_V2.getName())){
-            return evidenceServiceEngineFisco.revoke(
+            return getEvidenceServiceEngine().revoke(
                     hash,
                     revokeStage,
                     timestamp,
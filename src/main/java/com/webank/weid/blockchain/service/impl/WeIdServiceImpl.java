@@ -6,17 +6,24 @@ import com.webank.weid.blockchain.exception.LoadContractException;
 import com.webank.weid.blockchain.exception.PrivateKeyIllegalException;
 import com.webank.weid.blockchain.protocol.base.WeIdDocument;
 import com.webank.weid.blockchain.protocol.base.WeIdDocumentMetadata;
+import com.webank.weid.blockchain.protocol.base.WeIdResolveResult;
 import com.webank.weid.blockchain.protocol.response.ResponseData;
 import com.webank.weid.blockchain.constant.ChainType;
 import com.webank.weid.blockchain.constant.ErrorCode;
 import com.webank.weid.blockchain.rpc.WeIdService;
 import com.webank.weid.blockchain.util.DataToolUtils;
+import com.webank.weid.blockchain.util.NamedThreadFactory;
+import com.webank.weid.blockchain.util.PropertyUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 //import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Service implementations for operations on WeIdentity DID.
@@ -30,6 +37,12 @@ public class WeIdServiceImpl extends AbstractService implements WeIdService {
      */
     private static final Logger logger = LoggerFactory.getLogger(WeIdServiceImpl.class);
 
+    private static final int BATCH_RESOLVE_CONCURRENCY = Integer.parseInt(
+        PropertyUtils.getProperty("weid.resolve.batch-concurrency", "8"));
+
+    private static final ExecutorService BATCH_RESOLVE_EXECUTOR = Executors.newFixedThreadPool(
+        BATCH_RESOLVE_CONCURRENCY, new NamedThreadFactory("weid-batch-resolve"));
+
     public ResponseData<Boolean> createWeId(
             String address,
             List<String> authList,
@@ -90,6 +103,54 @@ public class WeIdServiceImpl extends AbstractService implements WeIdService {
         return new ResponseData<>(null, ErrorCode.CHAIN_TYPE_NOT_VALID);
     }
 
+    /**
+     * Get a WeIdentity DID document and document metadata with one resolve call.
+     *
+     * @param weId the WeIdentity DID
+     * @return the WeIdentity DID document and document metadata
+     */
+    @Override
+    public ResponseData<WeIdResolveResult> resolveFull(String weId) {
+        if(DataToolUtils.chainType.equals(ChainType.FISCO_BCOS_V2.getName())){
+            return weIdServiceEngineFisco.resolveFull(weId);
+        }
+        return new ResponseData<>(null, ErrorCode.CHAIN_TYPE_NOT_VALID);
+    }
+
+    /**
+     * Get WeIdentity DID documents and document metadata of a batch of WeIdentity DIDs, at most
+     * weid.resolve.batch-concurrency WeIdentity DIDs are resolved at the same time.
+     *
+     * @param weIdList the WeIdentity DID list
+     * @return the WeIdentity DID documents and document metadata, in the order of weIdList
+     */
+    @Override
+    public ResponseData<List<WeIdResolveResult>> batchResolveFull(List<String> weIdList) {
+        if (weIdList == null || weIdList.isEmpty()) {
+            return new ResponseData<>(null, ErrorCode.ILLEGAL_INPUT);
+        }
+        if(!DataToolUtils.chainType.equals(ChainType.FISCO_BCOS_V2.getName())){
+            return new ResponseData<>(null, ErrorCode.CHAIN_TYPE_NOT_VALID);
+        }
+        try {
+            List<CompletableFuture<WeIdResolveResult>> futures = new ArrayList<>(weIdList.size());
+            for (String weId : weIdList) {
+                futures.add(CompletableFuture.supplyAsync(
+                    () -> weIdServiceEngineFisco.resolveFull(weId).getResult(),
+                    BATCH_RESOLVE_EXECUTOR
+                ));
+            }
+            List<WeIdResolveResult> results = new ArrayList<>(weIdList.size());
+            for (CompletableFuture<WeIdResolveResult> future : futures) {
+                results.add(future.join());
+            }
+            return new ResponseData<>(results, ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("[batchResolveFull] batch resolve weid failed with exception. ", e);
+            return new ResponseData<>(null, ErrorCode.UNKNOW_ERROR);
+        }
+    }
+
     /**
      * Check if WeIdentity DID exists on Chain.
      *
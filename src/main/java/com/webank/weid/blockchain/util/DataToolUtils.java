@@ -132,6 +132,10 @@ public final class DataToolUtils {
         }
     }
 
+    public static Integer getLatestBlockNumber() throws IOException {
+        return BaseServiceFisco.getLatestBlockNumber();
+    }
+
     public static String getVersion() throws IOException {
         if(chainType.equals(ChainType.FISCO_BCOS_V2.getName())){
             return BaseServiceFisco.getVersion();
@@ -0,0 +1,30 @@
+package com.webank.weid.blockchain.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按前缀命名的守护线程工厂, SDK内部的后台任务都使用守护线程, 不阻止应用退出.
+ */
+public class NamedThreadFactory implements ThreadFactory {
+
+    private final String prefix;
+
+    private final AtomicInteger index = new AtomicInteger();
+
+    /**
+     * 构造线程工厂.
+     *
+     * @param prefix 线程名前缀
+     */
+    public NamedThreadFactory(String prefix) {
+        this.prefix = prefix;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, prefix + "-" + index.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
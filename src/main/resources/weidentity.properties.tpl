@@ -133,6 +133,105 @@ salt.length=5
 zkp.cpt.array.length=5
 
 
+#######################################################################################################
+#                                                                                                     #
+#         blockchain cache config                                                                     #
+#                                                                                                     #
+#######################################################################################################
+# Contract handle cache, reuses the loaded contract of the same signer for transactions.
+contract.cache.enabled=true
+contract.cache.max-size=1024
+contract.cache.expire-seconds=600
+# Key pair derivation cache, keyed by a keyed hash of the private key.
+keypair.cache.enabled=true
+keypair.cache.max-size=1024
+keypair.cache.expire-seconds=300
+# Interval of the background contract address refresh, 0 means disabled.
+contract.address.refresh-seconds=0
+# CNS/BFS bucket address cache, entries are re-resolved in background after the refresh interval.
+cns.cache.max-size=256
+cns.cache.refresh-seconds=300
+# WeIdDocument read cache, disabled by default. Changes made by other processes are visible after max-staleness-seconds at most.
+weid.document.cache.enabled=false
+weid.document.cache.max-size=10000
+weid.document.cache.max-staleness-seconds=30
+# Max number of WeIDs resolved at the same time by batchResolveFull.
+weid.resolve.batch-concurrency=8
+# WeID existence filter, answers isWeIdExist for WeIDs that do not exist without calling the chain.
+# Disabled by default. WeIDs created by other processes are visible after scan-seconds at most.
+weid.existence.filter.enabled=false
+weid.existence.filter.memory-bytes=8388608
+weid.existence.filter.false-positive-rate=0.001
+weid.existence.filter.scan-seconds=60
+weid.existence.filter.page-size=500
+# CPT and claim policy cache, keyed by version. probe-seconds > 0 serves the latest version without querying the chain
+# for that many seconds after it was confirmed, 0 means the version is always confirmed on chain.
+cpt.cache.enabled=false
+cpt.cache.max-size=1000
+cpt.cache.probe-seconds=0
+# Credential template cache. Templates put by other processes are visible after expire-seconds at most.
+cpt.template.cache.enabled=true
+cpt.template.cache.max-size=1000
+cpt.template.cache.expire-seconds=300
+# Max number of transaction receipts fetched at the same time when scanning a block.
+receipt.scan.concurrency=8
+# Evidence read cache, disabled by default. Changes made by other processes are visible after expire-seconds at most.
+# The customKey to hash index is always kept, a custom key is bound only once.
+evidence.cache.enabled=false
+evidence.cache.max-size=10000
+evidence.cache.expire-seconds=10
+evidence.cache.custom-key.max-size=100000
+# Authority and specific type issuer snapshot, disabled by default. The snapshot is reloaded when any issuer count
+# changes; changes that keep all counts unchanged are visible after max-age-seconds at most.
+issuer.snapshot.enabled=false
+issuer.snapshot.refresh-seconds=10
+issuer.snapshot.max-age-seconds=600
+# DataBucket get cache for contract addresses and org config. Local writes invalidate the affected entries; changes
+# made by other processes are visible after expire-seconds at most. Contract address reloads always read the chain.
+databucket.cache.enabled=true
+databucket.cache.max-size=10000
+databucket.cache.expire-seconds=300
+# Latest block number of each group is polled every poll-millis, getBlockNumber reads the tracked value. When it has
+# not been updated for max-stale-millis, the node is queried directly. 0 disables tracking.
+chain.head.poll-millis=1000
+chain.head.max-stale-millis=10000
+# Group list and peers are kept in memory and reloaded every refresh-seconds; checking an unknown group also
+# triggers a background reload.
+group.topology.refresh-seconds=300
+# Subscribe to WeID, evidence, CPT and authority issuer contract events of the master group so that writes made by
+# other processes invalidate the local caches. Disabled by default. The highest block whose events were delivered is
+# kept in checkpoint-file when set; after an error the missed blocks are backfilled every retry-seconds.
+event.subscribe.enabled=false
+event.subscribe.checkpoint-file=
+event.subscribe.retry-seconds=10
+# Local WeID index for getWeIdList and getWeIdCount, disabled by default. Built once by a parallel scan and then
+# synced every sync-seconds, or on CreateWeId events when event.subscribe is enabled. Kept in file across restarts.
+weid.index.enabled=false
+weid.index.file=weid.index
+weid.index.scan-threads=4
+weid.index.page-size=500
+weid.index.sync-seconds=60
+# Evidence catalog indexed by signer and timestamp, disabled by default. Kept current by evidence events (requires
+# event.subscribe.enabled); older records are indexed by a backfill that runs on the block backfill engine.
+evidence.catalog.enabled=false
+evidence.catalog.file=evidence.catalog
+evidence.catalog.max-page-size=1000
+# Historical block backfill shared by derived indexes: threads fetch blocks in parallel, at most queue-blocks are
+# fetched ahead of the consumer. Progress is saved as {name}.checkpoint in checkpoint-dir when set.
+backfill.threads=8
+backfill.queue-blocks=64
+backfill.retry-times=3
+backfill.checkpoint-dir=
+backfill.checkpoint-blocks=100
+backfill.report-seconds=10
+# Warm-start snapshot of the WeID document, CPT, issuer and DataBucket caches, written every interval-seconds at the
+# event.subscribe checkpoint (requires event.subscribe.enabled). Discarded when more than max-replay-blocks behind.
+cache.snapshot.enabled=false
+cache.snapshot.file=cache.snapshot
+cache.snapshot.interval-seconds=300
+cache.snapshot.max-replay-blocks=100000
+
+
 #######################################################################################################
 #                                                                                                     #
 #         endpoint Service config                                                                     #
@@ -0,0 +1,261 @@
+package com.webank.weid.blockchain.service.fisco.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.webank.weid.blockchain.exception.WeIdBaseException;
+
+/**
+ * BlockBackfill测试, 使用不连接链的区块查询.
+ */
+public class BlockBackfillTest {
+
+    private static final int THREADS = 8;
+
+    private static final int QUEUE_BLOCKS = 16;
+
+    private static final int RETRY_TIMES = 2;
+
+    private static final long CHECKPOINT_BLOCKS = 10;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ExecutorService executor;
+
+    private FakeFetcher fetcher;
+
+    private String checkpointFile;
+
+    @Before
+    public void setUp() throws IOException {
+        executor = Executors.newFixedThreadPool(THREADS);
+        fetcher = new FakeFetcher();
+        checkpointFile = new File(folder.getRoot(), "test.checkpoint").getPath();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testOrderedDeliveryUnderParallelFetch() throws Exception {
+        List<Long> consumed = new ArrayList<>();
+        Thread caller = Thread.currentThread();
+        BlockBackfill backfill = newBackfill((blockNumber, receipts) -> {
+            Assert.assertSame(caller, Thread.currentThread());
+            Assert.assertEquals(FakeFetcher.receiptsOf(blockNumber), receipts);
+            consumed.add(blockNumber);
+        });
+        Assert.assertEquals(499L, backfill.run(0, 499));
+        Assert.assertEquals(range(0, 499), consumed);
+        Assert.assertEquals(499L, backfill.getCheckpoint());
+        Assert.assertEquals(499L, CheckpointFile.read(checkpointFile));
+        Assert.assertTrue("fetches should overlap", fetcher.maxConcurrent.get() > 1);
+        Assert.assertTrue(fetcher.maxConcurrent.get() <= QUEUE_BLOCKS);
+    }
+
+    @Test
+    public void testRetryFailedFetch() throws Exception {
+        fetcher.failures.put(10L, new AtomicInteger(RETRY_TIMES));
+        List<Long> consumed = new ArrayList<>();
+        BlockBackfill backfill = newBackfill((blockNumber, receipts) -> consumed.add(blockNumber));
+        Assert.assertEquals(30L, backfill.run(0, 30));
+        Assert.assertEquals(range(0, 30), consumed);
+        Assert.assertEquals(RETRY_TIMES + 1, fetcher.calls.get(10L).get());
+    }
+
+    @Test
+    public void testStopAfterRetriesExhausted() throws Exception {
+        fetcher.failures.put(10L, new AtomicInteger(RETRY_TIMES + 1));
+        List<Long> consumed = new ArrayList<>();
+        BlockBackfill backfill = newBackfill((blockNumber, receipts) -> consumed.add(blockNumber));
+        try {
+            backfill.run(0, 30);
+            Assert.fail("run should fail");
+        } catch (WeIdBaseException e) {
+            Assert.assertEquals("fetch failed: 10", e.getCause().getMessage());
+        }
+        Assert.assertEquals(range(0, 9), consumed);
+        Assert.assertEquals(9L, backfill.getCheckpoint());
+        Assert.assertEquals(9L, CheckpointFile.read(checkpointFile));
+
+        // 查询恢复后从检查点继续
+        consumed.clear();
+        BlockBackfill resumed = newBackfill((blockNumber, receipts) -> consumed.add(blockNumber));
+        Assert.assertEquals(30L, resumed.run(0, 30));
+        Assert.assertEquals(range(10, 30), consumed);
+    }
+
+    @Test
+    public void testResumeFromCheckpointAfterConsumerFailure() throws Exception {
+        List<Long> consumed = new ArrayList<>();
+        BlockBackfill backfill = newBackfill((blockNumber, receipts) -> {
+            if (blockNumber == 37) {
+                throw new IllegalStateException("consume failed");
+            }
+            consumed.add(blockNumber);
+        });
+        try {
+            backfill.run(0, 99);
+            Assert.fail("run should fail");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("consume failed", e.getMessage());
+        }
+        Assert.assertEquals(range(0, 36), consumed);
+        Assert.assertEquals(36L, CheckpointFile.read(checkpointFile));
+
+        consumed.clear();
+        BlockBackfill resumed = newBackfill((blockNumber, receipts) -> consumed.add(blockNumber));
+        Assert.assertEquals(36L, resumed.getCheckpoint());
+        Assert.assertEquals(99L, resumed.run(0, 99));
+        Assert.assertEquals(range(37, 99), consumed);
+    }
+
+    @Test
+    public void testCheckpointWrittenPeriodically() throws Exception {
+        List<Long> written = new ArrayList<>();
+        BlockBackfill backfill = newBackfill(
+            (blockNumber, receipts) -> written.add(CheckpointFile.read(checkpointFile)));
+        backfill.run(0, 25);
+        // 消费第n个区块时文件中是之前最后一次按间隔写入的检查点
+        Assert.assertEquals(Long.valueOf(-1L), written.get(9));
+        Assert.assertEquals(Long.valueOf(9L), written.get(10));
+        Assert.assertEquals(Long.valueOf(9L), written.get(19));
+        Assert.assertEquals(Long.valueOf(19L), written.get(25));
+        Assert.assertEquals(25L, CheckpointFile.read(checkpointFile));
+    }
+
+    @Test
+    public void testStopAndResume() throws Exception {
+        List<Long> consumed = new ArrayList<>();
+        AtomicReference<BlockBackfill> self = new AtomicReference<>();
+        BlockBackfill backfill = newBackfill((blockNumber, receipts) -> {
+            consumed.add(blockNumber);
+            if (blockNumber == 50) {
+                self.get().stop();
+            }
+        });
+        self.set(backfill);
+        Assert.assertEquals(50L, backfill.run(0, 99));
+        Assert.assertEquals(range(0, 50), consumed);
+        Assert.assertEquals(50L, CheckpointFile.read(checkpointFile));
+
+        consumed.clear();
+        Assert.assertEquals(99L, backfill.run(0, 99));
+        Assert.assertEquals(range(51, 99), consumed);
+    }
+
+    @Test
+    public void testFromBlockAfterCheckpoint() throws Exception {
+        CheckpointFile.write(checkpointFile, 20);
+        List<Long> consumed = new ArrayList<>();
+        BlockBackfill backfill = newBackfill((blockNumber, receipts) -> consumed.add(blockNumber));
+        Assert.assertEquals(40L, backfill.run(30, 40));
+        Assert.assertEquals(range(30, 40), consumed);
+    }
+
+    @Test
+    public void testClearCheckpoint() throws Exception {
+        List<Long> consumed = new ArrayList<>();
+        BlockBackfill backfill = newBackfill((blockNumber, receipts) -> consumed.add(blockNumber));
+        backfill.run(0, 20);
+        backfill.clearCheckpoint();
+        Assert.assertEquals(-1L, backfill.getCheckpoint());
+        Assert.assertFalse(new File(checkpointFile).exists());
+
+        consumed.clear();
+        Assert.assertEquals(5L, backfill.run(0, 5));
+        Assert.assertEquals(range(0, 5), consumed);
+    }
+
+    @Test
+    public void testNothingToRun() throws Exception {
+        BlockBackfill backfill = newBackfill((blockNumber, receipts) -> Assert.fail());
+        Assert.assertEquals(-1L, backfill.run(10, 9));
+        Assert.assertTrue(fetcher.calls.isEmpty());
+        Assert.assertFalse(new File(checkpointFile).exists());
+    }
+
+    @Test
+    public void testWithoutCheckpointFile() throws Exception {
+        List<Long> consumed = new ArrayList<>();
+        BlockBackfill backfill = new BlockBackfill("test", null, fetcher,
+            (blockNumber, receipts) -> consumed.add(blockNumber), executor, QUEUE_BLOCKS,
+            RETRY_TIMES, CHECKPOINT_BLOCKS, TimeUnit.SECONDS.toNanos(10));
+        Assert.assertEquals(15L, backfill.run(0, 15));
+        Assert.assertEquals(range(0, 15), consumed);
+        Assert.assertEquals(0, folder.getRoot().list().length);
+    }
+
+    private BlockBackfill newBackfill(BlockBackfill.Consumer consumer) {
+        return new BlockBackfill("test", checkpointFile, fetcher, consumer, executor,
+            QUEUE_BLOCKS, RETRY_TIMES, CHECKPOINT_BLOCKS, TimeUnit.SECONDS.toNanos(10));
+    }
+
+    private static List<Long> range(long from, long to) {
+        List<Long> result = new ArrayList<>();
+        for (long blockNumber = from; blockNumber <= to; blockNumber++) {
+            result.add(blockNumber);
+        }
+        return result;
+    }
+
+    /**
+     * 随机延迟返回的区块查询, 完成顺序与提交顺序不同.
+     */
+    private static final class FakeFetcher implements BlockFetcher {
+
+        private final Map<Long, AtomicInteger> failures = new ConcurrentHashMap<>();
+
+        private final Map<Long, AtomicInteger> calls = new ConcurrentHashMap<>();
+
+        private final AtomicInteger running = new AtomicInteger();
+
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+        private static List<Object> receiptsOf(long blockNumber) {
+            List<Object> receipts = new ArrayList<>();
+            for (int i = 0; i < blockNumber % 4; i++) {
+                receipts.add(blockNumber + ":" + i);
+            }
+            return Collections.unmodifiableList(receipts);
+        }
+
+        @Override
+        public List<Object> getReceipts(long blockNumber) throws Exception {
+            calls.computeIfAbsent(blockNumber, key -> new AtomicInteger()).incrementAndGet();
+            int current = running.incrementAndGet();
+            maxConcurrent.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+                AtomicInteger remaining = failures.get(blockNumber);
+                if (remaining != null && remaining.getAndDecrement() > 0) {
+                    throw new IOException("fetch failed: " + blockNumber);
+                }
+                return receiptsOf(blockNumber);
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.webank.weid.blockchain.service.fisco.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * CheckpointFile测试.
+ */
+public class CheckpointFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWriteReadDelete() {
+        String file = new File(folder.getRoot(), "a.checkpoint").getPath();
+        Assert.assertEquals(-1L, CheckpointFile.read(file));
+        CheckpointFile.write(file, 12345L);
+        Assert.assertEquals(12345L, CheckpointFile.read(file));
+        CheckpointFile.write(file, 67890L);
+        Assert.assertEquals(67890L, CheckpointFile.read(file));
+        Assert.assertFalse(new File(file + ".tmp").exists());
+        CheckpointFile.delete(file);
+        Assert.assertFalse(new File(file).exists());
+        Assert.assertEquals(-1L, CheckpointFile.read(file));
+        CheckpointFile.delete(file);
+    }
+
+    @Test
+    public void testBlankFile() {
+        CheckpointFile.write(null, 1L);
+        CheckpointFile.write(" ", 1L);
+        CheckpointFile.delete(null);
+        Assert.assertEquals(-1L, CheckpointFile.read(null));
+        Assert.assertEquals(-1L, CheckpointFile.read(""));
+    }
+
+    @Test
+    public void testIllegalContent() throws IOException {
+        File file = folder.newFile("b.checkpoint");
+        Assert.assertEquals(-1L, CheckpointFile.read(file.getPath()));
+        Files.write(file.toPath(), "not a number".getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals(-1L, CheckpointFile.read(file.getPath()));
+        Files.write(file.toPath(), " 42\n".getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals(42L, CheckpointFile.read(file.getPath()));
+    }
+
+    @Test
+    public void testWriteToMissingDirectory() {
+        String file = new File(folder.getRoot(), "missing/c.checkpoint").getPath();
+        CheckpointFile.write(file, 1L);
+        Assert.assertEquals(-1L, CheckpointFile.read(file));
+    }
+}
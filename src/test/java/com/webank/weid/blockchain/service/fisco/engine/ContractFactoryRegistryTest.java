@@ -0,0 +1,146 @@
+package com.webank.weid.blockchain.service.fisco.engine;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+import org.fisco.bcos.sdk.client.Client;
+import org.fisco.bcos.sdk.crypto.keypair.CryptoKeyPair;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.exception.LoadContractException;
+import com.webank.weid.blockchain.service.fisco.engine.ContractFactoryRegistry.ContractFactory;
+
+/**
+ * ContractFactoryRegistry测试, 不需要连接链.
+ */
+public class ContractFactoryRegistryTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContractFactoryRegistryTest.class);
+
+    private static final int WARMUP = 200_000;
+
+    private static final int ROUNDS = 2_000_000;
+
+    @Test
+    public void testLambdaFactoryForV2Contracts() throws Throwable {
+        for (Class<?> cls : ContractFactoryRegistry.contractClasses(true)) {
+            MethodHandle load = findLoad(cls, Client.class, CryptoKeyPair.class);
+            Assert.assertNotNull(cls.getName(), ContractFactoryRegistry.lambdaFactory(load));
+        }
+    }
+
+    @Test
+    public void testLambdaFactoryForV3Contracts() throws Throwable {
+        for (Class<?> cls : ContractFactoryRegistry.contractClasses(false)) {
+            MethodHandle load = findLoad(cls, org.fisco.bcos.sdk.v3.client.Client.class,
+                org.fisco.bcos.sdk.v3.crypto.keypair.CryptoKeyPair.class);
+            Assert.assertNotNull(cls.getName(), ContractFactoryRegistry.lambdaFactory(load));
+        }
+    }
+
+    @Test
+    public void testResolveLoadsContract() {
+        ContractFactory factory = ContractFactoryRegistry.resolve(
+            FakeContract.class, Client.class, CryptoKeyPair.class);
+        Object contract = factory.load("0x01", null, null);
+        Assert.assertTrue(contract instanceof FakeContract);
+        Assert.assertEquals("0x01", ((FakeContract) contract).address);
+    }
+
+    @Test(expected = LoadContractException.class)
+    public void testResolveWithoutLoadMethod() {
+        ContractFactoryRegistry.resolve(String.class, Client.class, CryptoKeyPair.class);
+    }
+
+    @Test
+    public void testMethodHandleFallback() throws Exception {
+        ContractFactory factory = ContractFactoryRegistry.methodHandleFactory(
+            findLoad(FakeContract.class, Client.class, CryptoKeyPair.class));
+        Object contract = factory.load("0x02", null, null);
+        Assert.assertEquals("0x02", ((FakeContract) contract).address);
+    }
+
+    @Test
+    public void testMethodHandleFallbackWrapsCheckedException() throws Exception {
+        ContractFactory factory = ContractFactoryRegistry.methodHandleFactory(
+            findLoad(FailingContract.class, Client.class, CryptoKeyPair.class));
+        try {
+            factory.load("0x03", null, null);
+            Assert.fail("load should fail");
+        } catch (LoadContractException e) {
+            Assert.assertEquals("load failed", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testLoadTiming() throws Throwable {
+        Method method = FakeContract.class.getMethod(
+            "load", String.class, Client.class, CryptoKeyPair.class);
+        MethodHandle load = findLoad(FakeContract.class, Client.class, CryptoKeyPair.class);
+        ContractFactory lambda = ContractFactoryRegistry.lambdaFactory(load);
+        ContractFactory handle = ContractFactoryRegistry.methodHandleFactory(load);
+
+        timeReflection(method, WARMUP);
+        time(lambda, WARMUP);
+        time(handle, WARMUP);
+        long reflection = timeReflection(method, ROUNDS);
+        long lambdaNanos = time(lambda, ROUNDS);
+        long handleNanos = time(handle, ROUNDS);
+        logger.info("[testLoadTiming] {} loads, reflection: {} ns/op, lambda: {} ns/op, "
+                + "method handle: {} ns/op.", ROUNDS, (double) reflection / ROUNDS,
+            (double) lambdaNanos / ROUNDS, (double) handleNanos / ROUNDS);
+        Assert.assertTrue(reflection > 0 && lambdaNanos > 0 && handleNanos > 0);
+    }
+
+    private static long timeReflection(Method method, int rounds) throws Exception {
+        long start = System.nanoTime();
+        int sink = 0;
+        for (int i = 0; i < rounds; i++) {
+            sink += ((FakeContract) method.invoke(null, "0x04", null, null)).address.length();
+        }
+        Assert.assertEquals(rounds * 4, sink);
+        return System.nanoTime() - start;
+    }
+
+    private static long time(ContractFactory factory, int rounds) {
+        long start = System.nanoTime();
+        int sink = 0;
+        for (int i = 0; i < rounds; i++) {
+            sink += ((FakeContract) factory.load("0x04", null, null)).address.length();
+        }
+        Assert.assertEquals(rounds * 4, sink);
+        return System.nanoTime() - start;
+    }
+
+    private static MethodHandle findLoad(Class<?> cls, Class<?> clientClass,
+        Class<?> keyPairClass) throws NoSuchMethodException, IllegalAccessException {
+        return MethodHandles.publicLookup().findStatic(cls, "load",
+            MethodType.methodType(cls, String.class, clientClass, keyPairClass));
+    }
+
+    public static final class FakeContract {
+
+        private final String address;
+
+        private FakeContract(String address) {
+            this.address = address;
+        }
+
+        public static FakeContract load(String address, Client client, CryptoKeyPair credential) {
+            return new FakeContract(address);
+        }
+    }
+
+    public static final class FailingContract {
+
+        public static FailingContract load(String address, Client client,
+            CryptoKeyPair credential) throws Exception {
+            throw new Exception("load failed");
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.webank.weid.blockchain.service.fisco.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.webank.weid.blockchain.protocol.base.EvidenceCatalogEntry;
+import com.webank.weid.blockchain.protocol.response.EvidenceCatalogPage;
+
+/**
+ * EvidenceCatalogFile测试, 只读写本地文件.
+ */
+public class EvidenceCatalogFileTest {
+
+    private static final String CONTRACT = address(0xC0);
+
+    private static final String OTHER_CONTRACT = address(0xC1);
+
+    private static final String SIGNER = address(0xA1);
+
+    private static final String OTHER_SIGNER = address(0xA2);
+
+    private static final int MAX_PAGE_SIZE = 5;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicInteger resets = new AtomicInteger();
+
+    @Test
+    public void testQueryBeforeOpen() throws IOException {
+        try (EvidenceCatalogFile catalog = newCatalog(newFile())) {
+            Assert.assertNull(catalog.getContractAddress());
+            Assert.assertTrue(catalog.query(SIGNER, 0, Long.MAX_VALUE, null, 5)
+                .getEntries().isEmpty());
+            Assert.assertFalse(catalog.add(CONTRACT, SIGNER, 1, hash(1), 1));
+        }
+    }
+
+    @Test
+    public void testPagingEndsExactlyAtPageSize() throws IOException {
+        try (EvidenceCatalogFile catalog = open(newFile())) {
+            for (int i = 0; i < 10; i++) {
+                Assert.assertTrue(catalog.add(CONTRACT, SIGNER, 100 + i, hash(i), 1000 + i));
+                catalog.add(CONTRACT, OTHER_SIGNER, 100 + i, hash(100 + i), 1000 + i);
+            }
+            EvidenceCatalogPage first = catalog.query(SIGNER, 0, Long.MAX_VALUE, null, 5);
+            assertTimestamps(first, 100, 105);
+            Assert.assertEquals("104:" + hash(4), first.getNextCursor());
+
+            // 剩余的记录正好一页, 不再返回游标
+            EvidenceCatalogPage second = catalog.query(
+                SIGNER, 0, Long.MAX_VALUE, first.getNextCursor(), 5);
+            assertTimestamps(second, 105, 110);
+            Assert.assertNull(second.getNextCursor());
+            Assert.assertEquals(Long.valueOf(1009), second.getEntries().get(4).getBlockNumber());
+
+            // 以最后一条记录为游标时返回空页
+            EvidenceCatalogPage end = catalog.query(
+                SIGNER, 0, Long.MAX_VALUE, "109:" + hash(9), 5);
+            Assert.assertTrue(end.getEntries().isEmpty());
+            Assert.assertNull(end.getNextCursor());
+        }
+    }
+
+    @Test
+    public void testPagingWithinSameTimestamp() throws IOException {
+        try (EvidenceCatalogFile catalog = open(newFile())) {
+            for (int i = 5; i >= 0; i--) {
+                catalog.add(CONTRACT, SIGNER, 100, hash(i), 1);
+            }
+            List<String> hashes = new ArrayList<>();
+            String cursor = null;
+            int pages = 0;
+            do {
+                EvidenceCatalogPage page = catalog.query(SIGNER, 100, 100, cursor, 4);
+                for (EvidenceCatalogEntry entry : page.getEntries()) {
+                    hashes.add(entry.getHash());
+                }
+                cursor = page.getNextCursor();
+                pages++;
+            } while (cursor != null);
+            Assert.assertEquals(2, pages);
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                expected.add(hash(i));
+            }
+            Assert.assertEquals(expected, hashes);
+        }
+    }
+
+    @Test
+    public void testTimeRangeIsInclusive() throws IOException {
+        try (EvidenceCatalogFile catalog = open(newFile())) {
+            for (int i = 0; i < 10; i++) {
+                catalog.add(CONTRACT, SIGNER, 100 + i, hash(i), 1);
+            }
+            assertTimestamps(catalog.query(SIGNER, 102, 104, null, 5), 102, 105);
+            assertTimestamps(catalog.query(SIGNER, 109, 200, null, 5), 109, 110);
+            Assert.assertTrue(catalog.query(SIGNER, 105, 104, null, 5).getEntries().isEmpty());
+            Assert.assertTrue(catalog.query(SIGNER, 200, 300, null, 5).getEntries().isEmpty());
+            Assert.assertTrue(catalog.query(address(0xA3), 0, 200, null, 5)
+                .getEntries().isEmpty());
+            // 签名者地址不区分大小写
+            assertTimestamps(catalog.query(SIGNER.toUpperCase(Locale.ROOT), 100, 101, null, 5),
+                100, 102);
+        }
+    }
+
+    @Test
+    public void testCursorOutsideRange() throws IOException {
+        try (EvidenceCatalogFile catalog = open(newFile())) {
+            for (int i = 0; i < 10; i++) {
+                catalog.add(CONTRACT, SIGNER, 100 + i, hash(i), 1);
+            }
+            // 游标在起始时间之前时从起始时间开始
+            assertTimestamps(catalog.query(SIGNER, 103, 200, "101:" + hash(1), 2), 103, 105);
+            // 游标在结束时间之后时返回空页
+            Assert.assertTrue(catalog.query(SIGNER, 100, 104, "104:" + hash(4), 2)
+                .getEntries().isEmpty());
+        }
+    }
+
+    @Test
+    public void testPageSizeIsCapped() throws IOException {
+        try (EvidenceCatalogFile catalog = open(newFile())) {
+            for (int i = 0; i < 10; i++) {
+                catalog.add(CONTRACT, SIGNER, 100 + i, hash(i), 1);
+            }
+            EvidenceCatalogPage page = catalog.query(SIGNER, 0, 200, null, 1000);
+            assertTimestamps(page, 100, 100 + MAX_PAGE_SIZE);
+            Assert.assertNotNull(page.getNextCursor());
+            assertTimestamps(catalog.query(SIGNER, 0, 200, null, 0), 100, 101);
+            assertTimestamps(catalog.query(SIGNER, 0, 200, null, -1), 100, 101);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalCursor() throws IOException {
+        try (EvidenceCatalogFile catalog = open(newFile())) {
+            catalog.query(SIGNER, 0, 200, "no-separator", 5);
+        }
+    }
+
+    @Test
+    public void testDuplicateAndOtherContractIgnored() throws IOException {
+        String file = newFile();
+        try (EvidenceCatalogFile catalog = open(file)) {
+            Assert.assertTrue(catalog.add(CONTRACT, SIGNER, 100, hash(1), 1));
+            Assert.assertFalse(catalog.add(CONTRACT, SIGNER, 100, hash(1), 2));
+            Assert.assertFalse(catalog.add(OTHER_CONTRACT, SIGNER, 101, hash(2), 3));
+            Assert.assertEquals(1, catalog.size());
+        }
+        Assert.assertEquals(EvidenceCatalogFile.HEADER_SIZE + EvidenceCatalogFile.RECORD_SIZE,
+            new File(file).length());
+    }
+
+    @Test
+    public void testReopenDropsTornRecord() throws IOException {
+        String file = newFile();
+        try (EvidenceCatalogFile catalog = open(file)) {
+            for (int i = 0; i < 3; i++) {
+                catalog.add(CONTRACT, SIGNER, 100 + i, hash(i), 1000 + i);
+            }
+        }
+        // 模拟写入最后一条记录时进程退出
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(raf.length());
+            raf.write(new byte[EvidenceCatalogFile.RECORD_SIZE / 2]);
+        }
+        try (EvidenceCatalogFile catalog = open(file)) {
+            Assert.assertEquals(3, catalog.size());
+            Assert.assertEquals(EvidenceCatalogFile.HEADER_SIZE
+                + 3L * EvidenceCatalogFile.RECORD_SIZE, new File(file).length());
+            EvidenceCatalogPage page = catalog.query(SIGNER, 0, 200, null, 5);
+            assertTimestamps(page, 100, 103);
+            Assert.assertEquals(Long.valueOf(1002), page.getEntries().get(2).getBlockNumber());
+            Assert.assertTrue(catalog.add(CONTRACT, SIGNER, 103, hash(3), 1003));
+        }
+        try (EvidenceCatalogFile catalog = open(file)) {
+            assertTimestamps(catalog.query(SIGNER, 0, 200, null, 5), 100, 104);
+        }
+        Assert.assertEquals(1, resets.get());
+    }
+
+    @Test
+    public void testContractChangeResets() throws IOException {
+        String file = newFile();
+        try (EvidenceCatalogFile catalog = open(file)) {
+            catalog.add(CONTRACT, SIGNER, 100, hash(1), 1);
+            catalog.switchTo(CONTRACT);
+            Assert.assertEquals(1, catalog.size());
+            catalog.switchTo(OTHER_CONTRACT);
+            Assert.assertEquals(OTHER_CONTRACT, catalog.getContractAddress());
+            Assert.assertEquals(0, catalog.size());
+            Assert.assertEquals(2, resets.get());
+            Assert.assertTrue(catalog.add(OTHER_CONTRACT, SIGNER, 100, hash(1), 1));
+        }
+        // 文件属于其他合约时打开即清空
+        try (EvidenceCatalogFile catalog = open(file)) {
+            Assert.assertEquals(0, catalog.size());
+            Assert.assertEquals(3, resets.get());
+        }
+    }
+
+    private EvidenceCatalogFile newCatalog(String file) {
+        return new EvidenceCatalogFile(file, MAX_PAGE_SIZE, resets::incrementAndGet);
+    }
+
+    private EvidenceCatalogFile open(String file) throws IOException {
+        EvidenceCatalogFile catalog = newCatalog(file);
+        catalog.switchTo(CONTRACT);
+        Assert.assertEquals(CONTRACT, catalog.getContractAddress());
+        return catalog;
+    }
+
+    private String newFile() throws IOException {
+        File file = folder.newFile();
+        Assert.assertTrue(file.delete());
+        return file.getPath();
+    }
+
+    private static void assertTimestamps(EvidenceCatalogPage page, long from, long to) {
+        List<Long> expected = new ArrayList<>();
+        for (long timestamp = from; timestamp < to; timestamp++) {
+            expected.add(timestamp);
+        }
+        List<Long> actual = new ArrayList<>();
+        for (EvidenceCatalogEntry entry : page.getEntries()) {
+            Assert.assertEquals(SIGNER, entry.getSigner());
+            actual.add(entry.getTimestamp());
+        }
+        Assert.assertEquals(expected, actual);
+    }
+
+    private static String address(int value) {
+        return String.format("0x%040x", value);
+    }
+
+    private static String hash(int value) {
+        return String.format("0x%064x", value);
+    }
+}
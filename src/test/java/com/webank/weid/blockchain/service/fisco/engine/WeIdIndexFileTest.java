@@ -0,0 +1,173 @@
+package com.webank.weid.blockchain.service.fisco.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * WeIdIndexFile测试, 只读写本地文件.
+ */
+public class WeIdIndexFileTest {
+
+    private static final String CONTRACT = address(0xC0);
+
+    private static final String OTHER_CONTRACT = address(0xC1);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTripAndReopen() throws IOException {
+        String file = newFile();
+        try (WeIdIndexFile index = WeIdIndexFile.open(file, CONTRACT)) {
+            Assert.assertEquals(0, index.getCount());
+            index.append(addresses(0, 3));
+            index.append(addresses(3, 5));
+            Assert.assertEquals(5, index.getCount());
+            Assert.assertEquals(addresses(0, 5), index.read(0, 4));
+            Assert.assertEquals(addresses(2, 4), index.read(2, 3));
+            Assert.assertNull(index.read(3, 5));
+        }
+        try (WeIdIndexFile index = WeIdIndexFile.open(file, CONTRACT)) {
+            Assert.assertEquals(5, index.getCount());
+            Assert.assertEquals(CONTRACT, index.getContractAddress());
+            Assert.assertEquals(addresses(0, 5), index.read(0, 4));
+            index.append(addresses(5, 6));
+            Assert.assertEquals(addresses(4, 6), index.read(4, 5));
+        }
+    }
+
+    @Test
+    public void testAppendBeyondInitialCapacity() throws IOException {
+        String file = newFile();
+        try (WeIdIndexFile index = WeIdIndexFile.open(file, CONTRACT)) {
+            index.append(addresses(0, 70000));
+            index.append(addresses(70000, 140000));
+            Assert.assertEquals(140000, index.getCount());
+            Assert.assertEquals(addresses(69998, 70002), index.read(69998, 70001));
+        }
+        try (WeIdIndexFile index = WeIdIndexFile.open(file, CONTRACT)) {
+            Assert.assertEquals(140000, index.getCount());
+            Assert.assertEquals(addresses(139999, 140000), index.read(139999, 139999));
+        }
+    }
+
+    @Test
+    public void testReopenWithTruncatedTail() throws IOException {
+        String file = newFile();
+        try (WeIdIndexFile index = WeIdIndexFile.open(file, CONTRACT)) {
+            index.append(addresses(0, 10));
+        }
+        // 第8个地址只写入了一半
+        truncate(file, WeIdIndexFile.HEADER_SIZE + 7L * WeIdIndexFile.ADDRESS_SIZE + 9);
+        try (WeIdIndexFile index = WeIdIndexFile.open(file, CONTRACT)) {
+            Assert.assertEquals(7, index.getCount());
+            Assert.assertEquals(addresses(0, 7), index.read(0, 6));
+            Assert.assertNull(index.read(0, 7));
+            index.append(addresses(7, 9));
+            Assert.assertEquals(addresses(6, 9), index.read(6, 8));
+        }
+        try (WeIdIndexFile index = WeIdIndexFile.open(file, CONTRACT)) {
+            Assert.assertEquals(9, index.getCount());
+            Assert.assertEquals(addresses(0, 9), index.read(0, 8));
+        }
+    }
+
+    @Test
+    public void testReopenAfterTruncatedTailWithoutAppend() throws IOException {
+        String file = newFile();
+        try (WeIdIndexFile index = WeIdIndexFile.open(file, CONTRACT)) {
+            index.append(addresses(0, 10));
+        }
+        truncate(file, WeIdIndexFile.HEADER_SIZE + 4L * WeIdIndexFile.ADDRESS_SIZE);
+        try (WeIdIndexFile index = WeIdIndexFile.open(file, CONTRACT)) {
+            Assert.assertEquals(4, index.getCount());
+        }
+        // 重新映射后文件长度恢复, 被截断的地址不能再被当作有效数据
+        try (WeIdIndexFile index = WeIdIndexFile.open(file, CONTRACT)) {
+            Assert.assertEquals(4, index.getCount());
+            Assert.assertEquals(addresses(0, 4), index.read(0, 3));
+        }
+    }
+
+    @Test
+    public void testReopenWithTruncatedHeader() throws IOException {
+        String file = newFile();
+        try (WeIdIndexFile index = WeIdIndexFile.open(file, CONTRACT)) {
+            index.append(addresses(0, 3));
+        }
+        truncate(file, WeIdIndexFile.HEADER_SIZE - 1);
+        try (WeIdIndexFile index = WeIdIndexFile.open(file, CONTRACT)) {
+            Assert.assertEquals(0, index.getCount());
+            index.append(addresses(0, 1));
+            Assert.assertEquals(addresses(0, 1), index.read(0, 0));
+        }
+    }
+
+    @Test
+    public void testReopenWithOtherContract() throws IOException {
+        String file = newFile();
+        try (WeIdIndexFile index = WeIdIndexFile.open(file, CONTRACT)) {
+            index.append(addresses(0, 3));
+        }
+        try (WeIdIndexFile index = WeIdIndexFile.open(file, OTHER_CONTRACT)) {
+            Assert.assertEquals(0, index.getCount());
+            Assert.assertEquals(OTHER_CONTRACT, index.getContractAddress());
+            Assert.assertNull(index.read(0, 0));
+        }
+    }
+
+    @Test
+    public void testReset() throws IOException {
+        String file = newFile();
+        try (WeIdIndexFile index = WeIdIndexFile.open(file, CONTRACT)) {
+            index.append(addresses(0, 3));
+            index.reset(OTHER_CONTRACT);
+            Assert.assertEquals(0, index.getCount());
+            Assert.assertNull(index.read(0, 0));
+            index.append(addresses(10, 11));
+        }
+        try (WeIdIndexFile index = WeIdIndexFile.open(file, OTHER_CONTRACT)) {
+            Assert.assertEquals(addresses(10, 11), index.read(0, 0));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAppendIllegalAddress() throws IOException {
+        try (WeIdIndexFile index = WeIdIndexFile.open(newFile(), CONTRACT)) {
+            index.append(Arrays.asList("0x1234"));
+        }
+    }
+
+    private String newFile() throws IOException {
+        File file = folder.newFile();
+        Assert.assertTrue(file.delete());
+        return file.getPath();
+    }
+
+    private static void truncate(String file, long size) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.getChannel().truncate(size);
+        }
+    }
+
+    private static List<String> addresses(int from, int to) {
+        List<String> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            result.add(address(i));
+        }
+        return result;
+    }
+
+    private static String address(int value) {
+        return String.format("0x%040x", value);
+    }
+}
@@ -0,0 +1,246 @@
+package com.webank.weid.blockchain.service.fisco.server;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.constant.CnsType;
+import com.webank.weid.blockchain.exception.WeIdBaseException;
+import com.webank.weid.blockchain.protocol.amop.AmopCommonArgs;
+import com.webank.weid.blockchain.protocol.response.AmopResponse;
+import com.webank.weid.blockchain.protocol.response.CnsInfo;
+
+/**
+ * WeServer.getInstance并发测试, 使用不连接链的WeServer.
+ */
+public class WeServerTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(WeServerTest.class);
+
+    private static final int THREADS = 64;
+
+    private static final int LOOKUPS = 200_000;
+
+    @Test
+    public void testBuildOncePerGroup() throws Exception {
+        AtomicInteger builds = new AtomicInteger();
+        List<WeServer<?, ?, ?>> results = runConcurrently(THREADS, () ->
+            WeServer.getOrBuild("build-once", () -> {
+                builds.incrementAndGet();
+                Thread.sleep(200);
+                return new FakeWeServer();
+            }));
+        Assert.assertEquals(1, builds.get());
+        for (WeServer<?, ?, ?> result : results) {
+            Assert.assertSame(results.get(0), result);
+        }
+    }
+
+    @Test
+    public void testSlowBuildDoesNotBlockOtherGroups() throws Exception {
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<WeServer<?, ?, ?>> slow = executor.submit(() ->
+                WeServer.getOrBuild("slow", () -> {
+                    building.countDown();
+                    release.await();
+                    return new FakeWeServer();
+                }));
+            Assert.assertTrue(building.await(10, TimeUnit.SECONDS));
+            WeServer<?, ?, ?> fast = WeServer.getOrBuild("fast", FakeWeServer::new);
+            Assert.assertNotNull(fast);
+            Assert.assertFalse(slow.isDone());
+            release.countDown();
+            Assert.assertNotNull(slow.get(10, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testBuildMayInitOtherGroup() {
+        WeServer<?, ?, ?> outer = WeServer.getOrBuild("outer", () -> {
+            Assert.assertNotNull(WeServer.getOrBuild("inner", FakeWeServer::new));
+            return new FakeWeServer();
+        });
+        Assert.assertNotNull(outer);
+        Assert.assertNotNull(WeServer.getInstance(null, "inner"));
+    }
+
+    @Test(expected = WeIdBaseException.class)
+    public void testRecursiveBuildOfSameGroup() {
+        WeServer.getOrBuild("recursive",
+            () -> WeServer.getOrBuild("recursive", FakeWeServer::new));
+    }
+
+    @Test
+    public void testFailedBuildIsRetried() {
+        try {
+            WeServer.getOrBuild("retry", () -> {
+                throw new IllegalStateException("connect failed");
+            });
+            Assert.fail("build should fail");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("connect failed", e.getMessage());
+        }
+        Assert.assertNotNull(WeServer.getOrBuild("retry", FakeWeServer::new));
+    }
+
+    /**
+     * 64个线程同时读取已初始化的群组, 与原先的类锁实现对比耗时.
+     */
+    @Test
+    public void testGetInstanceContention() throws Exception {
+        WeServer<?, ?, ?> expected = WeServer.getOrBuild("contention", FakeWeServer::new);
+        Map<String, WeServer<?, ?, ?>> lockedContext = new HashMap<>();
+        lockedContext.put("contention", expected);
+
+        // 预热
+        measure(() -> WeServer.getInstance(null, "contention"));
+        measure(() -> getLocked(lockedContext, "contention"));
+
+        long lockFree = measure(() -> WeServer.getInstance(null, "contention"));
+        long locked = measure(() -> getLocked(lockedContext, "contention"));
+        long total = (long) THREADS * LOOKUPS;
+        logger.info("[testGetInstanceContention] {} threads x {} lookups, lock-free: {} ms "
+                + "({} ns/op), class lock: {} ms ({} ns/op).", THREADS, LOOKUPS,
+            TimeUnit.NANOSECONDS.toMillis(lockFree), (double) lockFree / total,
+            TimeUnit.NANOSECONDS.toMillis(locked), (double) locked / total);
+        Assert.assertSame(expected, WeServer.getInstance(null, "contention"));
+    }
+
+    private static synchronized WeServer<?, ?, ?> getLocked(
+        Map<String, WeServer<?, ?, ?>> context,
+        String groupId
+    ) {
+        return context.get(groupId);
+    }
+
+    private static long measure(Callable<WeServer<?, ?, ?>> lookup) throws Exception {
+        long start = System.nanoTime();
+        List<WeServer<?, ?, ?>> results = runConcurrently(THREADS, () -> {
+            WeServer<?, ?, ?> result = null;
+            for (int i = 0; i < LOOKUPS; i++) {
+                result = lookup.call();
+            }
+            return result;
+        });
+        long elapsed = System.nanoTime() - start;
+        for (WeServer<?, ?, ?> result : results) {
+            Assert.assertNotNull(result);
+        }
+        return elapsed;
+    }
+
+    private static List<WeServer<?, ?, ?>> runConcurrently(
+        int threads,
+        Callable<WeServer<?, ?, ?>> task
+    ) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<WeServer<?, ?, ?>>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    ready.countDown();
+                    start.await();
+                    return task.call();
+                }));
+            }
+            ready.await();
+            start.countDown();
+            List<WeServer<?, ?, ?>> results = new ArrayList<>();
+            for (Future<WeServer<?, ?, ?>> future : futures) {
+                results.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static final class FakeWeServer extends WeServer<Object, Object, Object> {
+
+        private FakeWeServer() {
+            super(null);
+        }
+
+        @Override
+        public Object getWeb3j() {
+            return null;
+        }
+
+        @Override
+        public Object getBcosSDK() {
+            return null;
+        }
+
+        @Override
+        public Class<?> getWeb3jClass() {
+            return Object.class;
+        }
+
+        @Override
+        public Object getCredentials() {
+            return null;
+        }
+
+        @Override
+        public Object createCredentials(String privateKey) {
+            return null;
+        }
+
+        @Override
+        protected void initWeb3j(String groupId) {
+        }
+
+        @Override
+        public AmopResponse sendChannelMessage(AmopCommonArgs amopCommonArgs, int timeOut) {
+            return null;
+        }
+
+        @Override
+        public int getBlockNumber() {
+            return 0;
+        }
+
+        @Override
+        public String getVersion() {
+            return null;
+        }
+
+        @Override
+        protected CnsInfo queryCnsInfo(CnsType cnsType) {
+            return null;
+        }
+
+        @Override
+        public Set<String> getGroupList() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public List<String> getGroupPeers() {
+            return Collections.emptyList();
+        }
+    }
+}